@@ -0,0 +1,128 @@
+package com.bookstore.gateway.aggregation;
+
+import com.bookstore.gateway.controller.FallbackController;
+import com.bookstore.gateway.dto.BookDetailsResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stranica knjige u jednom pozivu: knjiga, recenzije i prosecna ocena se traze paralelno,
+ * svaki deo sa svojim timeout-om, pa odgovor traje koliko i najsporiji deo.
+ *
+ * Knjiga je obavezna - ako book-service ne odgovori, vraca se isti 503 kao /fallback/books,
+ * a greska klijenta (npr. nepostojeca knjiga) se prosledjuje kakva jeste. Recenzije i ocena
+ * su opcione: umesto njih dolazi poruka iz FallbackController-a i partial = true.
+ */
+@Service
+@Slf4j
+public class BookDetailsAggregator {
+
+    private final WebClient bookServiceClient;
+    private final WebClient reviewServiceClient;
+    private final MeterRegistry meterRegistry;
+    private final Duration bookTimeout;
+    private final Duration reviewsTimeout;
+    private final Duration ratingTimeout;
+
+    public BookDetailsAggregator(@Qualifier("bookServiceClient") WebClient bookServiceClient,
+                                 @Qualifier("reviewServiceClient") WebClient reviewServiceClient,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${bookstore.gateway.aggregation.book-timeout:2s}") Duration bookTimeout,
+                                 @Value("${bookstore.gateway.aggregation.reviews-timeout:1s}") Duration reviewsTimeout,
+                                 @Value("${bookstore.gateway.aggregation.rating-timeout:1s}") Duration ratingTimeout) {
+        this.bookServiceClient = bookServiceClient;
+        this.reviewServiceClient = reviewServiceClient;
+        this.meterRegistry = meterRegistry;
+        this.bookTimeout = bookTimeout;
+        this.reviewsTimeout = reviewsTimeout;
+        this.ratingTimeout = ratingTimeout;
+    }
+
+    public Mono<ResponseEntity<?>> getBookDetails(Long bookId) {
+        Mono<Leg> book = leg("book", "Book", bookTimeout,
+                bookServiceClient.get().uri("/api/books/{id}", bookId));
+        Mono<Leg> reviews = leg("reviews", "Review", reviewsTimeout,
+                reviewServiceClient.get().uri("/api/reviews/book/{bookId}", bookId));
+        Mono<Leg> rating = leg("averageRating", "Review", ratingTimeout,
+                reviewServiceClient.get().uri("/api/reviews/book/{bookId}/average-rating", bookId));
+
+        return Mono.zip(book, reviews, rating)
+                .map(legs -> merge(legs.getT1(), legs.getT2(), legs.getT3()));
+    }
+
+    private ResponseEntity<?> merge(Leg book, Leg reviews, Leg rating) {
+        if (book.error() != null) {
+            return FallbackController.unavailable("Book");
+        }
+        if (book.status().is4xxClientError()) {
+            return ResponseEntity.status(book.status()).body(book.body());
+        }
+
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (reviews.error() != null) {
+            errors.put("reviews", reviews.error());
+        }
+        Double averageRating = null;
+        if (rating.error() != null) {
+            errors.put("averageRating", rating.error());
+        } else if (rating.body().hasNonNull("averageRating")) {
+            averageRating = rating.body().get("averageRating").asDouble();
+        }
+
+        return ResponseEntity.ok(BookDetailsResponse.builder()
+                .book(book.body())
+                .reviews(reviews.error() == null ? reviews.body() : null)
+                .averageRating(averageRating)
+                .partial(!errors.isEmpty())
+                .errors(errors.isEmpty() ? null : errors)
+                .build());
+    }
+
+    /**
+     * Jedan deo agregacije; uvek emituje Leg - greska i timeout postaju fallback poruka.
+     */
+    private Mono<Leg> leg(String name, String service, Duration timeout, WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.bodyToMono(JsonNode.class)
+                        .defaultIfEmpty(NullNode.getInstance())
+                        .map(body -> response.statusCode().is5xxServerError()
+                                || (!name.equals("book") && response.statusCode().isError())
+                                ? Leg.failed(FallbackController.unavailableMessage(service))
+                                : new Leg(response.statusCode(), body, null)))
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Book details leg '{}' failed: {}", name, e instanceof TimeoutException
+                            ? "timed out after " + timeout.toMillis() + " ms" : e.getMessage());
+                    return Mono.just(Leg.failed(FallbackController.unavailableMessage(service)));
+                })
+                .doOnNext(leg -> outcome(name, leg).increment());
+    }
+
+    private Counter outcome(String leg, Leg result) {
+        return Counter.builder("gateway.aggregation.legs")
+                .tag("leg", leg)
+                .tag("outcome", result.error() == null ? "ok" : "fallback")
+                .register(meterRegistry);
+    }
+
+    private record Leg(HttpStatusCode status, JsonNode body, String error) {
+
+        static Leg failed(String error) {
+            return new Leg(null, NullNode.getInstance(), error);
+        }
+    }
+}
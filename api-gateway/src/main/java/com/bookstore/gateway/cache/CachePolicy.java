@@ -0,0 +1,91 @@
+package com.bookstore.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Odlucuje da li se odgovor sme kesirati i koliko dugo, prema Cache-Control zaglavlju servisa.
+ *
+ * no-store, no-cache, private, Set-Cookie i Vary: * iskljucuju kesiranje; s-maxage / max-age
+ * zamenjuju podrazumevani TTL rute, a stale-while-revalidate podrazumevani period zastarelosti.
+ */
+final class CachePolicy {
+
+    private CachePolicy() {
+    }
+
+    record Freshness(Duration ttl, Duration staleWhileRevalidate) {
+    }
+
+    static Freshness freshness(HttpStatusCode status, HttpHeaders headers, Duration defaultTtl, Duration defaultStale) {
+        if (status == null || status.value() != HttpStatus.OK.value()
+                || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || headers.getVary().contains("*")) {
+            return null;
+        }
+        Duration ttl = defaultTtl;
+        Duration stale = defaultStale;
+        Duration maxAge = null;
+        Duration sharedMaxAge = null;
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String[] parts = directive.trim().toLowerCase(Locale.ROOT).split("=", 2);
+                switch (parts[0]) {
+                    case "no-store", "no-cache", "private" -> {
+                        return null;
+                    }
+                    case "max-age" -> maxAge = seconds(parts);
+                    case "s-maxage" -> sharedMaxAge = seconds(parts);
+                    case "stale-while-revalidate" -> {
+                        Duration parsed = seconds(parts);
+                        if (parsed != null) {
+                            stale = parsed;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        if (sharedMaxAge != null) {
+            ttl = sharedMaxAge;
+        } else if (maxAge != null) {
+            ttl = maxAge;
+        }
+        if (ttl.isZero() && stale.isZero()) {
+            return null;
+        }
+        return new Freshness(ttl, stale);
+    }
+
+    /**
+     * Zahtev sa no-cache / no-store ili Authorization zaglavljem ide direktno servisu.
+     */
+    static boolean bypass(HttpHeaders requestHeaders) {
+        if (requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)) {
+            return true;
+        }
+        for (String value : requestHeaders.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            String directives = value.toLowerCase(Locale.ROOT);
+            if (directives.contains("no-cache") || directives.contains("no-store")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Duration seconds(String[] parts) {
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(parts[1].trim().replace("\"", ""))));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookstore.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Sacuvan odgovor jedne rute. Vremena su u nanosekundama istog sata kao Caffeine ticker.
+ */
+record CachedResponse(String route,
+                      HttpStatusCode status,
+                      HttpHeaders headers,
+                      byte[] body,
+                      long storedAt,
+                      long freshUntil,
+                      long staleUntil) {
+
+    boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    boolean isServable(long now) {
+        return now < staleUntil;
+    }
+
+    long ageSeconds(long now) {
+        return Math.max(0, (now - storedAt) / 1_000_000_000L);
+    }
+
+    /**
+     * Procena zauzeca memorije - telo, zaglavlja i fiksni deo za objekte.
+     */
+    int weight() {
+        int size = 128 + body.length;
+        for (var header : headers.entrySet()) {
+            size += header.getKey().length();
+            for (String value : header.getValue()) {
+                size += value.length();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bookstore.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Odgovor bez klijenta - telo se samo sakuplja. Koristi ga pozadinska revalidacija.
+ */
+final class CapturingServerHttpResponse extends AbstractServerHttpResponse {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    CapturingServerHttpResponse() {
+        super(DefaultDataBufferFactory.sharedInstance);
+    }
+
+    byte[] body() {
+        synchronized (body) {
+            return body.toByteArray();
+        }
+    }
+
+    @Override
+    public <T> T getNativeResponse() {
+        throw new IllegalStateException("Capturing response has no native response");
+    }
+
+    @Override
+    protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> publisher) {
+        return Flux.from(publisher).doOnNext(this::append).then();
+    }
+
+    @Override
+    protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> publisher) {
+        return Flux.from(publisher).concatMap(Flux::from).doOnNext(this::append).then();
+    }
+
+    private void append(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        synchronized (body) {
+            body.writeBytes(bytes);
+        }
+    }
+
+    @Override
+    protected void applyStatusCode() {
+    }
+
+    @Override
+    protected void applyHeaders() {
+    }
+
+    @Override
+    protected void applyCookies() {
+    }
+}
@@ -0,0 +1,291 @@
+package com.bookstore.gateway.cache;
+
+import com.bookstore.gateway.cache.ResponseCacheStore.Result;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Kesira GET odgovore rute u memoriji gateway-a (stale-while-revalidate).
+ *
+ * Kljuc je ruta + putanja + sortirani query parametri + vrednosti vary-headers zaglavlja.
+ * Svez unos se vraca bez poziva servisa; zastareo unos (u periodu stale-while-revalidate)
+ * se vraca odmah, a jedan zahtev u pozadini prolazi ostatak lanca filtera i osvezava ga.
+ * Cache-Control servisa ima prednost nad TTL-om iz konfiguracije rute.
+ *
+ * Primer:
+ * <pre>
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       ttl: 30s
+ *       stale-while-revalidate: 60s
+ * </pre>
+ */
+@Component
+@Slf4j
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_HEADER = "X-Cache";
+
+    // zaglavlja koja zavise od konkretnog zahteva i ne cuvaju se uz odgovor
+    private static final List<String> REQUEST_SPECIFIC = List.of(CACHE_HEADER, HttpHeaders.AGE);
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "staleWhileRevalidate");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // pre NettyWriteResponseFilter-a, da bi telo odgovora proslo kroz nas dekorator
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, config),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        String route = routeId(exchange);
+        if (request.getMethod() != HttpMethod.GET || CachePolicy.bypass(request.getHeaders())
+                || request.getHeaders().getAccept().contains(MediaType.TEXT_EVENT_STREAM)) {
+            store.record(route, Result.BYPASS);
+            return chain.filter(exchange);
+        }
+
+        String key = key(route, request, config);
+        long now = System.nanoTime();
+        CachedResponse cached = store.get(key);
+        if (cached != null && cached.isFresh(now)) {
+            store.record(route, Result.HIT);
+            return write(exchange, cached, Result.HIT, now);
+        }
+        if (cached != null && cached.isServable(now)) {
+            store.record(route, Result.STALE);
+            if (store.startRevalidation(key)) {
+                revalidate(exchange, chain, config, key, route)
+                        .doFinally(signal -> store.finishRevalidation(key))
+                        .subscribe(null, e -> log.debug("Revalidation of {} failed: {}", key, e.getMessage()));
+            }
+            return write(exchange, cached, Result.STALE, now);
+        }
+
+        store.record(route, Result.MISS);
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(CACHE_HEADER, Result.MISS.name());
+        return chain.filter(exchange.mutate()
+                .response(new CachingResponse(response, key, route, config))
+                .build());
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, Result result, long now) {
+        ServerHttpResponse response = exchange.getResponse();
+        String etag = cached.headers().getETag();
+        boolean notModified = etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag);
+
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(CACHE_HEADER, result.name());
+        response.getHeaders().set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(now)));
+        if (notModified) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * Ponavlja zahtev kroz ostatak lanca u odvojenoj razmeni: bez tela, bez uslovnih zaglavlja
+     * (treba nam ceo odgovor) i sa sopstvenim atributima, dok je originalni klijent vec usluzen.
+     */
+    private Mono<Void> revalidate(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                                  String key, String route) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(exchange.getRequest().getHeaders());
+        headers.remove(HttpHeaders.IF_NONE_MATCH);
+        headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.empty();
+            }
+        };
+        CapturingServerHttpResponse response = new CapturingServerHttpResponse();
+        ServerWebExchange revalidation = new DetachedExchange(exchange, request, response);
+
+        return chain.filter(revalidation).then(Mono.fromRunnable(() -> {
+            long now = System.nanoTime();
+            CachePolicy.Freshness freshness = CachePolicy.freshness(response.getStatusCode(), response.getHeaders(),
+                    config.getTtl(), config.getStaleWhileRevalidate());
+            if (freshness != null) {
+                store.put(key, entry(route, response, response.body(), freshness, now));
+                log.debug("Revalidated {}", key);
+            }
+        }));
+    }
+
+    private static CachedResponse entry(String route, ServerHttpResponse response, byte[] body,
+                                        CachePolicy.Freshness freshness, long now) {
+        HttpHeaders headers = new HttpHeaders();
+        response.getHeaders().forEach((name, values) -> {
+            if (!name.regionMatches(true, 0, "Access-Control-", 0, 15)
+                    && REQUEST_SPECIFIC.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.put(name, List.copyOf(values));
+            }
+        });
+        long freshUntil = now + freshness.ttl().toNanos();
+        return new CachedResponse(route, response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), body,
+                now, freshUntil, freshUntil + freshness.staleWhileRevalidate().toNanos());
+    }
+
+    static String key(String route, ServerHttpRequest request, Config config) {
+        StringBuilder key = new StringBuilder(route).append(' ').append(request.getPath().value());
+        char separator = '?';
+        for (var param : new TreeMap<>(request.getQueryParams()).entrySet()) {
+            for (String value : param.getValue()) {
+                key.append(separator).append(param.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        for (String header : config.getVaryHeaders()) {
+            key.append('|').append(header.toLowerCase(Locale.ROOT)).append('=')
+                    .append(String.join(",", request.getHeaders().getOrEmpty(header)));
+        }
+        return key.toString();
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    /**
+     * Prosledjuje telo klijentu i usput pravi kopiju; kopija se cuva ako je odgovor kesabilan
+     * i nije veci od max-entry-bytes.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final String route;
+        private final Config config;
+
+        private CachingResponse(ServerHttpResponse delegate, String key, String route, Config config) {
+            super(delegate);
+            this.key = key;
+            this.route = route;
+            this.config = config;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            CachePolicy.Freshness freshness = CachePolicy.freshness(getStatusCode(), getHeaders(),
+                    config.getTtl(), config.getStaleWhileRevalidate());
+            if (freshness == null) {
+                return super.writeWith(body);
+            }
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            AtomicBoolean tooLarge = new AtomicBoolean();
+            Flux<? extends DataBuffer> tee = Flux.from(body).doOnNext(buffer -> {
+                if (tooLarge.get()) {
+                    return;
+                }
+                if (copy.size() + buffer.readableByteCount() > store.maxEntryBytes()) {
+                    tooLarge.set(true);
+                    copy.reset();
+                    return;
+                }
+                // kopija bez pomeranja pozicije citanja - bafer i dalje ide klijentu
+                int position = buffer.readPosition();
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                buffer.readPosition(position);
+                copy.writeBytes(bytes);
+            });
+            return super.writeWith(tee).doOnSuccess(done -> {
+                if (!tooLarge.get()) {
+                    store.put(key, entry(route, getDelegate(), copy.toByteArray(), freshness, System.nanoTime()));
+                }
+            });
+        }
+    }
+
+    /**
+     * Razmena za pozadinsku revalidaciju - deli rutu i atribute predikata sa originalom,
+     * ali ima sopstvenu kopiju atributa da filteri ne bi menjali zavrsenu razmenu.
+     */
+    private static final class DetachedExchange extends ServerWebExchangeDecorator {
+
+        private final ServerHttpRequest request;
+        private final ServerHttpResponse response;
+        private final Map<String, Object> attributes;
+
+        private DetachedExchange(ServerWebExchange original, ServerHttpRequest request, ServerHttpResponse response) {
+            super(original);
+            this.request = request;
+            this.response = response;
+            this.attributes = new HashMap<>(original.getAttributes());
+            this.attributes.remove(ServerWebExchangeUtils.GATEWAY_ALREADY_ROUTED_ATTR);
+        }
+
+        @Override
+        public ServerHttpRequest getRequest() {
+            return request;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+
+    @Data
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(30);
+        private Duration staleWhileRevalidate = Duration.ofSeconds(60);
+        private List<String> varyHeaders = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    }
+}
@@ -0,0 +1,149 @@
+package com.bookstore.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zajednicki kes odgovora svih ruta sa ResponseCache filterom.
+ *
+ * Velicina je ogranicena ukupnim brojem bajtova (max-bytes), a svaki unos istice kada mu
+ * prodje i period zastarelosti. Po ruti se izvoze brojevi pogodaka/promasaja
+ * (gateway.cache.requests) i zauzeta memorija (gateway.cache.memory).
+ */
+@Component
+public class ResponseCacheStore {
+
+    public enum Result {
+        HIT, STALE, MISS, BYPASS
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxEntryBytes;
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    public ResponseCacheStore(MeterRegistry meterRegistry,
+                              @Value("${bookstore.gateway.cache.max-bytes:67108864}") long maxBytes,
+                              @Value("${bookstore.gateway.cache.max-entry-bytes:1048576}") int maxEntryBytes) {
+        this.meterRegistry = meterRegistry;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return Math.max(0, response.staleUntil() - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                                                  long currentDuration) {
+                        return Math.max(0, response.staleUntil() - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                // brojaci memorije po ruti se azuriraju odmah, u niti koja je izbacila unos
+                .executor(Runnable::run)
+                .removalListener((String key, CachedResponse response, RemovalCause cause) -> {
+                    if (response != null) {
+                        stats(response.route()).remove(response.weight());
+                    }
+                })
+                .build();
+    }
+
+    CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    boolean put(String key, CachedResponse response) {
+        if (response.body().length > maxEntryBytes) {
+            return false;
+        }
+        stats(response.route()).add(response.weight());
+        cache.put(key, response);
+        return true;
+    }
+
+    /**
+     * Samo jedan zahtev po kljucu osvezava zastareo unos; ostali dobijaju zastarelu kopiju.
+     */
+    boolean startRevalidation(String key) {
+        return revalidating.add(key);
+    }
+
+    void finishRevalidation(String key) {
+        revalidating.remove(key);
+    }
+
+    void record(String route, Result result) {
+        stats(route).requests[result.ordinal()].increment();
+    }
+
+    long memoryBytes(String route) {
+        RouteStats stats = routes.get(route);
+        return stats == null ? 0 : stats.bytes.get();
+    }
+
+    private RouteStats stats(String route) {
+        return routes.computeIfAbsent(route, id -> new RouteStats(id, meterRegistry));
+    }
+
+    private static final class RouteStats {
+
+        private final Counter[] requests = new Counter[Result.values().length];
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong entries = new AtomicLong();
+
+        private RouteStats(String route, MeterRegistry meterRegistry) {
+            for (Result result : Result.values()) {
+                // hit ratio = (hit + stale) / (hit + stale + miss)
+                requests[result.ordinal()] = Counter.builder("gateway.cache.requests")
+                        .tag("route", route)
+                        .tag("result", result.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+            }
+            Gauge.builder("gateway.cache.memory", bytes, AtomicLong::get)
+                    .tag("route", route)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.cache.entries", entries, AtomicLong::get)
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+
+        private void add(int weight) {
+            bytes.addAndGet(weight);
+            entries.incrementAndGet();
+        }
+
+        private void remove(int weight) {
+            bytes.addAndGet(-weight);
+            entries.decrementAndGet();
+        }
+    }
+}
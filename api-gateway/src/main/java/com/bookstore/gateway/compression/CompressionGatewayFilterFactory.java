@@ -0,0 +1,305 @@
+package com.bookstore.gateway.compression;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+/**
+ * Kompresuje odgovore rute (gzip ili deflate, prema Accept-Encoding klijenta).
+ *
+ * Telo se kompresuje deo po deo; dok ne stigne min-size bajtova, delovi se zadrzavaju, pa
+ * manji odgovor ide nekompresovan i kada servis ne posalje Content-Length. Odgovor koji je
+ * servis vec kompresovao (Content-Encoding) prolazi nepromenjen. Filter ima isti red kao
+ * ResponseCache i navodi se posle njega, pa kes cuva vec kompresovan odgovor.
+ *
+ * Primer:
+ * <pre>
+ * filters:
+ *   - name: Compression
+ *     args:
+ *       min-size: 1KB
+ *       level: 6
+ * </pre>
+ */
+@Component
+public class CompressionGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<CompressionGatewayFilterFactory.Config> {
+
+    // isto kao ResponseCache - unutar lanca redosled odredjuje polozaj u listi filtera rute
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private final MeterRegistry meterRegistry;
+
+    public CompressionGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("minSize", "level");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (config.getLevel() < Deflater.BEST_SPEED || config.getLevel() > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9");
+        }
+        String route = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Metrics metrics = new Metrics(route);
+        List<MediaType> mimeTypes = MediaType.parseMediaTypes(config.getMimeTypes());
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+                return chain.filter(exchange);
+            }
+            String coding = negotiate(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+            return chain.filter(exchange.mutate()
+                    .response(new CompressingResponse(exchange.getResponse(), coding, config, mimeTypes, metrics))
+                    .build());
+        }, ORDER);
+    }
+
+    /**
+     * Bira gzip ili deflate sa najvecim q; null kada klijent ne prihvata nijedan.
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double wildcard = -1;
+        double gzip = -1;
+        double deflate = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case ContentEncoder.GZIP, "x-gzip" -> gzip = Math.max(gzip, quality);
+                case ContentEncoder.DEFLATE -> deflate = Math.max(deflate, quality);
+                case "*" -> wildcard = quality;
+                default -> {
+                }
+            }
+        }
+        // kodiranje koje nije navedeno dobija q od "*"
+        gzip = gzip >= 0 ? gzip : wildcard;
+        deflate = deflate >= 0 ? deflate : wildcard;
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? ContentEncoder.GZIP : ContentEncoder.DEFLATE;
+    }
+
+    private final class Metrics {
+
+        private final Counter compressed;
+        private final Counter belowThreshold;
+        private final Counter passThrough;
+        private final Counter bytesIn;
+        private final Counter bytesOut;
+
+        private Metrics(String route) {
+            compressed = responses(route, "compressed");
+            belowThreshold = responses(route, "below_threshold");
+            passThrough = responses(route, "pass_through");
+            bytesIn = bytes(route, "in");
+            bytesOut = bytes(route, "out");
+        }
+
+        private Counter responses(String route, String result) {
+            return Counter.builder("gateway.compression.responses")
+                    .tag("route", route)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        private Counter bytes(String route, String stage) {
+            return Counter.builder("gateway.compression.bytes")
+                    .tag("route", route)
+                    .tag("stage", stage)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static final class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final String coding;
+        private final Config config;
+        private final List<MediaType> mimeTypes;
+        private final Metrics metrics;
+
+        private CompressingResponse(ServerHttpResponse delegate, String coding, Config config,
+                                    List<MediaType> mimeTypes, Metrics metrics) {
+            super(delegate);
+            this.coding = coding;
+            this.config = config;
+            this.mimeTypes = mimeTypes;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            if (!compressible(headers)) {
+                return super.writeWith(body);
+            }
+            if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            if (coding == null) {
+                return super.writeWith(body);
+            }
+            long minSize = config.getMinSize().toBytes();
+            long length = headers.getContentLength();
+            if (length >= 0 && length < minSize) {
+                metrics.belowThreshold.increment();
+                return super.writeWith(body);
+            }
+
+            Encoding encoding = new Encoding(bufferFactory(), minSize);
+            Flux<DataBuffer> encoded = Flux.from(body)
+                    .concatMapIterable(encoding::accept)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(encoding.finish())))
+                    .doFinally(signal -> encoding.release());
+            return super.writeWith(encoded);
+        }
+
+        private boolean compressible(HttpHeaders headers) {
+            HttpStatus status = getStatusCode() != null ? HttpStatus.resolve(getStatusCode().value()) : null;
+            if (status == HttpStatus.NO_CONTENT || status == HttpStatus.NOT_MODIFIED) {
+                return false;
+            }
+            if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                metrics.passThrough.increment();
+                return false;
+            }
+            MediaType contentType = headers.getContentType();
+            return contentType != null && mimeTypes.stream().anyMatch(type -> type.isCompatibleWith(contentType));
+        }
+
+        /**
+         * Stanje jednog odgovora: zadrzani delovi dok se ne odluci, zatim koder.
+         */
+        private final class Encoding {
+
+            private final DataBufferFactory bufferFactory;
+            private final long minSize;
+            private final List<DataBuffer> held = new ArrayList<>();
+            private long heldBytes;
+            private ContentEncoder encoder;
+
+            private Encoding(DataBufferFactory bufferFactory, long minSize) {
+                this.bufferFactory = bufferFactory;
+                this.minSize = minSize;
+            }
+
+            List<DataBuffer> accept(DataBuffer buffer) {
+                if (encoder != null) {
+                    return wrap(encodeBytes(buffer));
+                }
+                held.add(buffer);
+                heldBytes += buffer.readableByteCount();
+                if (heldBytes < minSize) {
+                    return List.of();
+                }
+
+                // prag je predjen - zaglavlja se menjaju pre prvog upisa, dok odgovor nije poslat
+                HttpHeaders headers = getHeaders();
+                headers.set(HttpHeaders.CONTENT_ENCODING, coding);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                metrics.compressed.increment();
+                encoder = new ContentEncoder(coding, config.getLevel());
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                for (DataBuffer pending : held) {
+                    compressed.writeBytes(encodeBytes(pending));
+                }
+                held.clear();
+                return wrap(compressed.toByteArray());
+            }
+
+            List<DataBuffer> finish() {
+                if (encoder == null) {
+                    // manje od praga - telo ide nekompresovano, sa tacnom duzinom
+                    metrics.belowThreshold.increment();
+                    if (getHeaders().getContentLength() < 0) {
+                        getHeaders().setContentLength(heldBytes);
+                    }
+                    List<DataBuffer> output = new ArrayList<>(held);
+                    held.clear();
+                    return output;
+                }
+                byte[] tail = encoder.finish();
+                metrics.bytesOut.increment(tail.length);
+                return wrap(tail);
+            }
+
+            void release() {
+                held.forEach(DataBufferUtils::release);
+                held.clear();
+                if (encoder != null) {
+                    encoder.release();
+                }
+            }
+
+            // deflater cesto jos nema izlaza za mali deo - prazan bafer se ne salje
+            private List<DataBuffer> wrap(byte[] bytes) {
+                return bytes.length > 0 ? List.of(bufferFactory.wrap(bytes)) : List.of();
+            }
+
+            private byte[] encodeBytes(DataBuffer buffer) {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                metrics.bytesIn.increment(bytes.length);
+                byte[] compressed = encoder.encode(bytes);
+                metrics.bytesOut.increment(compressed.length);
+                return compressed;
+            }
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private DataSize minSize = DataSize.ofKilobytes(1);
+        private int level = 6;
+        private List<String> mimeTypes = List.of(MediaType.APPLICATION_JSON_VALUE,
+                MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE, MediaType.TEXT_HTML_VALUE);
+    }
+}
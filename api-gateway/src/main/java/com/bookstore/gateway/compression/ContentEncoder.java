@@ -0,0 +1,93 @@
+package com.bookstore.gateway.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Kompresija tela odgovora deo po deo (gzip ili deflate), bez cuvanja celog tela.
+ *
+ * Nije thread-safe; koristi ga jedan odgovor. Deflater drzi nativnu memoriju, pa se posle
+ * odgovora (i kod prekida) mora pozvati release().
+ */
+final class ContentEncoder {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final Deflater deflater;
+    private final DeflaterOutputStream stream;
+    private boolean released;
+
+    ContentEncoder(String coding, int level) {
+        try {
+            if (GZIP.equals(coding)) {
+                LeveledGzip gzip = new LeveledGzip(output, level);
+                deflater = gzip.deflater();
+                stream = gzip;
+            } else if (DEFLATE.equals(coding)) {
+                // "deflate" u HTTP-u je zlib format (RFC 1950), ne sirovi deflate
+                deflater = new Deflater(level);
+                stream = new DeflaterOutputStream(output, deflater, 8192);
+            } else {
+                throw new IllegalArgumentException("Unsupported content coding: " + coding);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Kompresuje deo tela i vraca bajtove koji su do sada spremni (moze biti prazno).
+     */
+    byte[] encode(byte[] chunk) {
+        try {
+            stream.write(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return drain();
+    }
+
+    /**
+     * Zavrsava tok (gzip trailer) i vraca ostatak.
+     */
+    byte[] finish() {
+        try {
+            stream.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return drain();
+    }
+
+    void release() {
+        if (!released) {
+            released = true;
+            deflater.end();
+        }
+    }
+
+    private byte[] drain() {
+        byte[] bytes = output.toByteArray();
+        output.reset();
+        return bytes;
+    }
+
+    private static final class LeveledGzip extends GZIPOutputStream {
+
+        private LeveledGzip(OutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+
+        private Deflater deflater() {
+            return def;
+        }
+    }
+}
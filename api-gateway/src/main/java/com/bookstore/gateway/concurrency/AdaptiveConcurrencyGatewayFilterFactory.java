@@ -0,0 +1,121 @@
+package com.bookstore.gateway.concurrency;
+
+import com.bookstore.gateway.support.Terminations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Adaptivno ogranicenje istovremenih zahteva ka servisu rute (vidi GradientLimit).
+ *
+ * Zahtev preko limita odmah dobija 503 sa Retry-After umesto da ceka u redu ispred zagusenog
+ * servisa. GET, HEAD i OPTIONS su citanja i smeju da zauzmu samo read-share limita, pa se pri
+ * zasicenju odbacuju pre upisa. RTT se meri do zaglavlja odgovora; filter stoji posle kesa,
+ * pa pogoci kesa ne trose limit.
+ *
+ * Primer:
+ * <pre>
+ * filters:
+ *   - name: AdaptiveConcurrency
+ *     args:
+ *       initial-limit: 20
+ *       min-limit: 5
+ *       max-limit: 200
+ *       read-share: 0.7
+ * </pre>
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    // posle ResponseCache filtera (WRITE_RESPONSE_FILTER_ORDER - 1), da pogoci kesa ne zauzimaju mesto
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER + 1;
+
+    private final MeterRegistry meterRegistry;
+
+    public AdaptiveConcurrencyGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String route = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        GradientLimit limit = new GradientLimit(config.getInitialLimit(), config.getMinLimit(),
+                config.getMaxLimit(), config.getReadShare());
+
+        Gauge.builder("gateway.concurrency.limit", limit, GradientLimit::limit)
+                .tag("route", route)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limit, GradientLimit::inFlight)
+                .tag("route", route)
+                .register(meterRegistry);
+        Counter acceptedRead = counter(route, "read", "accepted");
+        Counter acceptedWrite = counter(route, "write", "accepted");
+        Counter rejectedRead = counter(route, "read", "rejected");
+        Counter rejectedWrite = counter(route, "write", "rejected");
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            boolean read = isRead(exchange.getRequest().getMethod());
+            int inFlightAtStart = limit.tryAcquire(read);
+            if (inFlightAtStart < 0) {
+                (read ? rejectedRead : rejectedWrite).increment();
+                return reject(exchange.getResponse());
+            }
+            (read ? acceptedRead : acceptedWrite).increment();
+
+            long start = System.nanoTime();
+            return Terminations.onTermination(chain.filter(exchange), signal -> {
+                if (signal == SignalType.CANCEL) {
+                    limit.release();
+                    return;
+                }
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean dropped = signal == SignalType.ON_ERROR
+                        || (status != null && status.is5xxServerError());
+                limit.onSample(System.nanoTime() - start, inFlightAtStart, dropped);
+            });
+        }, ORDER);
+    }
+
+    private static boolean isRead(HttpMethod method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method);
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response.setComplete();
+    }
+
+    private Counter counter(String route, String priority, String result) {
+        return Counter.builder("gateway.concurrency.requests")
+                .tag("route", route)
+                .tag("priority", priority)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 200;
+        private double readShare = 0.8;
+    }
+}
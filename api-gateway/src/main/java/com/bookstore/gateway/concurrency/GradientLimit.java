@@ -0,0 +1,108 @@
+package com.bookstore.gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptivni limit broja istovremenih zahteva ka jednoj ruti (gradient, po uzoru na Netflix Gradient2).
+ *
+ * Dugorocni RTT (EWMA ~600 uzoraka) predstavlja latenciju bez opterecenja, kratkorocni (~10 uzoraka)
+ * trenutnu. Dok trenutni RTT ne predje dugorocni za vise od TOLERANCE, limit postepeno raste
+ * (cilj je limit + sqrt(limit)); kada se servis zagusi i RTT raste, gradijent
+ * (dugorocni / kratkorocni) spusta limit srazmerno. Greska ili 5xx smanjuje limit za BACKOFF (AIMD). Limit ne raste dok je u toku
+ * manje od pola limita, jer tada latencija ne govori nista o kapacitetu.
+ *
+ * Citanja smeju da zauzmu samo readShare limita, pa se pri zasicenju prvo odbijaju ona,
+ * a ostatak ostaje za upise (checkout).
+ */
+final class GradientLimit {
+
+    static final double TOLERANCE = 1.5;
+    static final double BACKOFF = 0.9;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double readShare;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRtt;
+    private double shortRtt;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double readShare) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max");
+        }
+        if (readShare <= 0 || readShare > 1) {
+            throw new IllegalArgumentException("Read share must be in (0, 1]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.readShare = readShare;
+        this.limit = initialLimit;
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return broj zahteva u toku pre ovog (za onSample), ili -1 ako je zahtev odbijen
+     */
+    int tryAcquire(boolean read) {
+        double current = limit;
+        int threshold = read ? (int) Math.max(1, current * readShare) : (int) current;
+        while (true) {
+            int active = inFlight.get();
+            if (active >= threshold) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(active, active + 1)) {
+                return active;
+            }
+        }
+    }
+
+    /**
+     * Zahtev je otkazan pre odgovora - oslobadja mesto bez uzorka.
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            double current = limit;
+            if (dropped) {
+                limit = Math.max(minLimit, current * BACKOFF);
+                return;
+            }
+
+            if (longRtt == 0) {
+                longRtt = rttNanos;
+                shortRtt = rttNanos;
+            } else {
+                longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+                shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+            }
+            // posle dugog skoka latencije dugorocna vrednost brze prati novo stanje
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            if (inFlightAtStart + 1 < current / 2) {
+                return;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+            double target = current * gradient + Math.sqrt(current);
+            limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - SMOOTHING) + target * SMOOTHING));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bookstore.gateway.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Pool konekcija gateway-a podesava spring.cloud.gateway.httpclient.pool; ovde je samo h2c
+ * ka servisima, koji se ukljucuje sa bookstore.gateway.h2c=true. Klijent odmah govori HTTP/2
+ * (prior knowledge, bez upgrade-a - upgradovana konekcija se ne vraca u pool), pa sve instance
+ * moraju imati server.http2.enabled.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "bookstore.gateway.h2c", havingValue = "true")
+    public HttpClientCustomizer h2cHttpClientCustomizer() {
+        return httpClient -> httpClient.protocol(HttpProtocol.H2C);
+    }
+}
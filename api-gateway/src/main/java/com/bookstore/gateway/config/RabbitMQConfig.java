@@ -0,0 +1,46 @@
+package com.bookstore.gateway.config;
+
+import com.bookstore.events.codec.EventMessageConverters;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+
+    public static final String EXCHANGE = "bookstore.exchange";
+    public static final String BOOK_CHANGED_ROUTING_KEY = "book.changed";
+
+    @Bean
+    public TopicExchange bookstoreExchange() {
+        return new TopicExchange(EXCHANGE);
+    }
+
+    /**
+     * Svaka instanca gateway-a ima svoj privremeni red (exclusive, auto-delete), pa svaka dobija
+     * sve izmene knjiga za svoje pretplatnike. Dogadjaji propusteni dok je gateway ugasen nisu bitni -
+     * klijent posle ponovnog povezivanja dobija trenutno stanje.
+     */
+    @Bean
+    public Queue bookUpdatesQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("gateway.book.updates."));
+    }
+
+    @Bean
+    public Binding bookUpdatesBinding(Queue bookUpdatesQueue, TopicExchange bookstoreExchange) {
+        return BindingBuilder
+                .bind(bookUpdatesQueue)
+                .to(bookstoreExchange)
+                .with(BOOK_CHANGED_ROUTING_KEY);
+    }
+
+    /**
+     * Cita JSON i CBOR poruke prema content-type zaglavlju.
+     */
+    @Bean
+    public MessageConverter messageConverter(@Value("${bookstore.messaging.wire-format:json}") String wireFormat) {
+        return EventMessageConverters.create(wireFormat);
+    }
+}
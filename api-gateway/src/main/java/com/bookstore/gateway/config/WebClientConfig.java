@@ -0,0 +1,44 @@
+package com.bookstore.gateway.config;
+
+import com.bookstore.gateway.loadbalancer.StaticLoadBalancer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * WebClient-i agregacije koriste HttpClient ruta, pa dele isti pool konekcija i njegova podesavanja.
+ * Sa service-compression: true traze gzip od servisa; rute to ne menja - one prosledjuju
+ * Accept-Encoding klijenta, pa kompresovan odgovor servisa prolazi kroz gateway nepromenjen.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Value("${bookstore.gateway.service-compression:false}")
+    private boolean serviceCompression;
+
+    @Bean("bookServiceClient")
+    public WebClient bookServiceClient(StaticLoadBalancer loadBalancer, HttpClient httpClient) {
+        return WebClient.builder()
+                .baseUrl("lb://book-service")
+                .clientConnector(connector(httpClient))
+                .filter(loadBalancer.exchangeFilter())
+                .build();
+    }
+
+    @Bean("reviewServiceClient")
+    public WebClient reviewServiceClient(StaticLoadBalancer loadBalancer, HttpClient httpClient) {
+        return WebClient.builder()
+                .baseUrl("lb://review-service")
+                .clientConnector(connector(httpClient))
+                .filter(loadBalancer.exchangeFilter())
+                .build();
+    }
+
+    private ReactorClientHttpConnector connector(HttpClient httpClient) {
+        // compress vraca novu konfiguraciju nad istim pool-om; HttpClient ruta ostaje bez raspakivanja
+        return new ReactorClientHttpConnector(serviceCompression ? httpClient.compress(true) : httpClient);
+    }
+}
@@ -0,0 +1,27 @@
+package com.bookstore.gateway.controller;
+
+import com.bookstore.gateway.aggregation.BookDetailsAggregator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Kontroleri gateway-a imaju prednost nad rutama, pa ova putanja ne ide na book-service.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class BookDetailsController {
+
+    private final BookDetailsAggregator bookDetailsAggregator;
+
+    @GetMapping("/api/books/{id}/details")
+    public Mono<ResponseEntity<?>> getBookDetails(@PathVariable Long id) {
+        log.info("GET /api/books/{}/details", id);
+        return bookDetailsAggregator.getBookDetails(id);
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookstore.gateway.controller;
+
+import com.bookstore.gateway.dto.BookUpdate;
+import com.bookstore.gateway.updates.BookUpdateHub;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Zamena za polling GET /api/books/{id}: klijent otvara jedan SSE tok za skup knjiga, zatim
+ * jednom ucitava knjige (pocetni GET), a tok mu dalje salje svaku izmenu zaliha ili cene.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class BookUpdatesController {
+
+    private final BookUpdateHub bookUpdateHub;
+
+    @GetMapping(value = "/api/books/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<BookUpdate>>> getBookUpdates(@RequestParam List<Long> ids) {
+        log.debug("GET /api/books/updates?ids={}", ids);
+        return bookUpdateHub.subscribe(ids)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    log.warn("Book updates subscriber limit reached - rejecting subscription");
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "5")
+                            .build();
+                });
+    }
+}
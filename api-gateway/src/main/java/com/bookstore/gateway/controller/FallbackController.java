@@ -3,42 +3,53 @@ package com.bookstore.gateway.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
 
+/**
+ * Odgovori CircuitBreaker filtera ruta (fallback-uri: forward:/fallback/...). Forward zadrzava
+ * metod originalnog zahteva, pa putanje prihvataju sve metode.
+ */
 @RestController
 @RequestMapping("/fallback")
 @Slf4j
 public class FallbackController {
 
-    @GetMapping("/users")
+    @RequestMapping("/users")
     public ResponseEntity<Map<String, String>> usersFallback() {
         log.warn("User service is unavailable - returning fallback response");
-        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(Map.of("error", "User service is currently unavailable. Please try again later."));
+        return unavailable("User");
     }
 
-    @GetMapping("/books")
+    @RequestMapping("/books")
     public ResponseEntity<Map<String, String>> booksFallback() {
         log.warn("Book service is unavailable - returning fallback response");
-        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(Map.of("error", "Book service is currently unavailable. Please try again later."));
+        return unavailable("Book");
     }
 
-    @GetMapping("/orders")
+    @RequestMapping("/orders")
     public ResponseEntity<Map<String, String>> ordersFallback() {
         log.warn("Order service is unavailable - returning fallback response");
-        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(Map.of("error", "Order service is currently unavailable. Please try again later."));
+        return unavailable("Order");
     }
 
-    @GetMapping("/reviews")
+    @RequestMapping("/reviews")
     public ResponseEntity<Map<String, String>> reviewsFallback() {
         log.warn("Review service is unavailable - returning fallback response");
+        return unavailable("Review");
+    }
+
+    /**
+     * Poruka o nedostupnom servisu - ista za fallback rute i za delimicne odgovore agregacije.
+     */
+    public static String unavailableMessage(String service) {
+        return service + " service is currently unavailable. Please try again later.";
+    }
+
+    public static ResponseEntity<Map<String, String>> unavailable(String service) {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(Map.of("error", "Review service is currently unavailable. Please try again later."));
+                .body(Map.of("error", unavailableMessage(service)));
     }
 }
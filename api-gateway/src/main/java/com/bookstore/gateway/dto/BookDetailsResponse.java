@@ -0,0 +1,18 @@
+package com.bookstore.gateway.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class BookDetailsResponse {
+    private JsonNode book;
+    private JsonNode reviews;
+    private Double averageRating;
+    // true kada bar jedan deo nije stigao; razlog je u errors pod imenom dela
+    private boolean partial;
+    private Map<String, String> errors;
+}
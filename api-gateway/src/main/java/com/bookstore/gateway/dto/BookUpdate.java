@@ -0,0 +1,24 @@
+package com.bookstore.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Stanje zaliha i cena knjige koje GET /api/books/updates salje pretplatnicima.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookUpdate {
+    private Long bookId;
+    // raste sa svakom izmenom knjige; klijent odbacuje manju od vec prikazane
+    private Long version;
+    private BigDecimal price;
+    private Integer stock;
+    private boolean deleted;
+}
@@ -0,0 +1,15 @@
+package com.bookstore.gateway.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class HeavyHitterResponse {
+    private String key;
+    // broj zahteva posle zaboravljanja (poluzivot bookstore.gateway.heavy-hitters.half-life)
+    private Double count;
+    private Double ratePerSecond;
+    // gornja granica za koliko je count precenjen (space-saving)
+    private Double maxOverestimate;
+}
@@ -0,0 +1,154 @@
+package com.bookstore.gateway.heavyhitters;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-saving top-K sa eksponencijalnim zaboravljanjem (poluzivot halfLife).
+ *
+ * Najvise capacity brojaca; nov kljuc kada je sve puno preuzima najmanji brojac i nasledjuje
+ * njegovu vrednost kao gresku, pa je procena uvek gornja granica (count - error <= tacno <= count).
+ * Zaboravljanje je "forward decay": zahtev u trenutku t dodaje 2^((t - landmark) / halfLife),
+ * a citanje deli istim faktorom za sada. Odnos brojaca se ne menja sa vremenom, pa min-heap
+ * ostaje ispravan bez prolaza kroz sve brojace; kada tezina poraste previse, svi brojaci se
+ * jednom skaliraju i landmark se pomera. Upis je O(log capacity), memorija je konstantna.
+ * Nije thread-safe - HeavyHitters drzi vise instanci iza zasebnih brava.
+ */
+final class DecayingSpaceSaving {
+
+    private static final double RESCALE_THRESHOLD = 0x1p40;
+
+    private final int capacity;
+    private final double halfLifeNanos;
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+    private long landmark;
+
+    DecayingSpaceSaving(int capacity, long halfLifeNanos, long now) {
+        if (capacity <= 0 || halfLifeNanos <= 0) {
+            throw new IllegalArgumentException("Capacity and half-life must be positive");
+        }
+        this.capacity = capacity;
+        this.halfLifeNanos = halfLifeNanos;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+        this.landmark = now;
+    }
+
+    void offer(String key, long now) {
+        double weight = weight(now);
+        if (weight > RESCALE_THRESHOLD) {
+            rescale(weight, now);
+            weight = 1;
+        }
+
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.index);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter(key);
+            counter.count = weight;
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return;
+        }
+
+        Counter min = heap[0];
+        counters.remove(min.key);
+        min.key = key;
+        min.error = min.count;
+        min.count += weight;
+        counters.put(key, min);
+        siftDown(0);
+    }
+
+    /**
+     * Trenutne procene, bez redosleda; count i error su "zahtevi" posle zaboravljanja.
+     */
+    List<Estimate> estimates(long now) {
+        double scale = weight(now);
+        List<Estimate> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Counter counter = heap[i];
+            result.add(new Estimate(counter.key, counter.count / scale, counter.error / scale));
+        }
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private double weight(long now) {
+        return Math.pow(2, (now - landmark) / halfLifeNanos);
+    }
+
+    private void rescale(double weight, long now) {
+        for (int i = 0; i < size; i++) {
+            heap[i].count /= weight;
+            heap[i].error /= weight;
+        }
+        landmark = now;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    record Estimate(String key, double count, double error) {
+
+        static final Comparator<Estimate> BY_COUNT = Comparator.comparingDouble(Estimate::count).reversed();
+    }
+
+    private static final class Counter {
+        private String key;
+        private double count;
+        private double error;
+        private int index;
+
+        private Counter(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bookstore.gateway.heavyhitters;
+
+import com.bookstore.gateway.dto.HeavyHitterResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Najcesci kljucevi zahteva kroz gateway, po dimenziji: putanja (metod + putanja sa id-jem,
+ * npr. "GET /api/books/42") i klijent (kao za rate limiting).
+ *
+ * Svaka dimenzija je podeljena na stripes nezavisnih DecayingSpaceSaving instanci po hash-u
+ * kljuca, svaka iza svoje brave, pa se niti retko sudaraju. Kljuc pripada tacno jednoj traci,
+ * pa je spajanje na citanju samo sortiranje. Predugacki kljucevi se skracuju, da nasumicne
+ * putanje bota ne bi trosile memoriju.
+ */
+@Component
+public class HeavyHitters {
+
+    public enum Dimension {
+        PATH, CLIENT;
+
+        public static Dimension parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown dimension: " + value + " (use path or client)");
+            }
+        }
+    }
+
+    static final int MAX_KEY_LENGTH = 200;
+
+    private final long halfLifeNanos;
+    private final DecayingSpaceSaving[][] stripes;
+
+    public HeavyHitters(@Value("${bookstore.gateway.heavy-hitters.capacity:1024}") int capacity,
+                        @Value("${bookstore.gateway.heavy-hitters.half-life:60s}") Duration halfLife,
+                        @Value("${bookstore.gateway.heavy-hitters.stripes:8}") int stripeCount) {
+        if (stripeCount <= 0 || capacity < stripeCount) {
+            throw new IllegalArgumentException("Capacity must be at least the number of stripes");
+        }
+        this.halfLifeNanos = halfLife.toNanos();
+        long now = System.nanoTime();
+        this.stripes = new DecayingSpaceSaving[Dimension.values().length][stripeCount];
+        for (DecayingSpaceSaving[] dimension : stripes) {
+            for (int i = 0; i < stripeCount; i++) {
+                dimension[i] = new DecayingSpaceSaving(capacity / stripeCount, halfLifeNanos, now);
+            }
+        }
+    }
+
+    public void record(String path, String client, long now) {
+        offer(Dimension.PATH, path, now);
+        offer(Dimension.CLIENT, client, now);
+    }
+
+    public List<HeavyHitterResponse> top(Dimension dimension, int limit, long now) {
+        List<DecayingSpaceSaving.Estimate> estimates = new ArrayList<>();
+        for (DecayingSpaceSaving stripe : stripes[dimension.ordinal()]) {
+            synchronized (stripe) {
+                estimates.addAll(stripe.estimates(now));
+            }
+        }
+        // pri stalnom saobracaju r zahteva/s zbir tezi r * halfLife / ln 2
+        double toRate = Math.log(2) / (halfLifeNanos / 1e9);
+        return estimates.stream()
+                .sorted(DecayingSpaceSaving.Estimate.BY_COUNT)
+                .limit(limit)
+                .map(estimate -> HeavyHitterResponse.builder()
+                        .key(estimate.key())
+                        .count(round(estimate.count()))
+                        .ratePerSecond(round(estimate.count() * toRate))
+                        .maxOverestimate(round(estimate.error()))
+                        .build())
+                .toList();
+    }
+
+    private void offer(Dimension dimension, String key, long now) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+        DecayingSpaceSaving[] dimensionStripes = stripes[dimension.ordinal()];
+        int hash = key.hashCode();
+        DecayingSpaceSaving stripe = dimensionStripes[((hash ^ (hash >>> 16)) & 0x7fffffff) % dimensionStripes.length];
+        synchronized (stripe) {
+            stripe.offer(key, now);
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bookstore.gateway.heavyhitters;
+
+import com.bookstore.gateway.dto.HeavyHitterResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * GET /actuator/heavyhitters[?limit=20] - top putanje i klijenti;
+ * GET /actuator/heavyhitters/{path|client}[?limit=20] - jedna dimenzija.
+ */
+@Component
+@Endpoint(id = "heavyhitters")
+@RequiredArgsConstructor
+public class HeavyHittersEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final HeavyHitters heavyHitters;
+
+    @ReadOperation
+    public Map<String, List<HeavyHitterResponse>> all(@Nullable Integer limit) {
+        long now = System.nanoTime();
+        Map<String, List<HeavyHitterResponse>> result = new LinkedHashMap<>();
+        for (HeavyHitters.Dimension dimension : HeavyHitters.Dimension.values()) {
+            result.put(dimension.name().toLowerCase(Locale.ROOT), heavyHitters.top(dimension, limit(limit), now));
+        }
+        return result;
+    }
+
+    @ReadOperation
+    public List<HeavyHitterResponse> dimension(@Selector String dimension, @Nullable Integer limit) {
+        HeavyHitters.Dimension parsed;
+        try {
+            parsed = HeavyHitters.Dimension.parse(dimension);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        return heavyHitters.top(parsed, limit(limit), System.nanoTime());
+    }
+
+    private static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0) {
+            throw new InvalidEndpointRequestException("Limit must be positive", "Limit must be positive");
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bookstore.gateway.heavyhitters;
+
+import com.bookstore.gateway.ratelimit.LocalRateLimitGatewayFilterFactory;
+import com.bookstore.gateway.support.ClientKeyResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Broji svaki zahtev na rutama u HeavyHitters, pre rate limiting-a - odbijen bot se takodje vidi.
+ */
+@Component
+@RequiredArgsConstructor
+public class HeavyHittersFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = LocalRateLimitGatewayFilterFactory.ORDER - 1;
+
+    private final HeavyHitters heavyHitters;
+    private final ClientKeyResolver clientKeyResolver;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        heavyHitters.record(request.getMethod().name() + " " + request.getPath().value(),
+                clientKeyResolver.resolve(exchange), System.nanoTime());
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,54 @@
+package com.bookstore.gateway.loadbalancer;
+
+import com.bookstore.gateway.support.Terminations;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.*;
+
+/**
+ * Razresava rute sa uri: lb://{servis} na konkretnu instancu preko StaticLoadBalancer-a.
+ * Latencija se meri do zaglavlja odgovora servisa, a 5xx i greske konekcije su neuspeh.
+ */
+@Component
+@RequiredArgsConstructor
+public class LoadBalancerFilter implements GlobalFilter, Ordered {
+
+    // posle RouteToRequestUrlFilter-a, na mestu ReactiveLoadBalancerClientFilter-a koji nije na classpath-u
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 150;
+
+    private final StaticLoadBalancer loadBalancer;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        String schemePrefix = exchange.getAttribute(GATEWAY_SCHEME_PREFIX_ATTR);
+        if (url == null || (!StaticLoadBalancer.SCHEME.equals(url.getScheme())
+                && !StaticLoadBalancer.SCHEME.equals(schemePrefix))) {
+            return chain.filter(exchange);
+        }
+        addOriginalRequestUrl(exchange, url);
+
+        ServiceInstance instance = loadBalancer.choose(url.getHost());
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, StaticLoadBalancer.reconstruct(url, instance));
+        long start = System.nanoTime();
+        return Terminations.onTermination(chain.filter(exchange), signal -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            loadBalancer.release(instance, start, signal, status != null && status.is5xxServerError());
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,119 @@
+package com.bookstore.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jedna staticki konfigurisana instanca servisa i njeno pasivno pracenje:
+ * broj zahteva u toku, EWMA latencije i uzastopne greske na osnovu kojih se izbacuje.
+ */
+final class ServiceInstance {
+
+    private final String service;
+    private final URI uri;
+    private final Timer latency;
+    private final Counter ejections;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong latencyEwma = new AtomicLong();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile boolean ejected;
+    private volatile long ejectedUntil;
+    private int ejectionCount;
+
+    ServiceInstance(String service, URI uri, Timer latency, Counter ejections) {
+        this.service = service;
+        this.uri = uri;
+        this.latency = latency;
+        this.ejections = ejections;
+    }
+
+    String service() {
+        return service;
+    }
+
+    URI uri() {
+        return uri;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    long latencyEwma() {
+        return latencyEwma.get();
+    }
+
+    boolean isAvailable(long now) {
+        return !ejected || now - ejectedUntil >= 0;
+    }
+
+    /**
+     * Cena za power-of-two-choices: ocekivano cekanje ako zahtev stane u red iza onih u toku.
+     * Instanca bez merenja ima latenciju 1 ns, pa brzo dobije zahtev i pravu vrednost.
+     */
+    double cost() {
+        return (inFlight.get() + 1) * (double) Math.max(1, latencyEwma.get());
+    }
+
+    void acquire() {
+        inFlight.incrementAndGet();
+    }
+
+    void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return true ako je ovaj odgovor izbacio instancu
+     */
+    boolean release(long latencyNanos, boolean healthy, long now, long failurePenaltyNanos,
+                    int failureThreshold, long baseEjectionNanos, long maxEjectionNanos) {
+        inFlight.decrementAndGet();
+        latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        // greska je obicno brza (connection refused) - u EWMA ulazi kao kazna, da instanca ne bi privlacila saobracaj
+        long sample = healthy ? latencyNanos : Math.max(latencyNanos, failurePenaltyNanos);
+        // alfa = 1/8
+        latencyEwma.accumulateAndGet(sample, (old, value) -> old == 0 ? value : old + (value - old) / 8);
+
+        if (healthy) {
+            consecutiveFailures.set(0);
+            if (ejected && isAvailable(now)) {
+                synchronized (this) {
+                    ejected = false;
+                    ejectionCount = 0;
+                }
+            }
+            return false;
+        }
+        if (consecutiveFailures.incrementAndGet() < failureThreshold) {
+            return false;
+        }
+        synchronized (this) {
+            if (ejected && !isAvailable(now)) {
+                return false;
+            }
+            // svako sledece izbacivanje bez uspesnog odgovora izmedju traje duplo duze
+            long duration = Math.min(maxEjectionNanos, baseEjectionNanos << Math.min(ejectionCount, 20));
+            ejectionCount++;
+            ejectedUntil = now + duration;
+            ejected = true;
+            consecutiveFailures.set(0);
+            // latencija iz perioda greske ne sme da izgladnjuje instancu kada se vrati
+            latencyEwma.set(0);
+        }
+        ejections.increment();
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return service + "@" + uri.getAuthority();
+    }
+}
@@ -0,0 +1,203 @@
+package com.bookstore.gateway.loadbalancer;
+
+import com.bookstore.gateway.support.Terminations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Klijentski load balancing za lb://{servis} adrese, bez discovery servera.
+ *
+ * Instance servisa se citaju iz services.{servis}.instances (lista odvojena zarezom, podrazumevano
+ * services.{servis}.url). Izbor je power-of-two-choices: od dve nasumicne dostupne instance
+ * bira se ona sa manjom cenom (zahtevi u toku x EWMA latencije). Instanca koja vrati
+ * failure-threshold uzastopnih 5xx, gresaka konekcije ili odgovora sporijih od slow-response
+ * izbacuje se na base-ejection, a svako sledece izbacivanje traje duplo duze (do max-ejection).
+ * Ako su sve instance izbacene, bira se medju svima - bolje i losa instanca nego 503.
+ */
+@Component
+@Slf4j
+public class StaticLoadBalancer {
+
+    public static final String SCHEME = "lb";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final int failureThreshold;
+    private final long slowResponseNanos;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+
+    private final Map<String, ServiceInstance[]> services = new ConcurrentHashMap<>();
+
+    public StaticLoadBalancer(Environment environment,
+                              MeterRegistry meterRegistry,
+                              @Value("${bookstore.gateway.load-balancer.failure-threshold:5}") int failureThreshold,
+                              @Value("${bookstore.gateway.load-balancer.slow-response:3s}") Duration slowResponse,
+                              @Value("${bookstore.gateway.load-balancer.base-ejection:10s}") Duration baseEjection,
+                              @Value("${bookstore.gateway.load-balancer.max-ejection:2m}") Duration maxEjection) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = failureThreshold;
+        this.slowResponseNanos = slowResponse.toNanos();
+        this.baseEjectionNanos = baseEjection.toNanos();
+        this.maxEjectionNanos = maxEjection.toNanos();
+    }
+
+    /**
+     * Filter za WebClient-e koji gadjaju lb://{servis}; isti izbor i isto pracenje kao rute.
+     */
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> {
+            URI url = request.url();
+            if (!SCHEME.equals(url.getScheme())) {
+                return next.exchange(request);
+            }
+            ServiceInstance instance = choose(url.getHost());
+            long start = System.nanoTime();
+            AtomicBoolean serverError = new AtomicBoolean();
+            return Terminations.onTermination(
+                    next.exchange(ClientRequest.from(request).url(reconstruct(url, instance)).build())
+                            .doOnNext(response -> serverError.set(response.statusCode().is5xxServerError())),
+                    signal -> release(instance, start, signal, serverError.get()));
+        };
+    }
+
+    ServiceInstance choose(String service) {
+        ServiceInstance instance = choose(instances(service), System.nanoTime());
+        instance.acquire();
+        return instance;
+    }
+
+    /**
+     * Zatvara zahtev ka instanci. Otkazan zahtev (klijent je otisao) se ne racuna ni kao uspeh ni kao greska.
+     */
+    void release(ServiceInstance instance, long startNanos, SignalType signal, boolean serverError) {
+        if (signal == SignalType.CANCEL) {
+            instance.cancel();
+            return;
+        }
+        long now = System.nanoTime();
+        release(instance, now - startNanos, signal == SignalType.ON_COMPLETE && !serverError, now);
+    }
+
+    void release(ServiceInstance instance, long latencyNanos, boolean success, long now) {
+        boolean healthy = success && latencyNanos <= slowResponseNanos;
+        if (instance.release(latencyNanos, healthy, now, slowResponseNanos,
+                failureThreshold, baseEjectionNanos, maxEjectionNanos)) {
+            log.warn("Ejected {} after {} consecutive failed or slow responses", instance, failureThreshold);
+        }
+    }
+
+    static ServiceInstance choose(ServiceInstance[] instances, long now) {
+        int n = instances.length;
+        if (n == 1) {
+            return instances[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(n);
+        int j = random.nextInt(n - 1);
+        if (j >= i) {
+            j++;
+        }
+        ServiceInstance a = instances[i];
+        ServiceInstance b = instances[j];
+        boolean aAvailable = a.isAvailable(now);
+        boolean bAvailable = b.isAvailable(now);
+        if (aAvailable && bAvailable) {
+            return a.cost() <= b.cost() ? a : b;
+        }
+        if (aAvailable || bAvailable) {
+            return aAvailable ? a : b;
+        }
+
+        // obe izvucene su izbacene - najjeftinija dostupna, a ako nema nijedne, najjeftinija od svih
+        ServiceInstance best = null;
+        boolean bestAvailable = false;
+        for (ServiceInstance candidate : instances) {
+            boolean available = candidate.isAvailable(now);
+            if (best == null || (available && !bestAvailable)
+                    || (available == bestAvailable && candidate.cost() < best.cost())) {
+                best = candidate;
+                bestAvailable = available;
+            }
+        }
+        return best;
+    }
+
+    ServiceInstance[] instances(String service) {
+        ServiceInstance[] instances = services.get(service);
+        return instances != null ? instances : services.computeIfAbsent(service, this::create);
+    }
+
+    private ServiceInstance[] create(String service) {
+        String configured = environment.getProperty("services." + service + ".instances",
+                environment.getProperty("services." + service + ".url", ""));
+        List<URI> uris = Arrays.stream(configured.split(","))
+                .map(String::trim)
+                .filter(uri -> !uri.isEmpty())
+                .map(URI::create)
+                .toList();
+        if (uris.isEmpty()) {
+            throw NotFoundException.create(true, "No instances configured for service " + service);
+        }
+
+        ServiceInstance[] instances = new ServiceInstance[uris.size()];
+        for (int i = 0; i < instances.length; i++) {
+            URI uri = uris.get(i);
+            String id = uri.getAuthority();
+            ServiceInstance instance = new ServiceInstance(service, uri,
+                    Timer.builder("gateway.lb.latency")
+                            .tag("service", service)
+                            .tag("instance", id)
+                            .register(meterRegistry),
+                    Counter.builder("gateway.lb.ejections")
+                            .tag("service", service)
+                            .tag("instance", id)
+                            .register(meterRegistry));
+            Gauge.builder("gateway.lb.inflight", instance, ServiceInstance::inFlight)
+                    .tag("service", service)
+                    .tag("instance", id)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.lb.available", instance, it -> it.isAvailable(System.nanoTime()) ? 1 : 0)
+                    .tag("service", service)
+                    .tag("instance", id)
+                    .register(meterRegistry);
+            instances[i] = instance;
+        }
+        log.info("Load balancing {} across {}", service, uris);
+        return instances;
+    }
+
+    static URI reconstruct(URI original, ServiceInstance instance) {
+        URI target = instance.uri();
+        return UriComponentsBuilder.fromUri(original)
+                .scheme(target.getScheme())
+                .host(target.getHost())
+                .port(target.getPort())
+                .build(true)
+                .toUri();
+    }
+}
@@ -0,0 +1,123 @@
+package com.bookstore.gateway.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket po kljucu kao GCRA (generic cell rate algorithm).
+ *
+ * Stanje kljuca je jedan AtomicLong - teorijsko vreme dolaska sledeceg zahteva (TAT).
+ * Dopunjavanje je lenjo (racuna se iz proteklog vremena pri zahtevu), a prijem je jedan CAS,
+ * bez zakljucavanja. Kljuc ciji je TAT u proslosti ima punu kofu, pa se moze izbaciti bez
+ * promene ponasanja; sweep to radi periodicno.
+ *
+ * Kljuc pripada grupi (npr. mrezi klijenta). Grupa ima najvise max-keys-per-group kljuceva;
+ * preko toga novi kljucevi grupe dele jednu kofu grupe, pa jedan izvor ne moze da popuni mapu.
+ * Tek kada je cela mapa puna (max-keys), novi kljucevi dele jednu zajednicku kofu.
+ */
+final class GcraLimiter {
+
+    private static final String GROUP_PREFIX = "group:";
+
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final int maxKeys;
+    private final int maxKeysPerGroup;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> groupKeys = new ConcurrentHashMap<>();
+    private final Bucket overflow = new Bucket(null);
+
+    GcraLimiter(double ratePerSecond, int burst, int maxKeys) {
+        this(ratePerSecond, burst, maxKeys, maxKeys);
+    }
+
+    /**
+     * @param ratePerSecond prosecan broj dozvoljenih zahteva u sekundi
+     * @param burst         broj zahteva koji prolazi odjednom iz mirovanja
+     */
+    GcraLimiter(double ratePerSecond, int burst, int maxKeys, int maxKeysPerGroup) {
+        if (ratePerSecond <= 0 || burst <= 0 || maxKeys <= 0 || maxKeysPerGroup <= 0) {
+            throw new IllegalArgumentException("Rate, burst, max keys and max keys per group must be positive");
+        }
+        this.emissionInterval = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstTolerance = emissionInterval * burst;
+        this.maxKeys = maxKeys;
+        this.maxKeysPerGroup = maxKeysPerGroup;
+    }
+
+    long tryAcquire(String key, long now) {
+        return tryAcquire(key, key, now);
+    }
+
+    /**
+     * @return 0 ako je zahtev dozvoljen, inace broj nanosekundi do sledeceg dozvoljenog
+     */
+    long tryAcquire(String key, String group, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = admit(key, group);
+        }
+        AtomicLong tat = bucket.tat;
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + emissionInterval;
+            long wait = next - now - burstTolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private Bucket admit(String key, String group) {
+        if (buckets.size() >= maxKeys) {
+            return overflow;
+        }
+        AtomicInteger keys = groupKeys.computeIfAbsent(group, g -> new AtomicInteger());
+        // provera i uvecanje nisu atomski - grupa moze kratko da predje granicu za broj istovremenih zahteva
+        if (keys.get() >= maxKeysPerGroup) {
+            return buckets.computeIfAbsent(GROUP_PREFIX + group, k -> new Bucket(null));
+        }
+        return buckets.computeIfAbsent(key, k -> {
+            keys.incrementAndGet();
+            return new Bucket(group);
+        });
+    }
+
+    /**
+     * Izbacuje kljuceve sa punom kofom; vraca broj izbacenih. Zahtev koji u istom trenutku
+     * koristi izbacenu kofu moze da propusti najvise jedan zahtev vise.
+     */
+    int sweep(long now) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> {
+            if (bucket.tat.get() > now) {
+                return false;
+            }
+            if (bucket.group != null) {
+                groupKeys.computeIfPresent(bucket.group, (group, keys) -> keys.decrementAndGet() <= 0 ? null : keys);
+            }
+            return true;
+        });
+        return before - buckets.size();
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+        // null za kofu grupe i zajednicku kofu - ne broje se u kljuceve grupe
+        private final String group;
+
+        private Bucket(String group) {
+            this.group = group;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.bookstore.gateway.ratelimit;
+
+import com.bookstore.gateway.support.ClientKeyResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ogranicenje broja zahteva u procesu gateway-a, bez Redis-a.
+ *
+ * Svaki klijent rute ima svoju kofu (client-rate / client-burst), a ruta ukupno jednu
+ * (route-rate / route-burst); 0 iskljucuje odgovarajucu kofu. Odbijen zahtev dobija 429 sa
+ * Retry-After u sekundama. Filter se izvrsava pre kesa odgovora, pa se broje i pogoci kesa.
+ * Klijent je IP adresa (ClientKeyResolver); jedna mreza zauzima najvise max-keys-per-network kljuceva.
+ *
+ * Primer:
+ * <pre>
+ * filters:
+ *   - name: LocalRateLimit
+ *     args:
+ *       client-rate: 20
+ *       client-burst: 40
+ *       route-rate: 1000
+ *       route-burst: 2000
+ * </pre>
+ */
+@Component
+@Slf4j
+public class LocalRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+    // pre ResponseCache filtera (WRITE_RESPONSE_FILTER_ORDER - 1)
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+
+    private final ClientKeyResolver clientKeyResolver;
+    private final MeterRegistry meterRegistry;
+    private final int maxKeys;
+    private final int maxKeysPerNetwork;
+    private final List<GcraLimiter> limiters = new CopyOnWriteArrayList<>();
+
+    public LocalRateLimitGatewayFilterFactory(ClientKeyResolver clientKeyResolver,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${bookstore.gateway.rate-limit.max-keys:100000}") int maxKeys,
+                                              @Value("${bookstore.gateway.rate-limit.max-keys-per-network:256}") int maxKeysPerNetwork) {
+        super(Config.class);
+        this.clientKeyResolver = clientKeyResolver;
+        this.meterRegistry = meterRegistry;
+        this.maxKeys = maxKeys;
+        this.maxKeysPerNetwork = maxKeysPerNetwork;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String route = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        GcraLimiter clients = config.getClientRate() > 0
+                ? register(new GcraLimiter(config.getClientRate(), config.getClientBurst(), maxKeys, maxKeysPerNetwork))
+                : null;
+        GcraLimiter routeLimit = config.getRouteRate() > 0
+                ? register(new GcraLimiter(config.getRouteRate(), config.getRouteBurst(), 1))
+                : null;
+
+        Counter allowed = counter(route, "allowed");
+        Counter rejectedClient = counter(route, "rejected_client");
+        Counter rejectedRoute = counter(route, "rejected_route");
+        if (clients != null) {
+            Gauge.builder("gateway.ratelimit.keys", clients, GcraLimiter::size)
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            long now = System.nanoTime();
+            long wait = 0;
+            if (clients != null) {
+                ClientKeyResolver.ClientKey client = clientKeyResolver.resolveKey(exchange);
+                wait = clients.tryAcquire(client.key(), client.network(), now);
+            }
+            if (wait > 0) {
+                rejectedClient.increment();
+                return reject(exchange.getResponse(), wait);
+            }
+            wait = routeLimit != null ? routeLimit.tryAcquire(route, now) : 0;
+            if (wait > 0) {
+                rejectedRoute.increment();
+                return reject(exchange.getResponse(), wait);
+            }
+            allowed.increment();
+            return chain.filter(exchange);
+        }, ORDER);
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.gateway.rate-limit.sweep-interval-ms:10000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (GcraLimiter limiter : limiters) {
+            evicted += limiter.sweep(now);
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit keys", evicted);
+        }
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, long waitNanos) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        return response.setComplete();
+    }
+
+    private GcraLimiter register(GcraLimiter limiter) {
+        limiters.add(limiter);
+        return limiter;
+    }
+
+    private Counter counter(String route, String result) {
+        return Counter.builder("gateway.ratelimit.requests")
+                .tag("route", route)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private double clientRate;
+        private int clientBurst = 1;
+        private double routeRate;
+        private int routeBurst = 1;
+    }
+}
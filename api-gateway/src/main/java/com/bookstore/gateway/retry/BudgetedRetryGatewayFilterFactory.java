@@ -0,0 +1,161 @@
+package com.bookstore.gateway.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ponavljanje idempotentnih zahteva (GET, HEAD) sa eksponencijalnim backoff-om, nasumicnim
+ * jitter-om i budzetom po ruti (vidi RetryBudget).
+ *
+ * Ponavljaju se odgovori sa statusom iz statuses (ili series) i greske iz exceptions
+ * (podrazumevano IOException, tj. greske konekcije); timeout odgovora (504) se ne ponavlja, jer
+ * bi svaki pokusaj ponovo cekao ceo timeout. Podesavanja su ista kao za ugradjeni Retry filter,
+ * uz budget-ratio i budget-capacity; od backoff-a se koriste first-backoff i max-backoff
+ * (faktor je 2). Sledeci pokusaj ponovo prolazi kroz load balancer, pa obicno ide na drugu
+ * instancu. U listi filtera stoji posle CircuitBreaker-a, da bi circuit breaker video samo
+ * konacan ishod.
+ *
+ * Primer:
+ * <pre>
+ * filters:
+ *   - name: BudgetedRetry
+ *     args:
+ *       retries: 2
+ *       backoff:
+ *         first-backoff: 50ms
+ *         max-backoff: 500ms
+ *       budget-ratio: 0.2
+ *       budget-capacity: 20
+ * </pre>
+ */
+@Component
+public class BudgetedRetryGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<BudgetedRetryGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+
+    public BudgetedRetryGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        config.validate();
+        String route = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        RetryBudget budget = new RetryBudget(config.getBudgetRatio(), config.getBudgetCapacity());
+        Gauge.builder("gateway.retry.budget", budget, RetryBudget::available)
+                .tag("route", route)
+                .register(meterRegistry);
+        Counter retried = counter(route, "retried");
+        Counter exhausted = counter(route, "budget_exhausted");
+
+        RetryBackoffSpec backoff = Retry.backoff(config.getRetries(), config.getBackoff().getFirstBackoff())
+                .maxBackoff(config.getBackoff().getMaxBackoff())
+                .jitter(0.5)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+        return (exchange, chain) -> {
+            budget.deposit();
+            if (!config.getMethods().contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            // filter se poziva i za poslednju gresku, kada ponavljanja vise nema - tada se budzet ne trosi
+            AtomicInteger remaining = new AtomicInteger(config.getRetries());
+            Retry retry = backoff
+                    .filter(error -> isRetryable(error, config) && remaining.get() > 0 && withdraw(budget, exhausted))
+                    .doBeforeRetry(signal -> {
+                        remaining.decrementAndGet();
+                        retried.increment();
+                        ServerWebExchangeUtils.reset(exchange);
+                    });
+            return chain.filter(exchange)
+                    .then(Mono.defer(() -> hasRetryableStatus(exchange, config)
+                            ? Mono.<Void>error(new RetryableStatusException())
+                            : Mono.empty()))
+                    .retryWhen(retry)
+                    // ponavljanja su potrosena - klijent dobija poslednji odgovor servisa
+                    .onErrorResume(RetryableStatusException.class, error -> Mono.empty());
+        };
+    }
+
+    private static boolean hasRetryableStatus(ServerWebExchange exchange, Config config) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status == null) {
+            return false;
+        }
+        HttpStatus resolved = HttpStatus.resolve(status.value());
+        return (resolved != null && config.getStatuses().contains(resolved))
+                || config.getSeries().contains(HttpStatus.Series.resolve(status.value()));
+    }
+
+    private static boolean isRetryable(Throwable error, Config config) {
+        if (error instanceof RetryableStatusException) {
+            return true;
+        }
+        return config.getExceptions().stream().anyMatch(type -> type.isInstance(error)
+                || (error.getCause() != null && type.isInstance(error.getCause())));
+    }
+
+    private static boolean withdraw(RetryBudget budget, Counter exhausted) {
+        if (budget.tryWithdraw()) {
+            return true;
+        }
+        exhausted.increment();
+        return false;
+    }
+
+    private Counter counter(String route, String result) {
+        return Counter.builder("gateway.retry.requests")
+                .tag("route", route)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Odgovor servisa sa statusom za ponavljanje - signal za retryWhen, ne napusta filter.
+     */
+    private static final class RetryableStatusException extends RuntimeException {
+
+        private RetryableStatusException() {
+            super(null, null, false, false);
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Config extends RetryGatewayFilterFactory.RetryConfig {
+        private double budgetRatio = 0.2;
+        private int budgetCapacity = 20;
+
+        // setExceptions ima generic varargs (Class<? extends Throwable>...); niz se samo kopira u listu
+        @SuppressWarnings("unchecked")
+        public Config() {
+            setRetries(2);
+            setStatuses(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE);
+            setSeries();
+            setMethods(HttpMethod.GET, HttpMethod.HEAD);
+            setExceptions(IOException.class);
+            setBackoff(Duration.ofMillis(50), Duration.ofMillis(500), 2, false);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.bookstore.gateway.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budzet ponavljanja po ruti: svaki originalni zahtev uplacuje ratio ponavljanja, a svako
+ * ponavljanje trosi jedno. Ponavljanja tako dodaju najvise ratio dodatnog saobracaja, pa
+ * servis koji pada ne dobija dvostruko ili trostruko opterecenje od retry-a.
+ * Na pocetku i posle mirovanja budzet je pun (capacity), sto pokriva retke pojedinacne greske.
+ */
+final class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int capacity) {
+        if (ratio < 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Budget ratio must not be negative and capacity must be positive");
+        }
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = capacity * SCALE;
+        this.balance = new AtomicLong(this.capacity);
+    }
+
+    void deposit() {
+        if (deposit > 0 && balance.get() < capacity) {
+            balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+        }
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    double available() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,94 @@
+package com.bookstore.gateway.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+/**
+ * Odredjuje ko salje zahtev - po IP adresi klijenta, nikad po zaglavlju koje klijent sam bira.
+ *
+ * X-Forwarded-For se cita samo onoliko koraka koliko ima pouzdanih proxy-ja ispred gateway-a
+ * (trusted-proxies, 0 - samo adresa konekcije), pa klijent ne moze da podmetne adresu.
+ * IPv6 adresa se svodi na /64 (jedna mreza korisnika), a uz kljuc se vraca i sira mreza
+ * (/24, odnosno /48) da jedan izvor ne bi mogao da zauzme sve kljuceve limitera.
+ */
+@Component
+public class ClientKeyResolver {
+
+    public record ClientKey(String key, String network) {
+    }
+
+    private static final ClientKey UNKNOWN = new ClientKey("unknown", "unknown");
+
+    private final RemoteAddressResolver addressResolver;
+
+    public ClientKeyResolver(@Value("${bookstore.gateway.trusted-proxies:0}") int trustedProxies) {
+        if (trustedProxies < 0) {
+            throw new IllegalArgumentException("Number of trusted proxies must not be negative");
+        }
+        this.addressResolver = trustedProxies > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies)
+                : new RemoteAddressResolver() {
+                };
+    }
+
+    public String resolve(ServerWebExchange exchange) {
+        return resolveKey(exchange).key();
+    }
+
+    public ClientKey resolveKey(ServerWebExchange exchange) {
+        InetSocketAddress remote = addressResolver.resolve(exchange);
+        if (remote == null) {
+            return UNKNOWN;
+        }
+        InetAddress address = remote.isUnresolved() ? parseLiteral(remote.getHostString()) : remote.getAddress();
+        if (address == null) {
+            // vrednost koju je upisao pouzdan proxy, ali nije IP adresa
+            String host = remote.getHostString();
+            return host == null || host.isBlank() ? UNKNOWN : new ClientKey("host:" + host, "host:" + host);
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            return new ClientKey("ip:" + address.getHostAddress(), "net:" + prefix(bytes, 3) + "/24");
+        }
+        return new ClientKey("ip:" + prefix(bytes, 8) + "/64", "net:" + prefix(bytes, 6) + "/48");
+    }
+
+    /**
+     * Adresa iz X-Forwarded-For bez DNS upita - null ako vrednost nije IP literal.
+     */
+    private static InetAddress parseLiteral(String host) {
+        if (host == null || host.isEmpty()) {
+            return null;
+        }
+        String literal = host.startsWith("[") && host.endsWith("]") ? host.substring(1, host.length() - 1) : host;
+        boolean ipv4 = literal.chars().allMatch(c -> c == '.' || Character.isDigit(c));
+        boolean ipv6 = literal.indexOf(':') >= 0
+                && literal.chars().allMatch(c -> c == ':' || c == '.' || Character.digit(c, 16) >= 0);
+        if (!ipv4 && !ipv6) {
+            return null;
+        }
+        try {
+            // za IP literal getByName ne ide u DNS
+            return InetAddress.getByName(literal);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static String prefix(byte[] address, int keepBytes) {
+        byte[] masked = Arrays.copyOf(Arrays.copyOf(address, keepBytes), address.length);
+        try {
+            return InetAddress.getByAddress(masked).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
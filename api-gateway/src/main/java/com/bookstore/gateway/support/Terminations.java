@@ -0,0 +1,40 @@
+package com.bookstore.gateway.support;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Ishod izvrsavanja za filtere koji broje zahteve u toku i mere latenciju.
+ *
+ * doFinally tu ne radi: kada retry filter iznad ponovo pretplacuje lanac, on otkazuje prethodnu
+ * pretplatu dok se ON_COMPLETE jos prosledjuje, pa doFinally vidi CANCEL i uspesan zahtev
+ * se ne bi izmerio. Ovde se ishod belezi pre prosledjivanja signala, tacno jednom.
+ */
+public final class Terminations {
+
+    private Terminations() {
+    }
+
+    public static <T> Mono<T> onTermination(Mono<T> source, Consumer<SignalType> callback) {
+        AtomicBoolean done = new AtomicBoolean();
+        return source
+                .doOnSuccess(value -> {
+                    if (done.compareAndSet(false, true)) {
+                        callback.accept(SignalType.ON_COMPLETE);
+                    }
+                })
+                .doOnError(error -> {
+                    if (done.compareAndSet(false, true)) {
+                        callback.accept(SignalType.ON_ERROR);
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (done.compareAndSet(false, true)) {
+                        callback.accept(SignalType.CANCEL);
+                    }
+                });
+    }
+}
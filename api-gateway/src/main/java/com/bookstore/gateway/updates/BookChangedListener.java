@@ -0,0 +1,35 @@
+package com.bookstore.gateway.updates;
+
+import com.bookstore.events.BookChangedEvent;
+import com.bookstore.gateway.dto.BookUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookChangedListener {
+
+    private final BookUpdateHub bookUpdateHub;
+
+    /**
+     * RabbitMQ consumer - izmene knjiga iz book-service prosledjuje pretplatnicima SSE toka.
+     */
+    @RabbitListener(queues = "#{bookUpdatesQueue.name}")
+    public void handleBookChanged(BookChangedEvent event) {
+        log.debug("Received BookChangedEvent via RabbitMQ: bookId={}, version={}, type={}",
+                event.getBookId(), event.getVersion(), event.getType());
+        if (event.getBookId() == null || event.getVersion() == null) {
+            return;
+        }
+        bookUpdateHub.publish(BookUpdate.builder()
+                .bookId(event.getBookId())
+                .version(event.getVersion())
+                .price(event.getPrice())
+                .stock(event.getStock())
+                .deleted(event.getType() == BookChangedEvent.ChangeType.DELETED)
+                .build());
+    }
+}
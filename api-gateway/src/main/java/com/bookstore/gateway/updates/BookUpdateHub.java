@@ -0,0 +1,194 @@
+package com.bookstore.gateway.updates;
+
+import com.bookstore.gateway.dto.BookUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Razvodi izmene zaliha i cena knjiga pretplatnicima SSE toka (GET /api/books/updates).
+ *
+ * Za svaku knjigu cuva poslednje stanje (po verziji) i skup pretplatnika; izmena se predaje
+ * samo pretplatnicima te knjige. Izmene samo naslova ili autora se ne salju. Novi pretplatnik
+ * odmah dobija stanje koje gateway vec zna, ali to postoji samo za knjige izmenjene od pokretanja
+ * gateway-a - klijent zato posle otvaranja toka radi pocetni GET, a polling mu vise ne treba.
+ * Obrisana knjiga se pamti jos tombstone-ttl, da zakasnela starija izmena ne bi vratila stanje,
+ * a zatim se zaboravlja (sweep). Heartbeat je jedan zajednicki tajmer, a ne tajmer po konekciji.
+ */
+@Component
+@Slf4j
+public class BookUpdateHub {
+
+    private final Map<Long, Set<BookUpdateSubscription>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, BookUpdate> latest = new ConcurrentHashMap<>();
+    // vreme brisanja (nanoTime) po knjizi, za sweep obrisanih iz latest
+    private final Map<Long, Long> deletedAt = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final int maxSubscribers;
+    private final int maxBooksPerSubscriber;
+    private final Duration reconnectDelay;
+    private final long tombstoneTtlNanos;
+    private final Flux<ServerSentEvent<BookUpdate>> heartbeat;
+    private final Counter received;
+    private final Counter ignored;
+    private final Counter sent;
+    private final Counter coalesced;
+
+    public BookUpdateHub(MeterRegistry meterRegistry,
+                         @Value("${bookstore.gateway.book-updates.max-subscribers:50000}") int maxSubscribers,
+                         @Value("${bookstore.gateway.book-updates.max-books-per-subscriber:100}") int maxBooksPerSubscriber,
+                         @Value("${bookstore.gateway.book-updates.heartbeat:15s}") Duration heartbeatInterval,
+                         @Value("${bookstore.gateway.book-updates.reconnect-delay:5s}") Duration reconnectDelay,
+                         @Value("${bookstore.gateway.book-updates.tombstone-ttl:10m}") Duration tombstoneTtl) {
+        this.maxSubscribers = maxSubscribers;
+        this.maxBooksPerSubscriber = maxBooksPerSubscriber;
+        this.reconnectDelay = reconnectDelay;
+        this.tombstoneTtlNanos = tombstoneTtl.toNanos();
+        this.heartbeat = Flux.interval(heartbeatInterval)
+                .map(tick -> ServerSentEvent.<BookUpdate>builder().comment("heartbeat").build())
+                .share();
+        this.received = Counter.builder("gateway.book.updates.events").tag("result", "received").register(meterRegistry);
+        this.ignored = Counter.builder("gateway.book.updates.events").tag("result", "ignored").register(meterRegistry);
+        this.sent = Counter.builder("gateway.book.updates.deliveries").tag("result", "sent").register(meterRegistry);
+        this.coalesced = Counter.builder("gateway.book.updates.deliveries").tag("result", "coalesced").register(meterRegistry);
+        Gauge.builder("gateway.book.updates.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("gateway.book.updates.books", latest, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Tok izmena za zadate knjige, ili prazno kada je dostignut maksimalan broj pretplatnika.
+     */
+    public Optional<Flux<ServerSentEvent<BookUpdate>>> subscribe(Collection<Long> bookIds) {
+        long[] ids = bookIds.stream()
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .distinct()
+                .toArray();
+        if (ids.length == 0) {
+            throw new IllegalArgumentException("At least one book id is required");
+        }
+        if (ids.length > maxBooksPerSubscriber) {
+            throw new IllegalArgumentException("At most " + maxBooksPerSubscriber + " book ids are allowed");
+        }
+        if (subscriberCount.get() >= maxSubscribers) {
+            return Optional.empty();
+        }
+
+        Flux<ServerSentEvent<BookUpdate>> updates = Flux.<BookUpdate>create(sink -> {
+                    BookUpdateSubscription subscription = new BookUpdateSubscription(ids, sent, coalesced);
+                    register(subscription);
+                    sink.onDispose(() -> unregister(subscription));
+                    subscription.attach(sink);
+                    for (long id : ids) {
+                        BookUpdate known = latest.get(id);
+                        if (known != null) {
+                            subscription.offer(known);
+                        }
+                    }
+                })
+                .map(update -> ServerSentEvent.builder(update)
+                        .id(update.getBookId() + ":" + update.getVersion())
+                        .event("book")
+                        .build());
+        // prefetch 1 - neposlate izmene se spajaju u pretplatniku, a ne gomilaju u redu merge-a
+        // prvi komentar odmah salje zaglavlja odgovora; retry odredjuje pauzu pre ponovnog povezivanja
+        return Optional.of(Flux.merge(1, updates, heartbeat.onBackpressureDrop())
+                .startWith(ServerSentEvent.<BookUpdate>builder().comment("subscribed").retry(reconnectDelay).build()));
+    }
+
+    /**
+     * Prima izmenu knjige; ponovljene i zastarele (manja ili ista verzija) se odbacuju.
+     */
+    public void publish(BookUpdate update) {
+        received.increment();
+        BookUpdate[] previous = new BookUpdate[1];
+        BookUpdate current = latest.compute(update.getBookId(), (id, known) -> {
+            previous[0] = known;
+            return known == null || update.getVersion() > known.getVersion() ? update : known;
+        });
+        if (current != update || !changesStockOrPrice(previous[0], update)) {
+            ignored.increment();
+            return;
+        }
+        if (update.isDeleted()) {
+            deletedAt.put(update.getBookId(), System.nanoTime());
+        }
+
+        Set<BookUpdateSubscription> bookSubscribers = subscribers.get(update.getBookId());
+        if (bookSubscribers != null) {
+            bookSubscribers.forEach(subscription -> subscription.offer(update));
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.gateway.book-updates.sweep-interval-ms:60000}")
+    public void sweep() {
+        int evicted = sweep(System.nanoTime());
+        if (evicted > 0) {
+            log.debug("Evicted {} deleted books from book updates", evicted);
+        }
+    }
+
+    /**
+     * Zaboravlja knjige obrisane pre vise od tombstone-ttl.
+     */
+    int sweep(long now) {
+        int evicted = 0;
+        for (Map.Entry<Long, Long> entry : deletedAt.entrySet()) {
+            if (now - entry.getValue() < tombstoneTtlNanos || !deletedAt.remove(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            // brise se samo ako je poslednje stanje i dalje brisanje
+            if (latest.computeIfPresent(entry.getKey(), (id, known) -> known.isDeleted() ? null : known) == null) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private static boolean changesStockOrPrice(BookUpdate previous, BookUpdate update) {
+        if (previous == null || previous.isDeleted() != update.isDeleted()) {
+            return true;
+        }
+        boolean samePrice = previous.getPrice() == null
+                ? update.getPrice() == null
+                : update.getPrice() != null && previous.getPrice().compareTo(update.getPrice()) == 0;
+        return !samePrice || !Objects.equals(previous.getStock(), update.getStock());
+    }
+
+    private void register(BookUpdateSubscription subscription) {
+        subscriberCount.incrementAndGet();
+        for (long id : subscription.bookIds()) {
+            // dodavanje unutar compute - unregister ne moze izmedju da ukloni prazan skup
+            subscribers.compute(id, (key, set) -> {
+                Set<BookUpdateSubscription> target = set != null ? set : ConcurrentHashMap.newKeySet();
+                target.add(subscription);
+                return target;
+            });
+        }
+    }
+
+    private void unregister(BookUpdateSubscription subscription) {
+        subscriberCount.decrementAndGet();
+        for (long id : subscription.bookIds()) {
+            subscribers.computeIfPresent(id, (key, set) -> {
+                set.remove(subscription);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
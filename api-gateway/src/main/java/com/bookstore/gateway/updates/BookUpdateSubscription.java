@@ -0,0 +1,86 @@
+package com.bookstore.gateway.updates;
+
+import com.bookstore.gateway.dto.BookUpdate;
+import io.micrometer.core.instrument.Counter;
+import reactor.core.publisher.FluxSink;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jedan pretplatnik - za svaku knjigu cuva samo poslednje neposlato stanje.
+ *
+ * Salje se samo koliko klijent trazi (demand iz konekcije); dok je klijent spor, nove izmene
+ * zamenjuju neposlate (drop-to-latest), pa memorija po pretplatniku ne zavisi od broja izmena.
+ * Slanje je serijalizovano brojacem (wip) - poziva se iz niti dogadjaja i iz niti konekcije.
+ */
+final class BookUpdateSubscription {
+
+    private final long[] bookIds;
+    private final Map<Long, BookUpdate> pending = new ConcurrentHashMap<>();
+    // poslednja poslata verzija po knjizi; menja se samo u drain()
+    private final Map<Long, Long> sentVersions = new HashMap<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Counter sent;
+    private final Counter coalesced;
+    private volatile FluxSink<BookUpdate> sink;
+
+    BookUpdateSubscription(long[] bookIds, Counter sent, Counter coalesced) {
+        this.bookIds = bookIds;
+        this.sent = sent;
+        this.coalesced = coalesced;
+    }
+
+    long[] bookIds() {
+        return bookIds;
+    }
+
+    void attach(FluxSink<BookUpdate> sink) {
+        this.sink = sink;
+        sink.onRequest(n -> drain());
+    }
+
+    void offer(BookUpdate update) {
+        BookUpdate[] replaced = new BookUpdate[1];
+        pending.merge(update.getBookId(), update, (previous, next) -> {
+            replaced[0] = previous;
+            return next.getVersion() >= previous.getVersion() ? next : previous;
+        });
+        if (replaced[0] != null) {
+            coalesced.increment();
+        }
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            FluxSink<BookUpdate> current = sink;
+            if (current != null) {
+                for (Long bookId : pending.keySet()) {
+                    if (current.isCancelled() || current.requestedFromDownstream() <= 0) {
+                        break;
+                    }
+                    // remove vraca najnovije stanje; izmena stigla posle njega ponovo ulazi u pending
+                    BookUpdate update = pending.remove(bookId);
+                    if (update == null) {
+                        continue;
+                    }
+                    Long sentVersion = sentVersions.get(bookId);
+                    if (sentVersion != null && sentVersion >= update.getVersion()) {
+                        continue;
+                    }
+                    sentVersions.put(bookId, update.getVersion());
+                    current.next(update);
+                    sent.increment();
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
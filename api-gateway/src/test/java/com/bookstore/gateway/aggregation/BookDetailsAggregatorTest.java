@@ -0,0 +1,113 @@
+package com.bookstore.gateway.aggregation;
+
+import com.bookstore.gateway.dto.BookDetailsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BookDetailsAggregatorTest {
+
+    private static final String BOOK = "{\"id\":1,\"title\":\"Clean Code\"}";
+    private static final String REVIEWS = "[{\"id\":7,\"rating\":5}]";
+    private static final String RATING = "{\"bookId\":1,\"averageRating\":4.5,\"totalReviews\":1}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static ExchangeFunction respond(Map<String, Mono<ClientResponse>> byPath) {
+        return request -> byPath.getOrDefault(request.url().getPath(),
+                Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build()));
+    }
+
+    private static Mono<ClientResponse> json(HttpStatus status, String body) {
+        return Mono.just(ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    private BookDetailsAggregator aggregator(ExchangeFunction books, ExchangeFunction reviews) {
+        return new BookDetailsAggregator(
+                WebClient.builder().baseUrl("http://book-service").exchangeFunction(books).build(),
+                WebClient.builder().baseUrl("http://review-service").exchangeFunction(reviews).build(),
+                meterRegistry, Duration.ofMillis(500), Duration.ofMillis(100), Duration.ofMillis(100));
+    }
+
+    private final ExchangeFunction healthyBooks = respond(Map.of("/api/books/1", json(HttpStatus.OK, BOOK)));
+
+    @Test
+    void allLegsSucceed_returnsCompleteDetails() {
+        BookDetailsAggregator aggregator = aggregator(healthyBooks, respond(Map.of(
+                "/api/reviews/book/1", json(HttpStatus.OK, REVIEWS),
+                "/api/reviews/book/1/average-rating", json(HttpStatus.OK, RATING))));
+
+        ResponseEntity<?> response = aggregator.getBookDetails(1L).block(Duration.ofSeconds(1));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BookDetailsResponse details = (BookDetailsResponse) response.getBody();
+        assertThat(details.getBook().get("title").asText()).isEqualTo("Clean Code");
+        assertThat(details.getReviews()).hasSize(1);
+        assertThat(details.getAverageRating()).isEqualTo(4.5);
+        assertThat(details.isPartial()).isFalse();
+        assertThat(details.getErrors()).isNull();
+    }
+
+    @Test
+    void slowReviews_returnPartialDetailsWithinTimeout() {
+        BookDetailsAggregator aggregator = aggregator(healthyBooks, respond(Map.of(
+                "/api/reviews/book/1", json(HttpStatus.OK, REVIEWS).delayElement(Duration.ofSeconds(5)),
+                "/api/reviews/book/1/average-rating", json(HttpStatus.OK, RATING))));
+
+        long start = System.nanoTime();
+        ResponseEntity<?> response = aggregator.getBookDetails(1L).block(Duration.ofSeconds(2));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(1000);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        BookDetailsResponse details = (BookDetailsResponse) response.getBody();
+        assertThat(details.isPartial()).isTrue();
+        assertThat(details.getReviews()).isNull();
+        assertThat(details.getAverageRating()).isEqualTo(4.5);
+        assertThat(details.getErrors()).containsOnlyKeys("reviews");
+        assertThat(meterRegistry.get("gateway.aggregation.legs").tag("leg", "reviews").tag("outcome", "fallback")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void missingBook_passesClientErrorThrough() {
+        BookDetailsAggregator aggregator = aggregator(
+                respond(Map.of("/api/books/1", json(HttpStatus.NOT_FOUND, "{\"error\":\"Book not found with id: 1\"}"))),
+                respond(Map.of()));
+
+        ResponseEntity<?> response = aggregator.getBookDetails(1L).block(Duration.ofSeconds(1));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody().toString()).contains("Book not found");
+    }
+
+    @Test
+    void bookServiceDown_returnsServiceUnavailable() {
+        BookDetailsAggregator aggregator = aggregator(
+                request -> Mono.error(new IllegalStateException("Connection refused")),
+                respond(Map.of(
+                        "/api/reviews/book/1", json(HttpStatus.OK, REVIEWS),
+                        "/api/reviews/book/1/average-rating", json(HttpStatus.OK, RATING))));
+
+        ResponseEntity<?> response = aggregator.getBookDetails(1L).block(Duration.ofSeconds(1));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody()).isEqualTo(Map.of("error",
+                "Book service is currently unavailable. Please try again later."));
+    }
+}
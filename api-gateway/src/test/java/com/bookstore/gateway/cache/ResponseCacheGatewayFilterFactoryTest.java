@@ -0,0 +1,159 @@
+package com.bookstore.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final Route ROUTE = Route.async()
+            .id("book-service")
+            .uri("http://localhost:8082")
+            .predicate(exchange -> true)
+            .build();
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheGatewayFilterFactory factory;
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+    private String cacheControl;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        factory = new ResponseCacheGatewayFilterFactory(new ResponseCacheStore(meterRegistry, 1 << 20, 1024));
+    }
+
+    // umesto servisa - svaki poziv vraca novu verziju tela
+    private final GatewayFilterChain downstream = exchange -> {
+        int version = downstreamCalls.incrementAndGet();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setETag("\"v" + version + "\"");
+        if (cacheControl != null) {
+            response.getHeaders().setCacheControl(cacheControl);
+        }
+        byte[] body = ("{\"version\":" + version + "}").getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    };
+
+    private MockServerWebExchange get(String path, String... headers) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private MockServerWebExchange run(GatewayFilter filter, MockServerWebExchange exchange) {
+        filter.filter(exchange, downstream).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private static ResponseCacheGatewayFilterFactory.Config config(Duration ttl, Duration stale) {
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setTtl(ttl);
+        config.setStaleWhileRevalidate(stale);
+        return config;
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void freshEntry_isServedWithoutCallingService() {
+        GatewayFilter filter = factory.apply(config(Duration.ofMinutes(1), Duration.ZERO));
+
+        MockServerWebExchange first = run(filter, get("/api/books/1"));
+        MockServerWebExchange second = run(filter, get("/api/books/1"));
+
+        assertThat(downstreamCalls).hasValue(1);
+        assertThat(first.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(body(second)).isEqualTo("{\"version\":1}");
+        assertThat(meterRegistry.get("gateway.cache.requests").tag("route", "book-service").tag("result", "hit")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("gateway.cache.memory").tag("route", "book-service").gauge().value())
+                .isPositive();
+    }
+
+    @Test
+    void keyIncludesQueryAndVaryHeaders() {
+        GatewayFilter filter = factory.apply(config(Duration.ofMinutes(1), Duration.ZERO));
+
+        run(filter, get("/api/books/search?title=a&author=b"));
+        run(filter, get("/api/books/search?author=b&title=a"));
+        run(filter, get("/api/books/search?title=a&author=b", HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        assertThat(downstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void noStoreFromService_isNotCached() {
+        cacheControl = "no-store";
+        GatewayFilter filter = factory.apply(config(Duration.ofMinutes(1), Duration.ZERO));
+
+        run(filter, get("/api/books/1"));
+        run(filter, get("/api/books/1"));
+
+        assertThat(downstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void staleEntry_isServedWhileOneRequestRevalidates() {
+        // odmah zastareo, ali upotrebljiv jos minut
+        GatewayFilter filter = factory.apply(config(Duration.ZERO, Duration.ofMinutes(1)));
+
+        run(filter, get("/api/books/1"));
+        MockServerWebExchange stale = run(filter, get("/api/books/1"));
+        MockServerWebExchange refreshed = run(filter, get("/api/books/1"));
+
+        assertThat(stale.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("STALE");
+        assertThat(body(stale)).isEqualTo("{\"version\":1}");
+        assertThat(body(refreshed)).isEqualTo("{\"version\":2}");
+        // originalni poziv i jedna revalidacija po zastarelom pogotku
+        assertThat(downstreamCalls).hasValue(3);
+    }
+
+    @Test
+    void matchingIfNoneMatch_returnsNotModifiedFromCache() {
+        GatewayFilter filter = factory.apply(config(Duration.ofMinutes(1), Duration.ZERO));
+        run(filter, get("/api/reviews/book/1"));
+
+        MockServerWebExchange conditional = run(filter, get("/api/reviews/book/1", HttpHeaders.IF_NONE_MATCH, "\"v1\""));
+
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(downstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void cacheControl_overridesRouteDefaults() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("public, max-age=5, stale-while-revalidate=10");
+        assertThat(CachePolicy.freshness(HttpStatus.OK, headers, Duration.ofMinutes(1), Duration.ZERO))
+                .isEqualTo(new CachePolicy.Freshness(Duration.ofSeconds(5), Duration.ofSeconds(10)));
+
+        headers.setCacheControl("private, max-age=60");
+        assertThat(CachePolicy.freshness(HttpStatus.OK, headers, Duration.ofMinutes(1), Duration.ZERO)).isNull();
+        assertThat(CachePolicy.freshness(HttpStatus.NOT_FOUND, new HttpHeaders(), Duration.ofMinutes(1),
+                Duration.ZERO)).isNull();
+    }
+}
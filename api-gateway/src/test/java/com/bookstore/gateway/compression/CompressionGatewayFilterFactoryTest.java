@@ -0,0 +1,225 @@
+package com.bookstore.gateway.compression;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+class CompressionGatewayFilterFactoryTest {
+
+    private static final String[] WORDS = {"knjiga", "autor", "roman", "prica", "grad", "reka", "noc", "more",
+            "pesma", "vreme", "ljubav", "rat", "mir", "put", "zima", "leto", "svetlo", "senka", "kuca", "prozor"};
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CompressionGatewayFilterFactory factory = new CompressionGatewayFilterFactory(meterRegistry);
+
+    private GatewayFilter filter(String minSize, int level) {
+        CompressionGatewayFilterFactory.Config config = new CompressionGatewayFilterFactory.Config();
+        config.setRouteId("book-service");
+        config.setMinSize(DataSize.parse(minSize));
+        config.setLevel(level);
+        return factory.apply(config);
+    }
+
+    /**
+     * Lista knjiga kao iz GET /api/books - opisi od nasumicnih reci, da odnos kompresije ne bude nerealno dobar.
+     */
+    private static byte[] bookListJson(int targetBytes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 1; json.length() < targetBytes; id++) {
+            StringBuilder description = new StringBuilder();
+            int words = 40 + random.nextInt(100);
+            for (int i = 0; i < words; i++) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (id > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(id)
+                    .append(",\"title\":\"Naslov ").append(random.nextInt(100_000))
+                    .append("\",\"author\":\"Autor ").append(random.nextInt(1_000))
+                    .append("\",\"isbn\":\"978").append(1_000_000_000L + random.nextInt(1_000_000_000))
+                    .append("\",\"price\":").append(random.nextInt(5_000)).append(".99")
+                    .append(",\"stock\":").append(random.nextInt(500))
+                    .append(",\"description\":\"").append(description.toString().trim()).append("\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/books");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    /**
+     * Odgovor servisa u delovima od 8KB, bez Content-Length (chunked).
+     */
+    private static Mono<Void> respond(MockServerWebExchange original, GatewayFilter filter, byte[] body,
+                                      String contentEncoding) {
+        return filter.filter(original, exchange -> Mono.defer(() -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            if (contentEncoding != null) {
+                response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+            }
+            List<DataBuffer> chunks = new ArrayList<>();
+            for (int offset = 0; offset < body.length; offset += 8192) {
+                chunks.add(response.bufferFactory().wrap(
+                        Arrays.copyOfRange(body, offset, Math.min(body.length, offset + 8192))));
+            }
+            return response.writeWith(Flux.fromIterable(chunks));
+        }));
+    }
+
+    private static byte[] written(MockServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .block(Duration.ofSeconds(1));
+    }
+
+    private static byte[] decode(InputStream stream) throws IOException {
+        try (stream) {
+            return stream.readAllBytes();
+        }
+    }
+
+    @Test
+    void negotiate_picksSupportedCodingWithHighestQuality() {
+        assertThat(CompressionGatewayFilterFactory.negotiate("gzip, deflate, br")).isEqualTo("gzip");
+        assertThat(CompressionGatewayFilterFactory.negotiate("deflate, gzip;q=0.5")).isEqualTo("deflate");
+        assertThat(CompressionGatewayFilterFactory.negotiate("br, *;q=0.1")).isEqualTo("gzip");
+        assertThat(CompressionGatewayFilterFactory.negotiate("gzip;q=0, deflate;q=0")).isNull();
+        assertThat(CompressionGatewayFilterFactory.negotiate("br")).isNull();
+        assertThat(CompressionGatewayFilterFactory.negotiate(null)).isNull();
+    }
+
+    @Test
+    void largeResponse_isGzippedInChunks() throws IOException {
+        byte[] body = bookListJson(64 * 1024, 1);
+        MockServerWebExchange exchange = exchange("gzip, deflate");
+
+        respond(exchange, filter("1KB", 6), body, null).block(Duration.ofSeconds(1));
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        byte[] compressed = written(exchange);
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(headers.getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(headers.getContentLength()).isEqualTo(-1);
+        assertThat(compressed.length).isLessThan(body.length / 3);
+        assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(compressed)))).isEqualTo(body);
+        assertThat(meterRegistry.get("gateway.compression.bytes").tag("stage", "in").counter().count())
+                .isEqualTo(body.length);
+    }
+
+    @Test
+    void deflateOnlyClient_getsZlibStream() throws IOException {
+        byte[] body = bookListJson(16 * 1024, 2);
+        MockServerWebExchange exchange = exchange("deflate");
+
+        respond(exchange, filter("1KB", 1), body, null).block(Duration.ofSeconds(1));
+
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("deflate");
+        assertThat(decode(new InflaterInputStream(new ByteArrayInputStream(written(exchange))))).isEqualTo(body);
+    }
+
+    @Test
+    void responseBelowThreshold_isSentAsIs_withExactLength() {
+        byte[] body = "[{\"id\":1,\"title\":\"Na Drini cuprija\"}]".getBytes(StandardCharsets.UTF_8);
+        MockServerWebExchange exchange = exchange("gzip");
+
+        respond(exchange, filter("1KB", 6), body, null).block(Duration.ofSeconds(1));
+
+        assertThat(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(exchange.getResponse().getHeaders().getContentLength()).isEqualTo(body.length);
+        assertThat(written(exchange)).isEqualTo(body);
+        assertThat(meterRegistry.get("gateway.compression.responses").tag("result", "below_threshold").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void alreadyEncodedResponse_andClientWithoutCompression_passThrough() {
+        byte[] body = bookListJson(8 * 1024, 3);
+
+        MockServerWebExchange encoded = exchange("gzip");
+        respond(encoded, filter("1KB", 6), body, "br").block(Duration.ofSeconds(1));
+        MockServerWebExchange plain = exchange(null);
+        respond(plain, filter("1KB", 6), body, null).block(Duration.ofSeconds(1));
+
+        assertThat(encoded.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("br");
+        assertThat(written(encoded)).isEqualTo(body);
+        assertThat(plain.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(plain.getResponse().getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(written(plain)).isEqualTo(body);
+    }
+
+    /**
+     * Bajtovi i CPU po odgovoru za tipicne velicine liste knjiga i nivoe kompresije - osnova za
+     * izbor min-size i level po ruti. Rezultat se loguje, ne proverava. Pokrece se samo sa -Pbenchmark.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmark_bytesVersusCpu() {
+        int[] sizes = {512, 2 * 1024, 16 * 1024, 128 * 1024};
+        int[] levels = {1, 6, 9};
+        for (int size : sizes) {
+            byte[] body = bookListJson(size, size);
+            for (int level : levels) {
+                int iterations = Math.max(20, 4_000_000 / body.length);
+                int compressedLength = 0;
+                long start = 0;
+                for (int i = -iterations; i < iterations; i++) {
+                    if (i == 0) {
+                        // prva polovina je zagrevanje
+                        start = System.nanoTime();
+                    }
+                    ContentEncoder encoder = new ContentEncoder(ContentEncoder.GZIP, level);
+                    try {
+                        compressedLength = encoder.encode(body).length + encoder.finish().length;
+                    } finally {
+                        encoder.release();
+                    }
+                }
+                double micros = (System.nanoTime() - start) / 1000.0 / iterations;
+                log.info("Compression: {} B, level {}: {} B ({}), {} us/response", body.length, level,
+                        compressedLength, String.format("%.2f", (double) compressedLength / body.length),
+                        String.format("%.1f", micros));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookstore.gateway.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdaptiveConcurrencyGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyGatewayFilterFactory factory =
+            new AdaptiveConcurrencyGatewayFilterFactory(meterRegistry);
+
+    @Test
+    void saturatedRoute_shedsReadsWithServiceUnavailable_butAdmitsCheckout() {
+        AdaptiveConcurrencyGatewayFilterFactory.Config routeConfig = new AdaptiveConcurrencyGatewayFilterFactory.Config();
+        routeConfig.setRouteId("order-service");
+        routeConfig.setInitialLimit(5);
+        routeConfig.setMinLimit(1);
+        routeConfig.setReadShare(0.4);
+        GatewayFilter filter = factory.apply(routeConfig);
+        // downstream ne odgovara dok se sink ne zavrsi - zahtevi ostaju u toku
+        Sinks.Empty<Void> downstream = Sinks.empty();
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders/1")),
+                exchange -> downstream.asMono()).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders/2")),
+                exchange -> downstream.asMono()).subscribe();
+        MockServerWebExchange shedRead = MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders/3"));
+        filter.filter(shedRead, exchange -> downstream.asMono()).block(Duration.ofSeconds(1));
+        MockServerWebExchange checkout = MockServerWebExchange.from(MockServerHttpRequest.post("/api/orders"));
+        filter.filter(checkout, exchange -> downstream.asMono()).subscribe();
+
+        assertThat(shedRead.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(shedRead.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(checkout.getResponse().getStatusCode()).isNull();
+        assertThat(meterRegistry.get("gateway.concurrency.inflight").gauge().value()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("gateway.concurrency.requests")
+                .tag("priority", "read").tag("result", "rejected").counter().count()).isEqualTo(1.0);
+
+        downstream.tryEmitEmpty();
+        assertThat(meterRegistry.get("gateway.concurrency.inflight").gauge().value()).isZero();
+        assertThat(meterRegistry.get("gateway.concurrency.limit").gauge().value()).isGreaterThanOrEqualTo(5.0);
+    }
+}
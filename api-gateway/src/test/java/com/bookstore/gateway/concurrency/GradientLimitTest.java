@@ -0,0 +1,109 @@
+package com.bookstore.gateway.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GradientLimitTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Jedna runda pod punim opterecenjem: zauzme ceo limit upisima i sve zavrsi sa datim RTT-om.
+     */
+    private static void saturatedRound(GradientLimit limit, long rttNanos, boolean dropped) {
+        List<Integer> started = new ArrayList<>();
+        int inFlightAtStart;
+        while ((inFlightAtStart = limit.tryAcquire(false)) >= 0) {
+            started.add(inFlightAtStart);
+        }
+        for (int atStart : started) {
+            limit.onSample(rttNanos, atStart, dropped);
+        }
+    }
+
+    @Test
+    void stableLatencyUnderLoad_growsLimitUpToMax() {
+        GradientLimit limit = new GradientLimit(20, 5, 200, 1.0);
+
+        for (int round = 0; round < 50; round++) {
+            saturatedRound(limit, 10 * MS, false);
+        }
+
+        assertThat(limit.limit()).isEqualTo(200);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void risingLatency_shrinksLimit() {
+        GradientLimit limit = new GradientLimit(100, 5, 200, 1.0);
+        for (int round = 0; round < 5; round++) {
+            saturatedRound(limit, 10 * MS, false);
+        }
+        int before = limit.limit();
+
+        // servis je zagusen - RTT je cetiri puta veci
+        for (int round = 0; round < 5; round++) {
+            saturatedRound(limit, 40 * MS, false);
+        }
+
+        assertThat(limit.limit()).isLessThan(before / 2);
+        assertThat(limit.limit()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void errors_backOffMultiplicativelyDownToMin() {
+        GradientLimit limit = new GradientLimit(100, 5, 200, 1.0);
+
+        int inFlightAtStart = limit.tryAcquire(false);
+        limit.onSample(MS, inFlightAtStart, true);
+        assertThat(limit.limit()).isEqualTo(90);
+
+        for (int round = 0; round < 100; round++) {
+            saturatedRound(limit, MS, true);
+        }
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void lightLoad_doesNotGrowLimit() {
+        GradientLimit limit = new GradientLimit(20, 5, 200, 1.0);
+
+        for (int i = 0; i < 1000; i++) {
+            int inFlightAtStart = limit.tryAcquire(true);
+            limit.onSample(5 * MS, inFlightAtStart, false);
+        }
+
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void readsAreShedBeforeWrites() {
+        GradientLimit limit = new GradientLimit(10, 5, 200, 0.6);
+
+        int reads = 0;
+        while (limit.tryAcquire(true) >= 0) {
+            reads++;
+        }
+        int writes = 0;
+        while (limit.tryAcquire(false) >= 0) {
+            writes++;
+        }
+
+        assertThat(reads).isEqualTo(6);
+        assertThat(writes).isEqualTo(4);
+        assertThat(limit.tryAcquire(true)).isEqualTo(-1);
+    }
+
+    @Test
+    void invalidConfiguration_isRejected() {
+        assertThatThrownBy(() -> new GradientLimit(1, 5, 200, 0.8))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GradientLimit(20, 5, 200, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
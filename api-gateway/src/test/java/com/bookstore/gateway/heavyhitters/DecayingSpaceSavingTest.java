@@ -0,0 +1,130 @@
+package com.bookstore.gateway.heavyhitters;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+class DecayingSpaceSavingTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long HALF_LIFE = 60 * SECOND;
+
+    private static DecayingSpaceSaving.Estimate estimate(DecayingSpaceSaving tracker, String key, long now) {
+        return tracker.estimates(now).stream()
+                .filter(estimate -> estimate.key().equals(key))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static List<String> top(DecayingSpaceSaving tracker, int limit, long now) {
+        return tracker.estimates(now).stream()
+                .sorted(DecayingSpaceSaving.Estimate.BY_COUNT)
+                .limit(limit)
+                .map(DecayingSpaceSaving.Estimate::key)
+                .toList();
+    }
+
+    @Test
+    void underCapacity_countsAreExact() {
+        DecayingSpaceSaving tracker = new DecayingSpaceSaving(10, HALF_LIFE, 0);
+
+        for (int i = 0; i < 5; i++) {
+            tracker.offer("GET /api/books/1", 0);
+        }
+        tracker.offer("GET /api/books/2", 0);
+
+        assertThat(estimate(tracker, "GET /api/books/1", 0).count()).isEqualTo(5.0);
+        assertThat(estimate(tracker, "GET /api/books/1", 0).error()).isZero();
+        assertThat(top(tracker, 1, 0)).containsExactly("GET /api/books/1");
+    }
+
+    @Test
+    void heavyKey_survivesFloodOfUniqueKeys() {
+        DecayingSpaceSaving tracker = new DecayingSpaceSaving(16, HALF_LIFE, 0);
+
+        // bot: svaki deseti zahtev, ostalo nasumicne putanje koje se ne ponavljaju
+        for (int i = 0; i < 10_000; i++) {
+            tracker.offer(i % 10 == 0 ? "ip:10.0.0.66" : "ip:192.168." + i, 0);
+        }
+
+        DecayingSpaceSaving.Estimate bot = estimate(tracker, "ip:10.0.0.66", 0);
+        assertThat(top(tracker, 1, 0)).containsExactly("ip:10.0.0.66");
+        assertThat(bot.count() - bot.error()).isLessThanOrEqualTo(1_000);
+        assertThat(bot.count()).isGreaterThanOrEqualTo(1_000);
+        assertThat(tracker.size()).isEqualTo(16);
+    }
+
+    @Test
+    void oldTraffic_decaysAndNewHotKeyOvertakes() {
+        DecayingSpaceSaving tracker = new DecayingSpaceSaving(10, HALF_LIFE, 0);
+        for (int i = 0; i < 1_000; i++) {
+            tracker.offer("GET /api/books/1", 0);
+        }
+
+        assertThat(estimate(tracker, "GET /api/books/1", HALF_LIFE).count()).isCloseTo(500, within(0.001));
+
+        long later = 5 * HALF_LIFE;
+        for (int i = 0; i < 100; i++) {
+            tracker.offer("GET /api/books/7", later);
+        }
+        assertThat(top(tracker, 2, later)).containsExactly("GET /api/books/7", "GET /api/books/1");
+    }
+
+    @Test
+    void rescaling_preservesEstimatesAndOrder() {
+        DecayingSpaceSaving tracker = new DecayingSpaceSaving(10, SECOND, 0);
+        tracker.offer("a", 0);
+        tracker.offer("a", 0);
+        tracker.offer("b", 0);
+
+        // 45 poluzivota - tezina 2^45 prelazi prag i brojaci se skaliraju
+        long now = 45 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            tracker.offer("c", now);
+        }
+        tracker.offer("b", now);
+
+        assertThat(estimate(tracker, "c", now).count()).isCloseTo(3.0, within(1e-9));
+        assertThat(estimate(tracker, "b", now).count()).isCloseTo(1.0, within(1e-9));
+        assertThat(tracker.estimates(now).stream().max(Comparator.comparingDouble(DecayingSpaceSaving.Estimate::count))
+                .orElseThrow().key()).isEqualTo("c");
+    }
+
+    /**
+     * Cena jednog zahteva kroz HeavyHitters (obe dimenzije, sa bravama) pri 10 000 razlicitih
+     * putanja i klijenata; rezultat se loguje, ne proverava. Pokrece se samo sa -Pbenchmark.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmark_nanosPerRequest() {
+        HeavyHitters heavyHitters = new HeavyHitters(1024, Duration.ofSeconds(60), 8);
+        String[] paths = new String[10_000];
+        String[] clients = new String[10_000];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = "GET /api/books/" + (i % 100 == 0 ? 1 : i);
+            clients[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+
+        int iterations = 2_000_000;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                heavyHitters.record(paths[i % paths.length], clients[(i * 7) % clients.length], start + i);
+            }
+            long perRequest = (System.nanoTime() - start) / iterations;
+            if (round == 1) {
+                log.info("Heavy hitters: {} ns/request (2 dimensions, 1024 counters each)", perRequest);
+            }
+        }
+        assertThat(heavyHitters.top(HeavyHitters.Dimension.PATH, 1, System.nanoTime()).get(0).getKey())
+                .isEqualTo("GET /api/books/1");
+    }
+}
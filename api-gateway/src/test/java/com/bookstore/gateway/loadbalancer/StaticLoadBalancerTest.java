@@ -0,0 +1,162 @@
+package com.bookstore.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+class StaticLoadBalancerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StaticLoadBalancer loadBalancer = new StaticLoadBalancer(
+            new MockEnvironment()
+                    .withProperty("services.book-service.instances", "http://book-1:8082, http://book-2:8082")
+                    .withProperty("services.review-service.url", "http://localhost:8084"),
+            meterRegistry, 3, Duration.ofMillis(500), Duration.ofSeconds(10), Duration.ofSeconds(40));
+
+    private ServiceInstance instance(String service, String authority) {
+        for (ServiceInstance instance : loadBalancer.instances(service)) {
+            if (instance.uri().getAuthority().equals(authority)) {
+                return instance;
+            }
+        }
+        throw new AssertionError(authority);
+    }
+
+    @Test
+    void instances_fallBackToSingleServiceUrl() {
+        assertThat(loadBalancer.instances("review-service"))
+                .extracting(ServiceInstance::uri)
+                .containsExactly(URI.create("http://localhost:8084"));
+        assertThatThrownBy(() -> loadBalancer.instances("unknown-service"))
+                .hasMessageContaining("No instances configured");
+    }
+
+    @Test
+    void choose_prefersInstanceWithFewerOutstandingRequests() {
+        ServiceInstance busy = instance("book-service", "book-1:8082");
+        for (int i = 0; i < 10; i++) {
+            busy.acquire();
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(StaticLoadBalancer.choose(loadBalancer.instances("book-service"), 0).uri().getAuthority())
+                    .isEqualTo("book-2:8082");
+        }
+    }
+
+    @Test
+    void choose_spreadsEvenLoadAcrossInstances() {
+        Map<String, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            ServiceInstance chosen = loadBalancer.choose("book-service");
+            picks.merge(chosen.uri().getAuthority(), 1, Integer::sum);
+            // jednaka latencija, zahtevi ostaju u toku - izbor prati broj otvorenih
+        }
+
+        assertThat(picks.get("book-1:8082")).isBetween(450, 550);
+        assertThat(picks.get("book-2:8082")).isBetween(450, 550);
+    }
+
+    @Test
+    void consecutiveFailures_ejectWithGrowingBackoff_andInstanceReturns() {
+        ServiceInstance failing = instance("book-service", "book-1:8082");
+        ServiceInstance[] instances = loadBalancer.instances("book-service");
+        long now = 0;
+
+        for (int i = 0; i < 3; i++) {
+            failing.acquire();
+            loadBalancer.release(failing, 5 * MS, false, now);
+        }
+        assertThat(failing.isAvailable(now)).isFalse();
+        for (int i = 0; i < 100; i++) {
+            assertThat(StaticLoadBalancer.choose(instances, now)).isNotSameAs(failing);
+        }
+
+        // po isteku prvog izbacivanja (10s) vraca se, a sledece izbacivanje traje 20s
+        now += 10_000 * MS;
+        assertThat(failing.isAvailable(now)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            failing.acquire();
+            loadBalancer.release(failing, 5 * MS, false, now);
+        }
+        assertThat(failing.isAvailable(now + 19_000 * MS)).isFalse();
+        assertThat(failing.isAvailable(now + 20_000 * MS)).isTrue();
+        assertThat(meterRegistry.get("gateway.lb.ejections").tag("instance", "book-1:8082").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void slowResponses_countAsFailures_andSuccessResetsStreak() {
+        ServiceInstance slow = instance("book-service", "book-2:8082");
+
+        slow.acquire();
+        loadBalancer.release(slow, 800 * MS, true, 0);
+        slow.acquire();
+        loadBalancer.release(slow, 800 * MS, true, 0);
+        slow.acquire();
+        loadBalancer.release(slow, 20 * MS, true, 0);
+        slow.acquire();
+        loadBalancer.release(slow, 800 * MS, true, 0);
+        assertThat(slow.isAvailable(0)).isTrue();
+
+        slow.acquire();
+        loadBalancer.release(slow, 800 * MS, true, 0);
+        slow.acquire();
+        loadBalancer.release(slow, 800 * MS, true, 0);
+        assertThat(slow.isAvailable(0)).isFalse();
+    }
+
+    @Test
+    void allInstancesEjected_stillRoutesInsteadOfFailing() {
+        for (ServiceInstance instance : loadBalancer.instances("book-service")) {
+            for (int i = 0; i < 3; i++) {
+                instance.acquire();
+                loadBalancer.release(instance, MS, false, 0);
+            }
+        }
+
+        assertThat(StaticLoadBalancer.choose(loadBalancer.instances("book-service"), 1)).isNotNull();
+    }
+
+    @Test
+    void filter_rewritesLbUrlAndTracksResponse() {
+        LoadBalancerFilter filter = new LoadBalancerFilter(loadBalancer);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/1"));
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR,
+                URI.create("lb://book-service/api/books/1?fields=title%2Cauthor"));
+        GatewayFilterChain chain = routed -> {
+            URI target = routed.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+            assertThat(target.getScheme()).isEqualTo("http");
+            assertThat(target.getAuthority()).isIn("book-1:8082", "book-2:8082");
+            assertThat(target.getRawPath()).isEqualTo("/api/books/1");
+            assertThat(target.getRawQuery()).isEqualTo("fields=title%2Cauthor");
+            assertThat(meterRegistry.get("gateway.lb.inflight").tag("instance", target.getAuthority())
+                    .gauge().value()).isEqualTo(1.0);
+            routed.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+            return Mono.empty();
+        };
+
+        filter.filter(exchange, chain).block(Duration.ofSeconds(1));
+
+        assertThat(meterRegistry.get("gateway.lb.inflight").gauges())
+                .allSatisfy(gauge -> assertThat(gauge.value()).isZero());
+        assertThat(meterRegistry.get("gateway.lb.latency").timers().stream().mapToLong(t -> t.count()).sum())
+                .isEqualTo(1);
+    }
+}
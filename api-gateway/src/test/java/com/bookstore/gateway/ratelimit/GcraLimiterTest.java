@@ -0,0 +1,164 @@
+package com.bookstore.gateway.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+class GcraLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int ITERATIONS = 2_000_000;
+
+    @Test
+    void burstPassesThenRequestsAreSpacedByRate() {
+        // 10 u sekundi, najvise 5 odjednom
+        GcraLimiter limiter = new GcraLimiter(10, 5, 100);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("client", now)).isZero();
+        }
+        long wait = limiter.tryAcquire("client", now);
+        assertThat(wait).isEqualTo(SECOND / 10);
+
+        // posle cekanja prolazi tacno jedan
+        assertThat(limiter.tryAcquire("client", now + wait)).isZero();
+        assertThat(limiter.tryAcquire("client", now + wait)).isPositive();
+        // drugi klijent ima svoju kofu
+        assertThat(limiter.tryAcquire("other", now)).isZero();
+    }
+
+    @Test
+    void idleKeysAreSweptWithoutChangingBehaviour() {
+        GcraLimiter limiter = new GcraLimiter(10, 2, 100);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+
+        assertThat(limiter.sweep(now)).isZero();
+        assertThat(limiter.sweep(now + SECOND)).isEqualTo(2);
+        assertThat(limiter.size()).isZero();
+        assertThat(limiter.tryAcquire("a", now + SECOND)).isZero();
+    }
+
+    @Test
+    void keysBeyondLimitShareOverflowBucket() {
+        GcraLimiter limiter = new GcraLimiter(1, 1, 2);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+
+        assertThat(limiter.tryAcquire("c", now)).isZero();
+        assertThat(limiter.tryAcquire("d", now)).isPositive();
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentAcquiresNeverExceedBurst() throws Exception {
+        GcraLimiter limiter = new GcraLimiter(1, 1000, 10);
+        long now = System.nanoTime();
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiter.tryAcquire("hot", now) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(allowed).hasValue(1000);
+    }
+
+    @Test
+    void oneGroupCannotFillTheMap() {
+        GcraLimiter limiter = new GcraLimiter(1, 1, 10, 3);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("ip:10.0.0." + i, "net:10.0.0.0/24", now)).isZero();
+        }
+
+        // nove adrese iste mreze dele jednu kofu mreze
+        assertThat(limiter.tryAcquire("ip:10.0.0.100", "net:10.0.0.0/24", now)).isZero();
+        assertThat(limiter.tryAcquire("ip:10.0.0.101", "net:10.0.0.0/24", now)).isPositive();
+        // klijent iz druge mreze i dalje dobija svoju kofu
+        assertThat(limiter.tryAcquire("ip:10.9.9.9", "net:10.9.9.0/24", now)).isZero();
+        assertThat(limiter.size()).isEqualTo(5);
+
+        // izbacene kofe oslobadjaju mesto u grupi
+        assertThat(limiter.sweep(now + 10 * SECOND)).isEqualTo(5);
+        assertThat(limiter.tryAcquire("ip:10.0.0.101", "net:10.0.0.0/24", now + 10 * SECOND)).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    /**
+     * Grubo merenje cene jedne provere (lookup + CAS) preko 10 000 klijenata, u jednoj i u
+     * vise niti; rezultat se loguje, ne proverava. Pokrece se samo sa -Pbenchmark.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmark_nanosPerAcquire() throws Exception {
+        GcraLimiter limiter = new GcraLimiter(1_000_000, 1_000, 100_000);
+        String[] keys = new String[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+
+        // zagrevanje JIT-a pre merenja
+        run(limiter, keys, ITERATIONS);
+        long singleThread = run(limiter, keys, ITERATIONS);
+
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> run(limiter, keys, ITERATIONS / threads)));
+            }
+            for (Future<Long> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        double requestsPerSecond = ITERATIONS * 1e9 / elapsed;
+
+        log.info("GCRA limiter: {} ns/acquire (1 thread), {} acquires/s ({} threads)",
+                singleThread, Math.round(requestsPerSecond), threads);
+    }
+
+    private static long run(GcraLimiter limiter, String[] keys, int iterations) {
+        long start = System.nanoTime();
+        long rejected = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (limiter.tryAcquire(keys[i % keys.length], System.nanoTime()) > 0) {
+                rejected++;
+            }
+        }
+        long nanos = (System.nanoTime() - start) / iterations;
+        // koriscenje rezultata sprecava JIT da izbaci petlju
+        return rejected >= 0 ? nanos : -1;
+    }
+}
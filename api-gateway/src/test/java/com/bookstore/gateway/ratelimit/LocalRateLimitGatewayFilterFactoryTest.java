@@ -0,0 +1,90 @@
+package com.bookstore.gateway.ratelimit;
+
+import com.bookstore.gateway.support.ClientKeyResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LocalRateLimitGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalRateLimitGatewayFilterFactory factory =
+            new LocalRateLimitGatewayFilterFactory(new ClientKeyResolver(0), meterRegistry, 1000, 256);
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.incrementAndGet();
+        return Mono.empty();
+    };
+
+    private MockServerWebExchange request(String clientAddress) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders")
+                .remoteAddress(new InetSocketAddress(clientAddress, 40_000)));
+    }
+
+    @Test
+    void clientOverItsRate_getsTooManyRequestsWithRetryAfter() {
+        LocalRateLimitGatewayFilterFactory.Config config = new LocalRateLimitGatewayFilterFactory.Config();
+        config.setRouteId("order-service");
+        config.setClientRate(0.5);
+        config.setClientBurst(2);
+        GatewayFilter filter = factory.apply(config);
+
+        filter.filter(request("10.0.0.1"), chain).block(Duration.ofSeconds(1));
+        filter.filter(request("10.0.0.1"), chain).block(Duration.ofSeconds(1));
+        MockServerWebExchange rejected = request("10.0.0.1");
+        filter.filter(rejected, chain).block(Duration.ofSeconds(1));
+        filter.filter(request("10.0.0.2"), chain).block(Duration.ofSeconds(1));
+
+        assertThat(forwarded).hasValue(3);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(meterRegistry.get("gateway.ratelimit.requests").tag("result", "rejected_client")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void clientIdHeader_doesNotBypassClientLimit() {
+        LocalRateLimitGatewayFilterFactory.Config config = new LocalRateLimitGatewayFilterFactory.Config();
+        config.setRouteId("order-service");
+        config.setClientRate(0.5);
+        config.setClientBurst(1);
+        GatewayFilter filter = factory.apply(config);
+
+        for (int i = 0; i < 3; i++) {
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/orders")
+                    .remoteAddress(new InetSocketAddress("10.0.0.1", 40_000))
+                    .header("X-Client-Id", "rotated-" + i)
+                    .header("X-Forwarded-For", "192.0.2." + i)), chain).block(Duration.ofSeconds(1));
+        }
+
+        assertThat(forwarded).hasValue(1);
+    }
+
+    @Test
+    void routeLimit_appliesAcrossClients() {
+        LocalRateLimitGatewayFilterFactory.Config config = new LocalRateLimitGatewayFilterFactory.Config();
+        config.setRouteId("order-service");
+        config.setRouteRate(1);
+        config.setRouteBurst(1);
+        GatewayFilter filter = factory.apply(config);
+
+        filter.filter(request("10.0.0.1"), chain).block(Duration.ofSeconds(1));
+        MockServerWebExchange rejected = request("10.0.0.2");
+        filter.filter(rejected, chain).block(Duration.ofSeconds(1));
+
+        assertThat(forwarded).hasValue(1);
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+}
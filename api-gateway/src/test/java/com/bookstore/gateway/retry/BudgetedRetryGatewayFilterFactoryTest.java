@@ -0,0 +1,117 @@
+package com.bookstore.gateway.retry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BudgetedRetryGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BudgetedRetryGatewayFilterFactory factory = new BudgetedRetryGatewayFilterFactory(meterRegistry);
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    private GatewayFilter filter(int budgetCapacity, double budgetRatio) {
+        BudgetedRetryGatewayFilterFactory.Config config = new BudgetedRetryGatewayFilterFactory.Config();
+        config.setRouteId("book-service");
+        config.setBackoff(Duration.ofMillis(1), Duration.ofMillis(5), 2, false);
+        config.setBudgetCapacity(budgetCapacity);
+        config.setBudgetRatio(budgetRatio);
+        return factory.apply(config);
+    }
+
+    /**
+     * Downstream koji vraca 503 za prvih failures pokusaja, pa 200. Kao pravi lanac filtera,
+     * posao radi tek pri pretplati, jer se ponavljanje ponovo pretplacuje na isti Mono.
+     */
+    private GatewayFilterChain failingFirst(int failures) {
+        return exchange -> Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(
+                attempts.incrementAndGet() <= failures ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK));
+    }
+
+    private double retried() {
+        return meterRegistry.get("gateway.retry.requests").tag("result", "retried").counter().count();
+    }
+
+    @Test
+    void get_isRetriedOnServiceUnavailable() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/1"));
+
+        filter(20, 0.2).filter(exchange, failingFirst(2)).block(Duration.ofSeconds(1));
+
+        assertThat(attempts).hasValue(3);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retried()).isEqualTo(2.0);
+    }
+
+    @Test
+    void retries_areBoundedPerRequest() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/1"));
+
+        filter(20, 0.2).filter(exchange, failingFirst(10)).block(Duration.ofSeconds(1));
+
+        assertThat(attempts).hasValue(3);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void post_isNeverRetried() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/books"));
+
+        filter(20, 0.2).filter(exchange, failingFirst(1)).block(Duration.ofSeconds(1));
+
+        assertThat(attempts).hasValue(1);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void exhaustedBudget_stopsRetrying() {
+        GatewayFilter filter = filter(1, 0);
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/1")), failingFirst(10))
+                .block(Duration.ofSeconds(1));
+        attempts.set(0);
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/1")), failingFirst(10))
+                .block(Duration.ofSeconds(1));
+
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.get("gateway.retry.requests").tag("result", "budget_exhausted").counter().count())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("gateway.retry.budget").gauge().value()).isZero();
+    }
+
+    @Test
+    void connectionFailure_isRetried_butResponseTimeoutIsNot() {
+        GatewayFilter filter = filter(20, 0.2);
+        GatewayFilterChain refusedOnce = exchange -> Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.error(new ConnectException("Connection refused"))
+                : Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(HttpStatus.OK)));
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/1")), refusedOnce)
+                .block(Duration.ofSeconds(1));
+        assertThat(attempts).hasValue(2);
+
+        attempts.set(0);
+        GatewayFilterChain timingOut = exchange -> Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Response took longer than timeout",
+                    new TimeoutException()));
+        });
+        assertThatThrownBy(() -> filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/api/books/1")),
+                timingOut).block(Duration.ofSeconds(1)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(attempts).hasValue(1);
+    }
+}
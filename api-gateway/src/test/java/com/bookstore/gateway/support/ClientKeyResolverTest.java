@@ -0,0 +1,53 @@
+package com.bookstore.gateway.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ClientKeyResolverTest {
+
+    private static MockServerWebExchange exchange(String remote, String forwardedFor) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/books")
+                .remoteAddress(new InetSocketAddress(remote, 40_000))
+                .header("X-Client-Id", "chosen-by-client");
+        if (forwardedFor != null) {
+            request.header("X-Forwarded-For", forwardedFor);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    @Test
+    void withoutTrustedProxies_usesConnectionAddressOnly() {
+        ClientKeyResolver resolver = new ClientKeyResolver(0);
+
+        ClientKeyResolver.ClientKey key = resolver.resolveKey(exchange("10.1.2.3", "198.51.100.7"));
+
+        assertThat(key.key()).isEqualTo("ip:10.1.2.3");
+        assertThat(key.network()).isEqualTo("net:10.1.2.0/24");
+    }
+
+    @Test
+    void trustedProxy_forwardedForIsReadOnlyUpToTrustedHop() {
+        ClientKeyResolver resolver = new ClientKeyResolver(1);
+
+        // klijent je podmetnuo prvu adresu; load balancer je dopisao stvarnu
+        assertThat(resolver.resolve(exchange("10.0.0.5", "203.0.113.9, 198.51.100.7"))).isEqualTo("ip:198.51.100.7");
+        assertThat(resolver.resolve(exchange("10.0.0.5", null))).isEqualTo("ip:10.0.0.5");
+    }
+
+    @Test
+    void ipv6_isKeyedBySlash64() {
+        ClientKeyResolver resolver = new ClientKeyResolver(1);
+
+        ClientKeyResolver.ClientKey first = resolver.resolveKey(exchange("10.0.0.5", "2001:db8:1:2::1"));
+        ClientKeyResolver.ClientKey rotated = resolver.resolveKey(exchange("10.0.0.5", "2001:db8:1:2:ffff::9"));
+
+        assertThat(rotated).isEqualTo(first);
+        assertThat(first.key()).isEqualTo("ip:2001:db8:1:2:0:0:0:0/64");
+        assertThat(first.network()).isEqualTo("net:2001:db8:1:0:0:0:0:0/48");
+    }
+}
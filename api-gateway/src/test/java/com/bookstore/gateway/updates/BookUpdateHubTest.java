@@ -0,0 +1,186 @@
+package com.bookstore.gateway.updates;
+
+import com.bookstore.gateway.dto.BookUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+class BookUpdateHubTest {
+
+    private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookUpdateHub hub = new BookUpdateHub(meterRegistry, 3, 5, Duration.ofHours(1), Duration.ofSeconds(5),
+            TOMBSTONE_TTL);
+
+    private static BookUpdate update(long bookId, long version, String price, int stock) {
+        return BookUpdate.builder()
+                .bookId(bookId)
+                .version(version)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .build();
+    }
+
+    /**
+     * Klijent koji sam odredjuje koliko dogadjaja prihvata - kao spora konekcija.
+     */
+    private static final class Client extends BaseSubscriber<ServerSentEvent<BookUpdate>> {
+
+        private final long initialDemand;
+        private final List<BookUpdate> received = new CopyOnWriteArrayList<>();
+
+        private Client(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            if (initialDemand > 0) {
+                request(initialDemand);
+            }
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<BookUpdate> event) {
+            if (event.data() != null) {
+                received.add(event.data());
+            }
+        }
+    }
+
+    private Client subscribe(long demand, Long... bookIds) {
+        Client client = new Client(demand);
+        hub.subscribe(List.of(bookIds)).orElseThrow().subscribe(client);
+        return client;
+    }
+
+    @Test
+    void newSubscriber_receivesKnownStateThenChangesOfItsBooksOnly() {
+        hub.publish(update(1, 1, "10.00", 5));
+
+        Client client = subscribe(Long.MAX_VALUE, 1L, 2L);
+        hub.publish(update(2, 1, "20.00", 3));
+        hub.publish(update(3, 1, "30.00", 1));
+
+        assertThat(client.received).extracting(BookUpdate::getBookId, BookUpdate::getStock)
+                .containsExactly(tuple(1L, 5), tuple(2L, 3));
+    }
+
+    @Test
+    void slowSubscriber_getsOnlyLatestStatePerBook() {
+        // preuzima samo uvodni komentar, zatim zastaje
+        Client client = subscribe(1, 1L, 2L);
+
+        for (int version = 1; version <= 100; version++) {
+            hub.publish(update(1, version, "10.00", 1000 - version));
+        }
+        hub.publish(update(2, 1, "20.00", 7));
+        assertThat(client.received).isEmpty();
+
+        client.request(10);
+
+        // prvu izmenu je tok vec preuzeo (prefetch 1), ostale su spojene u poslednju
+        assertThat(client.received).extracting(BookUpdate::getBookId, BookUpdate::getVersion)
+                .containsExactlyInAnyOrder(tuple(1L, 1L), tuple(1L, 100L), tuple(2L, 1L));
+        assertThat(meterRegistry.get("gateway.book.updates.deliveries").tag("result", "coalesced").counter().count())
+                .isEqualTo(98.0);
+    }
+
+    @Test
+    void staleDuplicateAndTitleOnlyChanges_areNotSent() {
+        Client client = subscribe(Long.MAX_VALUE, 1L);
+
+        hub.publish(update(1, 2, "10.00", 5));
+        hub.publish(update(1, 2, "10.00", 5));
+        hub.publish(update(1, 1, "9.00", 6));
+        // nova verzija, iste zalihe i cena (npr. izmenjen naslov)
+        hub.publish(update(1, 3, "10.0", 5));
+        hub.publish(update(1, 4, "10.00", 4));
+
+        assertThat(client.received).extracting(BookUpdate::getVersion).containsExactly(2L, 4L);
+        assertThat(meterRegistry.get("gateway.book.updates.events").tag("result", "ignored").counter().count())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void cancelledSubscriber_isRemoved_andLimitsAreEnforced() {
+        Client first = subscribe(Long.MAX_VALUE, 1L);
+        subscribe(Long.MAX_VALUE, 1L);
+        subscribe(Long.MAX_VALUE, 2L);
+
+        assertThat(hub.subscriberCount()).isEqualTo(3);
+        assertThat(hub.subscribe(List.of(1L))).isEmpty();
+
+        first.dispose();
+        hub.publish(update(1, 1, "10.00", 5));
+
+        assertThat(hub.subscriberCount()).isEqualTo(2);
+        assertThat(first.received).isEmpty();
+        assertThat(hub.subscribe(List.of(1L))).isPresent();
+        assertThatThrownBy(() -> hub.subscribe(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hub.subscribe(List.of(1L, 2L, 3L, 4L, 5L, 6L)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deletedBook_isForgottenAfterTombstoneTtl() {
+        hub.publish(update(1, 1, "10.00", 5));
+        hub.publish(update(2, 1, "20.00", 3));
+        hub.publish(BookUpdate.builder().bookId(1L).version(2L).deleted(true).build());
+        // zakasnela starija izmena ne vraca obrisanu knjigu
+        hub.publish(update(1, 1, "10.00", 4));
+
+        assertThat(hub.sweep(System.nanoTime())).isZero();
+        assertThat(meterRegistry.get("gateway.book.updates.books").gauge().value()).isEqualTo(2.0);
+
+        assertThat(hub.sweep(System.nanoTime() + TOMBSTONE_TTL.toNanos())).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.book.updates.books").gauge().value()).isEqualTo(1.0);
+        Client client = subscribe(Long.MAX_VALUE, 1L, 2L);
+        assertThat(client.received).extracting(BookUpdate::getBookId).containsExactly(2L);
+    }
+
+    /**
+     * Cena razvodjenja jedne izmene na 20 000 pretplatnika iste knjige (bez mreze);
+     * rezultat se loguje, ne proverava. Pokrece se samo sa -Pbenchmark.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmark_fanOutToManySubscribers() {
+        int subscribers = 20_000;
+        BookUpdateHub bigHub = new BookUpdateHub(new SimpleMeterRegistry(), subscribers, 100, Duration.ofHours(1),
+                Duration.ofSeconds(5), TOMBSTONE_TTL);
+        List<Client> clients = new ArrayList<>(subscribers);
+        for (int i = 0; i < subscribers; i++) {
+            Client client = new Client(Long.MAX_VALUE);
+            bigHub.subscribe(List.of(1L, 2L + i % 50)).orElseThrow().subscribe(client);
+            clients.add(client);
+        }
+
+        int events = 50;
+        long start = System.nanoTime();
+        for (int version = 1; version <= events; version++) {
+            bigHub.publish(update(1, version, "10.00", 1000 - version));
+        }
+        long perDelivery = (System.nanoTime() - start) / ((long) events * subscribers);
+        log.info("Book updates fan-out: {} ns/delivery ({} subscribers)", perDelivery, subscribers);
+
+        assertThat(clients).allSatisfy(client -> assertThat(client.received).hasSize(events));
+        clients.forEach(Client::dispose);
+        assertThat(bigHub.subscriberCount()).isZero();
+    }
+}
@@ -0,0 +1,44 @@
+package com.bookstore.book.config;
+
+import com.bookstore.events.codec.EventMessageConverters;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Date;
+
+@Configuration
+public class RabbitMQConfig {
+
+    public static final String EXCHANGE = "bookstore.exchange";
+    public static final String BOOK_CHANGED_ROUTING_KEY = "book.changed";
+
+    @Bean
+    public TopicExchange bookstoreExchange() {
+        return new TopicExchange(EXCHANGE);
+    }
+
+    /**
+     * Cita JSON i CBOR poruke prema content-type zaglavlju; salje u formatu iz konfiguracije.
+     */
+    @Bean
+    public MessageConverter messageConverter(@Value("${bookstore.messaging.wire-format:json}") String wireFormat) {
+        return EventMessageConverters.create(wireFormat);
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(messageConverter);
+        // vremenska oznaka objave - consumer-i iz nje racunaju starost dogadjaja (kasnjenje reda)
+        template.setBeforePublishPostProcessors(message -> {
+            message.getMessageProperties().setTimestamp(new Date());
+            return message;
+        });
+        return template;
+    }
+}
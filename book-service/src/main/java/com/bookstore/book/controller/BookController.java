@@ -2,6 +2,7 @@ package com.bookstore.book.controller;
 
 import com.bookstore.book.dto.BookRequest;
 import com.bookstore.book.dto.BookResponse;
+import com.bookstore.book.dto.BookSuggestion;
 import com.bookstore.book.service.BookService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -27,15 +29,23 @@ public class BookController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id, WebRequest webRequest) {
         log.info("GET /api/books/{}", id);
-        return ResponseEntity.ok(bookService.getBookById(id));
+        String etag = bookService.getBookEtag(id);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(bookService.getBookById(id));
     }
 
     @GetMapping
-    public ResponseEntity<List<BookResponse>> getAllBooks() {
+    public ResponseEntity<List<BookResponse>> getAllBooks(WebRequest webRequest) {
         log.info("GET /api/books");
-        return ResponseEntity.ok(bookService.getAllBooks());
+        String etag = bookService.getCatalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(bookService.getAllBooks());
     }
 
     // Reaktivna pretraga koristeći RxJava
@@ -47,6 +57,27 @@ public class BookController {
         return ResponseEntity.ok(bookService.searchBooks(title, author));
     }
 
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<BookSuggestion>> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.debug("GET /api/books/autocomplete - q={}", q);
+        return ResponseEntity.ok(bookService.autocomplete(q, limit));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<BookResponse> updateBook(@PathVariable Long id, @Valid @RequestBody BookRequest request) {
+        log.info("PUT /api/books/{}", id);
+        return ResponseEntity.ok(bookService.updateBook(id, request));
+    }
+
+    // Poziva order-service pri kreiranju porudzbine (quantity < 0 smanjuje zalihe)
+    @PatchMapping("/{id}/stock")
+    public ResponseEntity<BookResponse> updateStock(@PathVariable Long id, @RequestParam int quantity) {
+        log.info("PATCH /api/books/{}/stock - quantity={}", id, quantity);
+        return ResponseEntity.ok(bookService.updateStock(id, quantity));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         log.info("DELETE /api/books/{}", id);
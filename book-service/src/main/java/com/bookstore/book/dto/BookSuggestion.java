@@ -0,0 +1,12 @@
+package com.bookstore.book.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BookSuggestion {
+    private Long id;
+    private String title;
+    private String author;
+}
@@ -0,0 +1,36 @@
+package com.bookstore.book.events;
+
+import com.bookstore.book.model.Book;
+import com.bookstore.book.model.BookOutboxEntry;
+import com.bookstore.book.repository.BookOutboxRepository;
+import com.bookstore.events.BookChangedEvent.ChangeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Belezi izmenu knjige u outbox tabelu. Mora se pozvati unutar transakcije koja menja knjigu,
+ * da bi se zapis i izmena upisali (ili ponistili) zajedno.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookChangeOutbox {
+
+    private final BookOutboxRepository outboxRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Book book, ChangeType type) {
+        // brisanje nema novi red u tabeli knjiga, pa verziju povecavamo sami
+        long version = type == ChangeType.DELETED ? book.getVersion() + 1 : book.getVersion();
+        outboxRepository.save(BookOutboxEntry.builder()
+                .bookId(book.getId())
+                .version(version)
+                .type(type)
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .price(book.getPrice())
+                .stock(book.getStock())
+                .build());
+    }
+}
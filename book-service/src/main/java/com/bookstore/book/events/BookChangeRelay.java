@@ -0,0 +1,104 @@
+package com.bookstore.book.events;
+
+import com.bookstore.book.config.RabbitMQConfig;
+import com.bookstore.book.model.BookOutboxEntry;
+import com.bookstore.book.repository.BookOutboxRepository;
+import com.bookstore.events.BookChangedEvent;
+import com.bookstore.events.BookChangedEvent.ChangeType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Objavljuje BookChangedEvent-e iz outbox tabele.
+ *
+ * Na svakih window-ms preuzima zapise, spaja ih po knjizi (poslednje stanje, najveca verzija)
+ * i objavljuje jedan dogadjaj po knjizi - knjiga koja se menja stotinama puta u sekundi daje
+ * najvise jedan dogadjaj po prozoru. Zapisi se brisu tek kada broker potvrdi prijem
+ * (publisher confirms); ako objava ne uspe, transakcija se ponistava i paket se ponavlja.
+ */
+@Component
+@Slf4j
+public class BookChangeRelay {
+
+    private final BookOutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+    private final Counter published;
+    private final Counter coalesced;
+
+    public BookChangeRelay(BookOutboxRepository outboxRepository,
+                           RabbitTemplate rabbitTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${bookstore.book-events.batch-size:1000}") int batchSize,
+                           @Value("${bookstore.book-events.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.published = Counter.builder("book.events.published").register(meterRegistry);
+        this.coalesced = Counter.builder("book.events.coalesced").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.book-events.window-ms:1000}")
+    @Transactional
+    public void relay() {
+        List<BookOutboxEntry> entries = outboxRepository.lockBatch(batchSize);
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<BookChangedEvent> events = coalesce(entries);
+
+        rabbitTemplate.invoke(operations -> {
+            for (BookChangedEvent event : events) {
+                operations.convertAndSend(RabbitMQConfig.EXCHANGE, RabbitMQConfig.BOOK_CHANGED_ROUTING_KEY, event);
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+        outboxRepository.deleteAllInBatch(entries);
+
+        published.increment(events.size());
+        coalesced.increment(entries.size() - events.size());
+        log.debug("Published {} book change events from {} outbox entries", events.size(), entries.size());
+    }
+
+    /**
+     * Spaja zapise po knjizi; ulaz je u redosledu upisa.
+     */
+    static List<BookChangedEvent> coalesce(List<BookOutboxEntry> entries) {
+        Map<Long, BookChangedEvent> latest = new LinkedHashMap<>();
+        for (BookOutboxEntry entry : entries) {
+            BookChangedEvent previous = latest.get(entry.getBookId());
+            if (previous != null && previous.getVersion() > entry.getVersion()) {
+                continue;
+            }
+            ChangeType type = entry.getType();
+            // kreirana i menjana u istom prozoru - za consumer-a je i dalje nova knjiga
+            if (previous != null && previous.getType() == ChangeType.CREATED && type == ChangeType.UPDATED) {
+                type = ChangeType.CREATED;
+            }
+            latest.put(entry.getBookId(), BookChangedEvent.builder()
+                    .bookId(entry.getBookId())
+                    .version(entry.getVersion())
+                    .type(type)
+                    .title(entry.getTitle())
+                    .author(entry.getAuthor())
+                    .price(entry.getPrice())
+                    .stock(entry.getStock())
+                    .build());
+        }
+        return new ArrayList<>(latest.values());
+    }
+}
@@ -0,0 +1,35 @@
+package com.bookstore.book.isbn;
+
+import java.util.Locale;
+
+/**
+ * Kljuc jedinstvenosti ISBN-a - isti za Bloom filter i za unique indeks u bazi.
+ */
+public final class Isbn {
+
+    private Isbn() {
+    }
+
+    /**
+     * Svodi ISBN-10 i ISBN-13 zapis (sa ili bez crtica) na isti ISBN-13 kljuc; null za prazan ISBN.
+     */
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        String compact = isbn.replaceAll("[^0-9Xx]", "").toUpperCase(Locale.ROOT);
+        if (compact.isEmpty()) {
+            return null;
+        }
+        if (compact.length() != 10) {
+            return compact;
+        }
+        String body = "978" + compact.substring(0, 9);
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            int digit = body.charAt(i) - '0';
+            sum += i % 2 == 0 ? digit : digit * 3;
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,105 @@
+package com.bookstore.book.isbn;
+
+import com.bookstore.book.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bloom filter ispred provere jedinstvenosti ISBN-a.
+ *
+ * Negativan odgovor je siguran, pa createBook tada preskace upit ka bazi; samo moguci
+ * pogoci idu na existsByIsbnKey. Brisanja se ne mogu ukloniti iz filtera, zato se on
+ * periodicno gradi iznova iz baze. Dok filter nije ucitan, svaka provera ide u bazu.
+ */
+@Component
+@Slf4j
+public class IsbnFilter {
+
+    private final BookRepository bookRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private final Counter negatives;
+    private final Counter possiblePositives;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+
+    public IsbnFilter(BookRepository bookRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${bookstore.isbn-filter.expected-insertions:1000000}") long expectedInsertions,
+                      @Value("${bookstore.isbn-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.bookRepository = bookRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.negatives = Counter.builder("book.isbn.filter.checks").tag("result", "negative").register(meterRegistry);
+        this.possiblePositives = Counter.builder("book.isbn.filter.checks").tag("result", "possible").register(meterRegistry);
+        this.falsePositives = Counter.builder("book.isbn.filter.false.positives").register(meterRegistry);
+        Gauge.builder("book.isbn.filter.size.bytes", this, f -> f.filter != null ? f.filter.sizeInBytes() : 0)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("book.isbn.filter.fpp.expected", this, f -> f.filter != null ? f.filter.expectedFalsePositiveRate() : 1.0)
+                .register(meterRegistry);
+        Gauge.builder("book.isbn.filter.fpp.target", () -> falsePositiveRate).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${bookstore.isbn-filter.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${bookstore.isbn-filter.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        // novi upisi tokom ucitavanja idu i u filter koji se gradi, pa se nista ne gubi pri zameni
+        BloomFilter fresh = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        rebuilding = fresh;
+        List<String> isbns = bookRepository.findAllIsbns();
+        isbns.forEach(isbn -> fresh.put(normalize(isbn)));
+        filter = fresh;
+        rebuilding = null;
+        log.info("ISBN Bloom filter rebuilt: {} entries, {} KB, expected fpp {}",
+                isbns.size(), fresh.sizeInBytes() / 1024, String.format(Locale.ROOT, "%.5f", fresh.expectedFalsePositiveRate()));
+    }
+
+    /**
+     * false - ISBN sigurno ne postoji; true - mozda postoji, treba proveriti u bazi.
+     */
+    public boolean mightExist(String isbn) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+        boolean possible = current.mightContain(normalize(isbn));
+        (possible ? possiblePositives : negatives).increment();
+        return possible;
+    }
+
+    public void add(String isbn) {
+        String normalized = normalize(isbn);
+        BloomFilter current = filter;
+        BloomFilter next = rebuilding;
+        if (current != null) {
+            current.put(normalized);
+        }
+        if (next != null) {
+            next.put(normalized);
+        }
+    }
+
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    static String normalize(String isbn) {
+        return Isbn.normalize(isbn);
+    }
+}
@@ -0,0 +1,44 @@
+package com.bookstore.book.isbn;
+
+import com.bookstore.book.model.Book;
+import com.bookstore.book.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Popunjava isbnKey za knjige upisane pre uvodjenja normalizovanog kljuca.
+ *
+ * Svaka knjiga se cuva zasebno; ako dve postojece knjige imaju isti ISBN u razlicitom zapisu,
+ * druga ostaje bez kljuca i to se loguje - duplikat treba resiti rucno.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IsbnKeyBackfill {
+
+    private final BookRepository bookRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Book> books = bookRepository.findByIsbnKeyIsNullAndIsbnIsNotNull();
+        int updated = 0;
+        for (Book book : books) {
+            book.setIsbnKey(Isbn.normalize(book.getIsbn()));
+            try {
+                bookRepository.save(book);
+                updated++;
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Book {} has a duplicate ISBN {}, isbnKey left empty", book.getId(), book.getIsbn());
+            }
+        }
+        if (!books.isEmpty()) {
+            log.info("ISBN keys backfilled: {} of {} books", updated, books.size());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bookstore.book.model;
 
+import com.bookstore.book.isbn.Isbn;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +9,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -32,9 +34,13 @@ public class Book {
     @Column(nullable = false)
     private String author;
 
-    @Column(unique = true)
+    // ISBN kako je unet; jedinstvenost se proverava nad normalizovanim kljucem
     private String isbn;
 
+    // ISBN-13 bez crtica (Isbn.normalize) - ISBN-10 i ISBN-13 zapis iste knjige daju isti kljuc
+    @Column(unique = true)
+    private String isbnKey;
+
     @NotNull
     @Column(nullable = false)
     private BigDecimal price;
@@ -45,7 +51,26 @@ public class Book {
 
     private String description;
 
+    // Ukupno prodatih primeraka - mera popularnosti za autocomplete rangiranje
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long soldCount = 0L;
+
     @Builder.Default
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Optimistic lock verzija - raste pri svakoj izmeni, koristi se i kao ETag
+    @Version
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version = 0L;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeIsbn() {
+        isbnKey = Isbn.normalize(isbn);
+    }
 }
@@ -0,0 +1,50 @@
+package com.bookstore.book.model;
+
+import com.bookstore.events.BookChangedEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Transakcioni outbox - izmena knjige i zapis o njoj se upisuju u istoj transakciji,
+ * a BookChangeRelay ih kasnije objavljuje na RabbitMQ.
+ */
+@Entity
+@Table(name = "book_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookChangedEvent.ChangeType type;
+
+    private String title;
+
+    private String author;
+
+    private BigDecimal price;
+
+    private Integer stock;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
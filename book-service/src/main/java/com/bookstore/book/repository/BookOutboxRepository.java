@@ -0,0 +1,16 @@
+package com.bookstore.book.repository;
+
+import com.bookstore.book.model.BookOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookOutboxRepository extends JpaRepository<BookOutboxEntry, Long> {
+
+    // SKIP LOCKED - vise instanci servisa preuzima disjunktne pakete bez cekanja jedna na drugu
+    @Query(value = "SELECT * FROM book_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<BookOutboxEntry> lockBatch(int limit);
+}
@@ -2,13 +2,36 @@ package com.bookstore.book.repository;
 
 import com.bookstore.book.model.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
     List<Book> findByTitleContainingIgnoreCase(String title);
     List<Book> findByAuthorContainingIgnoreCase(String author);
-    boolean existsByIsbn(String isbn);
+    boolean existsByIsbnKey(String isbnKey);
+
+    List<Book> findByIsbnKeyIsNullAndIsbnIsNotNull();
+
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IS NOT NULL")
+    List<String> findAllIsbns();
+
+    /**
+     * Atomska izmena zaliha - jedan UPDATE bez citanja entiteta, pa istovremene porudzbine iste
+     * knjige ne padaju na optimistickom zakljucavanju. Vraca 0 ako knjiga ne postoji ili zaliha nije dovoljna.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.stock = b.stock + :quantity, b.soldCount = b.soldCount + :sold, b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.stock + :quantity >= 0")
+    int adjustStock(Long id, int quantity, long sold);
+
+    @Query("SELECT b.version FROM Book b WHERE b.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("SELECT COUNT(b) AS total, COALESCE(MAX(b.id), 0) AS maxId, COALESCE(SUM(b.version), 0) AS versionSum FROM Book b")
+    CatalogVersion findCatalogVersion();
 }
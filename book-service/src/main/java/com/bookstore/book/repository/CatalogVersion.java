@@ -0,0 +1,11 @@
+package com.bookstore.book.repository;
+
+/**
+ * Projekcija agregata nad tabelom books - dovoljna da se otkrije bilo koja
+ * izmena kataloga (insert, update, delete) bez citanja samih redova.
+ */
+public interface CatalogVersion {
+    Long getTotal();
+    Long getMaxId();
+    Long getVersionSum();
+}
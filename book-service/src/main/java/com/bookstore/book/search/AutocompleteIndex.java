@@ -0,0 +1,322 @@
+package com.bookstore.book.search;
+
+import com.bookstore.book.dto.BookSuggestion;
+import com.bookstore.book.model.Book;
+import com.bookstore.book.repository.BookRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Prefiksno stablo (trie) nad normalizovanim naslovima i autorima za typeahead pretragu.
+ *
+ * Svaki cvor cuva unapred izracunatih top-K knjiga (po popularnosti) iz svog podstabla,
+ * pa upit ne pretrazuje stablo vec samo prati prefiks i cita gotov niz.
+ * Citanje je bez zakljucavanja (nizovi se zamenjuju atomicno), izmene su serijalizovane.
+ * Memorija je ogranicena maksimalnom dubinom i maksimalnim brojem cvorova; cvorovi koji posle
+ * brisanja ili izmene naslova ostanu bez knjiga se uklanjaju, pa broj cvorova prati sadrzaj.
+ */
+@Component
+@Slf4j
+public class AutocompleteIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final long[] NO_IDS = new long[0];
+
+    private final BookRepository bookRepository;
+    private final int topK;
+    private final int maxPrefixLength;
+    private final int maxNodes;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Comparator<Entry> ranking = Comparator.comparingLong(Entry::popularity).reversed()
+            .thenComparing(Entry::title)
+            .thenComparingLong(Entry::id);
+
+    private volatile Node root = new Node(null, '\0');
+    private int nodeCount = 1;
+
+    public AutocompleteIndex(BookRepository bookRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${bookstore.autocomplete.top-k:10}") int topK,
+                             @Value("${bookstore.autocomplete.max-prefix-length:20}") int maxPrefixLength,
+                             @Value("${bookstore.autocomplete.max-nodes:500000}") int maxNodes) {
+        this.bookRepository = bookRepository;
+        this.topK = topK;
+        this.maxPrefixLength = maxPrefixLength;
+        this.maxNodes = maxNodes;
+        Gauge.builder("book.autocomplete.nodes", this, AutocompleteIndex::nodeCount).register(meterRegistry);
+        Gauge.builder("book.autocomplete.entries", entries, Map::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Book> books = bookRepository.findAll();
+        synchronized (this) {
+            entries.clear();
+            root = new Node(null, '\0');
+            nodeCount = 1;
+            books.forEach(this::insert);
+        }
+        log.info("Autocomplete index built: {} books, {} nodes", books.size(), nodeCount());
+    }
+
+    /**
+     * Dodaje knjigu ili osvezava njene kljuceve i popularnost.
+     */
+    public synchronized void index(Book book) {
+        delete(book.getId());
+        insert(book);
+    }
+
+    public synchronized void remove(Long bookId) {
+        delete(bookId);
+    }
+
+    public List<BookSuggestion> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Node node = root;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            Node child = node.child(prefix.charAt(depth));
+            if (child == null) {
+                break;
+            }
+            node = child;
+            depth++;
+        }
+
+        // Ceo prefiks nije u stablu (ogranicena dubina ili broj cvorova) - filtriramo kandidate najdubljeg cvora
+        boolean exact = depth == prefix.length();
+
+        List<BookSuggestion> result = new ArrayList<>(Math.min(limit, topK));
+        for (long id : node.top) {
+            Entry entry = entries.get(id);
+            if (entry != null && (exact || entry.matches(prefix))) {
+                result.add(BookSuggestion.builder()
+                        .id(entry.id())
+                        .title(entry.title())
+                        .author(entry.author())
+                        .build());
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public synchronized int nodeCount() {
+        return nodeCount;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT).replace("đ", "dj"), Normalizer.Form.NFD);
+        String stripped = MARKS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(stripped).replaceAll(" ").trim();
+    }
+
+    // --- izmene, pozivaju se samo pod zakljucavanjem ---
+
+    private void insert(Book book) {
+        Set<String> keys = keysOf(book);
+        Entry entry = new Entry(book.getId(), book.getTitle(), book.getAuthor(),
+                book.getSoldCount() != null ? book.getSoldCount() : 0L, keys.toArray(String[]::new), new ArrayList<>());
+        entries.put(entry.id(), entry);
+
+        for (String key : keys) {
+            Node node = root;
+            for (int i = 0; i < key.length() && i < maxPrefixLength; i++) {
+                Node child = node.child(key.charAt(i));
+                if (child == null) {
+                    if (nodeCount >= maxNodes) {
+                        break;
+                    }
+                    child = node.addChild(key.charAt(i));
+                    nodeCount++;
+                }
+                node = child;
+            }
+            if (!entry.terminals().contains(node)) {
+                node.terminals = append(node.terminals, entry.id());
+                entry.terminals().add(node);
+            }
+        }
+        entry.terminals().forEach(this::recomputeToRoot);
+    }
+
+    private void delete(Long bookId) {
+        Entry entry = entries.remove(bookId);
+        if (entry == null) {
+            return;
+        }
+        for (Node node : entry.terminals()) {
+            node.terminals = without(node.terminals, entry.id());
+            recomputeToRoot(prune(node));
+        }
+    }
+
+    /**
+     * Uklanja cvor bez knjiga i dece, pa redom pretke koji tako ostanu prazni;
+     * vraca najdublji preostali cvor.
+     */
+    private Node prune(Node node) {
+        Node current = node;
+        while (current.parent != null && current.terminals.length == 0 && current.children.nodes.length == 0) {
+            current.parent.removeChild(current.label);
+            nodeCount--;
+            current = current.parent;
+        }
+        return current;
+    }
+
+    private void recomputeToRoot(Node node) {
+        for (Node current = node; current != null; current = current.parent) {
+            current.top = best(current);
+        }
+    }
+
+    private long[] best(Node node) {
+        Set<Long> seen = new HashSet<>();
+        List<Entry> candidates = new ArrayList<>();
+        for (long id : node.terminals) {
+            collect(id, seen, candidates);
+        }
+        for (Node child : node.children.nodes) {
+            for (long id : child.top) {
+                collect(id, seen, candidates);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return NO_IDS;
+        }
+        candidates.sort(ranking);
+        return candidates.stream()
+                .limit(topK)
+                .mapToLong(Entry::id)
+                .toArray();
+    }
+
+    private void collect(long id, Set<Long> seen, List<Entry> candidates) {
+        if (seen.add(id)) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                candidates.add(entry);
+            }
+        }
+    }
+
+    private Set<String> keysOf(Book book) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String field : new String[]{book.getTitle(), book.getAuthor()}) {
+            String normalized = normalize(field);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            // svaka rec je pocetak kljuca, da bi "code" pronasao "Clean Code"
+            int start = 0;
+            while (start >= 0) {
+                String key = normalized.substring(start);
+                keys.add(key);
+                int space = normalized.indexOf(' ', start);
+                start = space < 0 ? -1 : space + 1;
+            }
+        }
+        return keys;
+    }
+
+    private static long[] append(long[] ids, long id) {
+        long[] copy = Arrays.copyOf(ids, ids.length + 1);
+        copy[ids.length] = id;
+        return copy;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        return Arrays.stream(ids).filter(existing -> existing != id).toArray();
+    }
+
+    private record Entry(long id, String title, String author, long popularity, String[] keys, List<Node> terminals) {
+
+        boolean matches(String prefix) {
+            for (String key : keys) {
+                if (key.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Node {
+
+        private static final Children NONE = new Children(new char[0], new Node[0]);
+
+        private final Node parent;
+        private final char label;
+        private volatile Children children = NONE;
+        private volatile long[] top = NO_IDS;
+        private long[] terminals = NO_IDS;
+
+        private Node(Node parent, char label) {
+            this.parent = parent;
+            this.label = label;
+        }
+
+        Node child(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            return index >= 0 ? current.nodes[index] : null;
+        }
+
+        Node addChild(char label) {
+            Children current = children;
+            int insertAt = -(Arrays.binarySearch(current.labels, label) + 1);
+            char[] labels = new char[current.labels.length + 1];
+            Node[] nodes = new Node[current.nodes.length + 1];
+            System.arraycopy(current.labels, 0, labels, 0, insertAt);
+            System.arraycopy(current.nodes, 0, nodes, 0, insertAt);
+            System.arraycopy(current.labels, insertAt, labels, insertAt + 1, current.labels.length - insertAt);
+            System.arraycopy(current.nodes, insertAt, nodes, insertAt + 1, current.nodes.length - insertAt);
+            Node child = new Node(this, label);
+            labels[insertAt] = label;
+            nodes[insertAt] = child;
+            children = new Children(labels, nodes);
+            return child;
+        }
+
+        void removeChild(char label) {
+            Children current = children;
+            int index = Arrays.binarySearch(current.labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] labels = new char[current.labels.length - 1];
+            Node[] nodes = new Node[current.nodes.length - 1];
+            System.arraycopy(current.labels, 0, labels, 0, index);
+            System.arraycopy(current.nodes, 0, nodes, 0, index);
+            System.arraycopy(current.labels, index + 1, labels, index, labels.length - index);
+            System.arraycopy(current.nodes, index + 1, nodes, index, nodes.length - index);
+            children = labels.length == 0 ? NONE : new Children(labels, nodes);
+        }
+    }
+
+    private record Children(char[] labels, Node[] nodes) {
+    }
+}
@@ -2,13 +2,24 @@ package com.bookstore.book.service;
 
 import com.bookstore.book.dto.BookRequest;
 import com.bookstore.book.dto.BookResponse;
+import com.bookstore.book.dto.BookSuggestion;
+import com.bookstore.book.events.BookChangeOutbox;
+import com.bookstore.book.isbn.Isbn;
+import com.bookstore.book.isbn.IsbnFilter;
 import com.bookstore.book.model.Book;
 import com.bookstore.book.repository.BookRepository;
+import com.bookstore.book.repository.CatalogVersion;
+import com.bookstore.book.search.AutocompleteIndex;
+import com.bookstore.events.BookChangedEvent.ChangeType;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -18,28 +29,83 @@ import java.util.List;
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final AutocompleteIndex autocompleteIndex;
+    private final IsbnFilter isbnFilter;
+    private final BookChangeOutbox bookChangeOutbox;
 
+    @Transactional
     public BookResponse createBook(BookRequest request) {
         log.info("Creating book: {}", request.getTitle());
 
-        if (request.getIsbn() != null && bookRepository.existsByIsbn(request.getIsbn())) {
-            throw new IllegalArgumentException("ISBN already exists: " + request.getIsbn());
+        // Bloom filter odgovara na sigurne negativne bez upita; baza se pita samo za moguce duplikate
+        String isbnKey = Isbn.normalize(request.getIsbn());
+        if (isbnKey != null && isbnFilter.mightExist(request.getIsbn())) {
+            if (bookRepository.existsByIsbnKey(isbnKey)) {
+                throw new IllegalArgumentException("ISBN already exists: " + request.getIsbn());
+            }
+            isbnFilter.recordFalsePositive();
         }
 
         Book book = Book.builder()
                 .title(request.getTitle())
                 .author(request.getAuthor())
                 .isbn(request.getIsbn())
+                .isbnKey(isbnKey)
                 .price(request.getPrice())
                 .stock(request.getStock())
                 .description(request.getDescription())
                 .build();
 
-        Book saved = bookRepository.save(book);
+        Book saved;
+        try {
+            saved = bookRepository.save(book);
+        } catch (DataIntegrityViolationException e) {
+            // filter moze kasniti za drugom instancom - unique ogranicenje je konacna provera
+            throw new IllegalArgumentException("ISBN already exists: " + request.getIsbn());
+        }
+        if (saved.getIsbn() != null) {
+            isbnFilter.add(saved.getIsbn());
+        }
+        afterCommit(() -> autocompleteIndex.index(saved));
+        bookChangeOutbox.record(saved, ChangeType.CREATED);
         log.info("Book created with id: {}", saved.getId());
         return toResponse(saved);
     }
 
+    @Transactional
+    public BookResponse updateBook(Long id, BookRequest request) {
+        log.info("Updating book with id: {}", id);
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Book not found with id: " + id));
+
+        String isbnKey = Isbn.normalize(request.getIsbn());
+        boolean isbnChanged = isbnKey != null && !isbnKey.equals(Isbn.normalize(book.getIsbn()));
+        if (isbnChanged && bookRepository.existsByIsbnKey(isbnKey)) {
+            throw new IllegalArgumentException("ISBN already exists: " + request.getIsbn());
+        }
+
+        book.setTitle(request.getTitle());
+        book.setAuthor(request.getAuthor());
+        book.setIsbn(request.getIsbn());
+        book.setPrice(request.getPrice());
+        book.setStock(request.getStock());
+        book.setDescription(request.getDescription());
+
+        Book saved;
+        try {
+            // flush odmah povecava verziju, koja ide i u dogadjaj
+            saved = bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("ISBN already exists: " + request.getIsbn());
+        }
+        if (isbnChanged) {
+            isbnFilter.add(saved.getIsbn());
+        }
+        afterCommit(() -> autocompleteIndex.index(saved));
+        bookChangeOutbox.record(saved, ChangeType.UPDATED);
+        return toResponse(saved);
+    }
+
     public BookResponse getBookById(Long id) {
         log.info("Fetching book with id: {}", id);
         return bookRepository.findById(id)
@@ -54,6 +120,23 @@ public class BookService {
                 .toList();
     }
 
+    /**
+     * ETag knjige izveden iz verzije reda - ne zahteva ucitavanje ni serijalizaciju entiteta.
+     */
+    public String getBookEtag(Long id) {
+        return bookRepository.findVersionById(id)
+                .map(version -> id + "-" + version)
+                .orElseThrow(() -> new IllegalArgumentException("Book not found with id: " + id));
+    }
+
+    /**
+     * ETag celog kataloga - menja se pri svakom dodavanju, izmeni ili brisanju knjige.
+     */
+    public String getCatalogEtag() {
+        CatalogVersion catalog = bookRepository.findCatalogVersion();
+        return "books-" + catalog.getTotal() + "-" + catalog.getMaxId() + "-" + catalog.getVersionSum();
+    }
+
     /**
      * Reaktivna pretraga koristeći RxJava Observable.
      * Demonstrira reaktivnu komunikaciju unutar servisa.
@@ -75,25 +158,58 @@ public class BookService {
                 .blockingFirst();
     }
 
+    /**
+     * Typeahead predlozi iz memorijskog prefiksnog indeksa - bez upita ka bazi.
+     */
+    public List<BookSuggestion> autocomplete(String query, int limit) {
+        return autocompleteIndex.suggest(query, limit);
+    }
+
+    @Transactional
     public BookResponse updateStock(Long id, int quantity) {
         log.info("Updating stock for book id: {}, delta: {}", id, quantity);
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Book not found with id: " + id));
-
-        int newStock = book.getStock() + quantity;
-        if (newStock < 0) {
+        // uslovni UPDATE umesto read-modify-write - provera zalihe i izmena su jedna operacija u bazi
+        if (bookRepository.adjustStock(id, quantity, quantity < 0 ? -(long) quantity : 0L) == 0) {
+            if (!bookRepository.existsById(id)) {
+                throw new IllegalArgumentException("Book not found with id: " + id);
+            }
             throw new IllegalArgumentException("Insufficient stock for book id: " + id);
         }
-        book.setStock(newStock);
-        return toResponse(bookRepository.save(book));
+        // ponovo procitano stanje (nova verzija) ide u outbox, indeks i ETag
+        Book saved = bookRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Book not found with id: " + id));
+        if (quantity < 0) {
+            afterCommit(() -> autocompleteIndex.index(saved));
+        }
+        bookChangeOutbox.record(saved, ChangeType.UPDATED);
+        return toResponse(saved);
     }
 
+    @Transactional
     public void deleteBook(Long id) {
         log.info("Deleting book with id: {}", id);
-        if (!bookRepository.existsById(id)) {
-            throw new IllegalArgumentException("Book not found with id: " + id);
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Book not found with id: " + id));
+        bookRepository.delete(book);
+        afterCommit(() -> autocompleteIndex.remove(id));
+        bookChangeOutbox.record(book, ChangeType.DELETED);
+    }
+
+    /**
+     * Memorijski indeks se menja tek posle commit-a, da ponistena transakcija ne bi ostavila
+     * indeks ispred baze. Van transakcije (npr. testovi) akcija se izvrsava odmah.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
         }
-        bookRepository.deleteById(id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private BookResponse toResponse(Book book) {
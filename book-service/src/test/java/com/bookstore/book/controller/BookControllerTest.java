@@ -2,6 +2,8 @@ package com.bookstore.book.controller;
 
 import com.bookstore.book.dto.BookRequest;
 import com.bookstore.book.dto.BookResponse;
+import com.bookstore.book.dto.BookSuggestion;
+import com.bookstore.book.model.Book;
 import com.bookstore.book.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -9,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
@@ -16,6 +19,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -77,17 +81,43 @@ class BookControllerTest {
 
     @Test
     void getBookById_returns200() throws Exception {
+        when(bookService.getBookEtag(1L)).thenReturn("1-0");
         when(bookService.getBookById(1L)).thenReturn(buildResponse());
 
         mockMvc.perform(get("/api/books/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.title").value("Clean Code"));
     }
 
+    @Test
+    void getBookById_matchingEtag_returns304() throws Exception {
+        when(bookService.getBookEtag(1L)).thenReturn("1-0");
+
+        mockMvc.perform(get("/api/books/1").header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // telo odgovora se ne gradi kada se ETag poklapa
+        verify(bookService, never()).getBookById(any());
+    }
+
+    @Test
+    void updateBook_concurrentModification_returns409() throws Exception {
+        when(bookService.updateBook(eq(1L), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+
+        mockMvc.perform(put("/api/books/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildRequest())))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
     @Test
     void getBookById_notFound_returns400() throws Exception {
-        when(bookService.getBookById(99L))
+        when(bookService.getBookEtag(99L))
                 .thenThrow(new IllegalArgumentException("Book not found with id: 99"));
 
         mockMvc.perform(get("/api/books/99"))
@@ -97,13 +127,25 @@ class BookControllerTest {
 
     @Test
     void getAllBooks_returns200() throws Exception {
+        when(bookService.getCatalogEtag()).thenReturn("books-2-2-0");
         when(bookService.getAllBooks()).thenReturn(List.of(buildResponse(), buildResponse()));
 
         mockMvc.perform(get("/api/books"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"books-2-2-0\""))
                 .andExpect(jsonPath("$.length()").value(2));
     }
 
+    @Test
+    void getAllBooks_matchingEtag_returns304() throws Exception {
+        when(bookService.getCatalogEtag()).thenReturn("books-2-2-0");
+
+        mockMvc.perform(get("/api/books").header("If-None-Match", "\"books-2-2-0\""))
+                .andExpect(status().isNotModified());
+
+        verify(bookService, never()).getAllBooks();
+    }
+
     @Test
     void searchBooks_byTitle_returns200() throws Exception {
         when(bookService.searchBooks("Clean", null)).thenReturn(List.of(buildResponse()));
@@ -114,6 +156,46 @@ class BookControllerTest {
                 .andExpect(jsonPath("$[0].title").value("Clean Code"));
     }
 
+    @Test
+    void autocomplete_returns200() throws Exception {
+        when(bookService.autocomplete("cle", 5)).thenReturn(List.of(
+                BookSuggestion.builder().id(1L).title("Clean Code").author("Robert Martin").build()));
+
+        mockMvc.perform(get("/api/books/autocomplete").param("q", "cle").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Clean Code"));
+    }
+
+    @Test
+    void updateBook_returns200() throws Exception {
+        when(bookService.updateBook(eq(1L), any())).thenReturn(buildResponse());
+
+        mockMvc.perform(put("/api/books/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildRequest())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Clean Code"));
+    }
+
+    @Test
+    void updateStock_returns200() throws Exception {
+        when(bookService.updateStock(1L, -2)).thenReturn(buildResponse());
+
+        mockMvc.perform(patch("/api/books/1/stock").param("quantity", "-2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void updateStock_insufficientStock_returns400() throws Exception {
+        when(bookService.updateStock(1L, -99))
+                .thenThrow(new IllegalArgumentException("Insufficient stock for book id: 1"));
+
+        mockMvc.perform(patch("/api/books/1/stock").param("quantity", "-99"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteBook_returns204() throws Exception {
         doNothing().when(bookService).deleteBook(1L);
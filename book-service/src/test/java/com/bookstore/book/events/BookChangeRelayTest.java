@@ -0,0 +1,106 @@
+package com.bookstore.book.events;
+
+import com.bookstore.book.model.BookOutboxEntry;
+import com.bookstore.book.repository.BookOutboxRepository;
+import com.bookstore.events.BookChangedEvent;
+import com.bookstore.events.BookChangedEvent.ChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookChangeRelayTest {
+
+    @Mock
+    private BookOutboxRepository outboxRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RabbitOperations rabbitOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookChangeRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new BookChangeRelay(outboxRepository, rabbitTemplate, meterRegistry, 1000, 5000);
+    }
+
+    private BookOutboxEntry entry(long bookId, long version, ChangeType type, int stock) {
+        return BookOutboxEntry.builder()
+                .bookId(bookId)
+                .version(version)
+                .type(type)
+                .title("Clean Code")
+                .author("Robert Martin")
+                .price(new BigDecimal("39.99"))
+                .stock(stock)
+                .build();
+    }
+
+    @Test
+    void coalesce_keepsLatestStatePerBook() {
+        List<BookChangedEvent> events = BookChangeRelay.coalesce(List.of(
+                entry(1, 3, ChangeType.UPDATED, 9),
+                entry(2, 0, ChangeType.CREATED, 5),
+                entry(1, 4, ChangeType.UPDATED, 8),
+                entry(2, 1, ChangeType.UPDATED, 4),
+                entry(1, 5, ChangeType.UPDATED, 7)));
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0)).extracting(BookChangedEvent::getBookId, BookChangedEvent::getVersion, BookChangedEvent::getStock)
+                .containsExactly(1L, 5L, 7);
+        // kreirana pa izmenjena u istom prozoru - i dalje nova knjiga
+        assertThat(events.get(1)).extracting(BookChangedEvent::getVersion, BookChangedEvent::getType)
+                .containsExactly(1L, ChangeType.CREATED);
+    }
+
+    @Test
+    void coalesce_deleteWins() {
+        List<BookChangedEvent> events = BookChangeRelay.coalesce(List.of(
+                entry(1, 3, ChangeType.UPDATED, 9),
+                entry(1, 4, ChangeType.DELETED, 9)));
+
+        assertThat(events).singleElement().extracting(BookChangedEvent::getType).isEqualTo(ChangeType.DELETED);
+    }
+
+    @Test
+    void relay_publishesAndDeletesAfterConfirm() {
+        List<BookOutboxEntry> entries = List.of(entry(1, 3, ChangeType.UPDATED, 9), entry(1, 4, ChangeType.UPDATED, 8));
+        when(outboxRepository.lockBatch(1000)).thenReturn(entries);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitOperations));
+
+        relay.relay();
+
+        verify(rabbitOperations, times(1)).convertAndSend(eq("bookstore.exchange"), eq("book.changed"), any(BookChangedEvent.class));
+        verify(rabbitOperations).waitForConfirmsOrDie(5000);
+        verify(outboxRepository).deleteAllInBatch(entries);
+        assertThat(meterRegistry.counter("book.events.coalesced").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void relay_keepsEntriesWhenPublishFails() {
+        when(outboxRepository.lockBatch(1000)).thenReturn(List.of(entry(1, 3, ChangeType.UPDATED, 9)));
+        when(rabbitTemplate.invoke(any())).thenThrow(new AmqpException("nack"));
+
+        assertThatThrownBy(() -> relay.relay()).isInstanceOf(AmqpException.class);
+        verify(outboxRepository, never()).deleteAllInBatch(any());
+    }
+}
@@ -0,0 +1,64 @@
+package com.bookstore.book.isbn;
+
+import com.bookstore.book.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IsbnFilterTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IsbnFilter isbnFilter = new IsbnFilter(bookRepository, meterRegistry, 10_000, 0.01);
+
+    @Test
+    void normalize_mapsIsbn10AndIsbn13ToSameKey() {
+        assertThat(IsbnFilter.normalize("0-13-235088-2")).isEqualTo("9780132350884");
+        assertThat(IsbnFilter.normalize("978-0132350884")).isEqualTo("9780132350884");
+        assertThat(IsbnFilter.normalize("978 0 13 235088 4")).isEqualTo("9780132350884");
+    }
+
+    @Test
+    void mightExist_beforeLoad_fallsThroughToDatabase() {
+        assertThat(isbnFilter.mightExist("978-0132350884")).isTrue();
+    }
+
+    @Test
+    void rebuild_loadsExistingIsbns() {
+        when(bookRepository.findAllIsbns()).thenReturn(List.of("978-0132350884"));
+
+        isbnFilter.rebuild();
+
+        assertThat(isbnFilter.mightExist("0132350882")).isTrue();
+        assertThat(isbnFilter.mightExist("978-1617294945")).isFalse();
+        assertThat(meterRegistry.get("book.isbn.filter.size.bytes").gauge().value()).isPositive();
+    }
+
+    @Test
+    void add_makesIsbnVisibleWithoutRebuild() {
+        when(bookRepository.findAllIsbns()).thenReturn(List.of());
+        isbnFilter.rebuild();
+
+        isbnFilter.add("978-1617294945");
+
+        assertThat(isbnFilter.mightExist("9781617294945")).isTrue();
+    }
+
+    @Test
+    void falsePositiveRate_staysNearConfiguredTarget() {
+        when(bookRepository.findAllIsbns()).thenReturn(
+                IntStream.range(0, 10_000).mapToObj(i -> "978" + String.format("%010d", i)).toList());
+        isbnFilter.rebuild();
+
+        long falsePositives = IntStream.range(10_000, 60_000)
+                .filter(i -> isbnFilter.mightExist("978" + String.format("%010d", i)))
+                .count();
+
+        assertThat(falsePositives / 50_000.0).isLessThan(0.02);
+    }
+}
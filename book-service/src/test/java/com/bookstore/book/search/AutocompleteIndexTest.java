@@ -0,0 +1,135 @@
+package com.bookstore.book.search;
+
+import com.bookstore.book.dto.BookSuggestion;
+import com.bookstore.book.model.Book;
+import com.bookstore.book.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AutocompleteIndexTest {
+
+    private final BookRepository bookRepository = mock(BookRepository.class);
+
+    private AutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AutocompleteIndex(bookRepository, new SimpleMeterRegistry(), 3, 20, 10_000);
+    }
+
+    private Book book(long id, String title, String author, long sold) {
+        return Book.builder()
+                .id(id)
+                .title(title)
+                .author(author)
+                .price(BigDecimal.TEN)
+                .soldCount(sold)
+                .build();
+    }
+
+    private List<Long> ids(List<BookSuggestion> suggestions) {
+        return suggestions.stream().map(BookSuggestion::getId).toList();
+    }
+
+    @Test
+    void suggest_matchesTitleAuthorAndInnerWords() {
+        index.index(book(1, "Clean Code", "Robert Martin", 0));
+
+        assertThat(ids(index.suggest("cle", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("code", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("mart", 10))).containsExactly(1L);
+        assertThat(index.suggest("java", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_normalizesCaseAndDiacritics() {
+        index.index(book(1, "Na Drini ćuprija", "Ivo Andrić", 0));
+        index.index(book(2, "Derviš i smrt", "Meša Selimović", 0));
+
+        assertThat(ids(index.suggest("CUPR", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("andric", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("mesa sel", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void suggest_ranksByPopularityAndKeepsTopK() {
+        index.index(book(1, "Java Basics", "A", 5));
+        index.index(book(2, "Java Concurrency", "B", 50));
+        index.index(book(3, "Java Streams", "C", 20));
+        index.index(book(4, "Java Modules", "D", 1));
+
+        assertThat(ids(index.suggest("java", 10))).containsExactly(2L, 3L, 1L);
+        assertThat(ids(index.suggest("ja", 2))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void index_updatedPopularityReordersSuggestions() {
+        index.index(book(1, "Java Basics", "A", 5));
+        index.index(book(2, "Java Concurrency", "B", 10));
+
+        index.index(book(1, "Java Basics", "A", 100));
+
+        assertThat(ids(index.suggest("java", 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void remove_promotesNextCandidate() {
+        index.index(book(1, "Java Basics", "A", 5));
+        index.index(book(2, "Java Concurrency", "B", 50));
+        index.index(book(3, "Java Streams", "C", 20));
+        index.index(book(4, "Java Modules", "D", 1));
+
+        index.remove(2L);
+
+        assertThat(ids(index.suggest("java", 10))).containsExactly(3L, 1L, 4L);
+    }
+
+    @Test
+    void removeAndRetitle_pruneNodesSoCappedIndexRecovers() {
+        AutocompleteIndex capped = new AutocompleteIndex(bookRepository, new SimpleMeterRegistry(), 3, 20, 42);
+        capped.index(book(1, "Programming Pearls", "Bentley", 0));
+        int baseline = capped.nodeCount();
+        assertThat(baseline).isEqualTo(31);
+
+        capped.index(book(2, "Structure and Interpretation", "Abelson", 0));
+        capped.index(book(2, "SICP", "Abelson", 0));
+        capped.remove(2L);
+        assertThat(capped.nodeCount()).isEqualTo(baseline);
+
+        // oslobodjeni cvorovi su ponovo dostupni - nova knjiga se indeksira do kraja kljuca
+        capped.index(book(3, "Dune", "Herbert", 0));
+        assertThat(capped.nodeCount()).isEqualTo(42);
+        assertThat(ids(capped.suggest("dune", 10))).containsExactly(3L);
+        assertThat(ids(capped.suggest("herbert", 10))).containsExactly(3L);
+        assertThat(ids(capped.suggest("pearls", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void suggest_beyondMaxDepth_filtersDeepestCandidates() {
+        AutocompleteIndex shallow = new AutocompleteIndex(bookRepository, new SimpleMeterRegistry(), 3, 4, 10_000);
+        shallow.index(book(1, "Programming Pearls", "Bentley", 0));
+        shallow.index(book(2, "Programs and Proofs", "Sergey", 0));
+
+        assertThat(ids(shallow.suggest("programming", 10))).containsExactly(1L);
+        assertThat(ids(shallow.suggest("progr", 10))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void rebuild_loadsAllBooksFromRepository() {
+        when(bookRepository.findAll()).thenReturn(List.of(
+                book(1, "Clean Code", "Robert Martin", 0),
+                book(2, "Clean Architecture", "Robert Martin", 3)));
+
+        index.rebuild();
+
+        assertThat(ids(index.suggest("clean", 10))).containsExactly(2L, 1L);
+        assertThat(index.nodeCount()).isGreaterThan(1);
+    }
+}
@@ -2,13 +2,20 @@ package com.bookstore.book.service;
 
 import com.bookstore.book.dto.BookRequest;
 import com.bookstore.book.dto.BookResponse;
+import com.bookstore.book.dto.BookSuggestion;
+import com.bookstore.book.events.BookChangeOutbox;
+import com.bookstore.book.isbn.IsbnFilter;
 import com.bookstore.book.model.Book;
 import com.bookstore.book.repository.BookRepository;
+import com.bookstore.book.repository.CatalogVersion;
+import com.bookstore.book.search.AutocompleteIndex;
+import com.bookstore.events.BookChangedEvent.ChangeType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -25,6 +32,15 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private IsbnFilter isbnFilter;
+
+    @Mock
+    private BookChangeOutbox bookChangeOutbox;
+
     @InjectMocks
     private BookService bookService;
 
@@ -52,7 +68,7 @@ class BookServiceTest {
 
     @Test
     void createBook_success() {
-        when(bookRepository.existsByIsbn("978-0132350884")).thenReturn(false);
+        when(isbnFilter.mightExist("978-0132350884")).thenReturn(false);
         when(bookRepository.save(any(Book.class))).thenReturn(buildBook());
 
         BookResponse response = bookService.createBook(buildRequest());
@@ -60,17 +76,57 @@ class BookServiceTest {
         assertThat(response.getId()).isEqualTo(1L);
         assertThat(response.getTitle()).isEqualTo("Clean Code");
         assertThat(response.getPrice()).isEqualByComparingTo("39.99");
+        // siguran negativan odgovor filtera - nema upita ka bazi
+        verify(bookRepository, never()).existsByIsbnKey(any());
+        verify(isbnFilter).add("978-0132350884");
+        verify(autocompleteIndex).index(any(Book.class));
+        verify(bookChangeOutbox).record(any(Book.class), eq(ChangeType.CREATED));
+    }
+
+    @Test
+    void createBook_possibleDuplicate_checksDatabase() {
+        when(isbnFilter.mightExist("978-0132350884")).thenReturn(true);
+        when(bookRepository.existsByIsbnKey("9780132350884")).thenReturn(false);
+        when(bookRepository.save(any(Book.class))).thenReturn(buildBook());
+
+        bookService.createBook(buildRequest());
+
+        verify(isbnFilter).recordFalsePositive();
+    }
+
+    @Test
+    void createBook_uniqueConstraintViolation_throwsException() {
+        when(isbnFilter.mightExist("978-0132350884")).thenReturn(false);
+        when(bookRepository.save(any(Book.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThatThrownBy(() -> bookService.createBook(buildRequest()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ISBN already exists");
     }
 
     @Test
     void createBook_duplicateIsbn_throwsException() {
-        when(bookRepository.existsByIsbn("978-0132350884")).thenReturn(true);
+        when(isbnFilter.mightExist("978-0132350884")).thenReturn(true);
+        when(bookRepository.existsByIsbnKey("9780132350884")).thenReturn(true);
 
         assertThatThrownBy(() -> bookService.createBook(buildRequest()))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("ISBN already exists");
     }
 
+    @Test
+    void createBook_isbn10SpellingOfExistingBook_throwsException() {
+        BookRequest request = buildRequest();
+        request.setIsbn("0-13-235088-2");
+        when(isbnFilter.mightExist("0-13-235088-2")).thenReturn(true);
+        when(bookRepository.existsByIsbnKey("9780132350884")).thenReturn(true);
+
+        assertThatThrownBy(() -> bookService.createBook(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ISBN already exists");
+        verify(isbnFilter, never()).recordFalsePositive();
+    }
+
     @Test
     void getBookById_success() {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(buildBook()));
@@ -90,6 +146,34 @@ class BookServiceTest {
                 .hasMessageContaining("Book not found");
     }
 
+    @Test
+    void getBookEtag_usesRowVersion() {
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        assertThat(bookService.getBookEtag(1L)).isEqualTo("1-3");
+        verify(bookRepository, never()).findById(any());
+    }
+
+    @Test
+    void getBookEtag_notFound_throwsException() {
+        when(bookRepository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> bookService.getBookEtag(99L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Book not found");
+    }
+
+    @Test
+    void getCatalogEtag_changesWithCatalog() {
+        CatalogVersion catalog = mock(CatalogVersion.class);
+        when(catalog.getTotal()).thenReturn(2L);
+        when(catalog.getMaxId()).thenReturn(5L);
+        when(catalog.getVersionSum()).thenReturn(7L);
+        when(bookRepository.findCatalogVersion()).thenReturn(catalog);
+
+        assertThat(bookService.getCatalogEtag()).isEqualTo("books-2-5-7");
+    }
+
     @Test
     void getAllBooks_returnsAllBooks() {
         when(bookRepository.findAll()).thenReturn(List.of(buildBook(), buildBook()));
@@ -134,30 +218,97 @@ class BookServiceTest {
 
     @Test
     void updateStock_success() {
-        Book book = buildBook(); // stock = 10
+        Book book = buildBook();
+        book.setStock(7);
+        book.setSoldCount(3L);
+        when(bookRepository.adjustStock(1L, -3, 3L)).thenReturn(1);
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
 
         BookResponse response = bookService.updateStock(1L, -3);
 
-        assertThat(response).isNotNull();
-        verify(bookRepository).save(any(Book.class));
+        assertThat(response.getStock()).isEqualTo(7);
+        verify(bookRepository, never()).saveAndFlush(any(Book.class));
+        verify(autocompleteIndex).index(book);
+        verify(bookChangeOutbox).record(book, ChangeType.UPDATED);
     }
 
     @Test
-    void updateStock_insufficientStock_throwsException() {
-        Book book = buildBook(); // stock = 10
+    void updateBook_success_recordsChange() {
+        Book book = buildBook();
+        BookRequest request = buildRequest();
+        request.setPrice(new BigDecimal("29.99"));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.saveAndFlush(book)).thenReturn(book);
+
+        BookResponse response = bookService.updateBook(1L, request);
+
+        assertThat(response.getPrice()).isEqualByComparingTo("29.99");
+        verify(bookChangeOutbox).record(book, ChangeType.UPDATED);
+        verify(bookRepository, never()).existsByIsbnKey(any());
+    }
+
+    @Test
+    void updateBook_sameIsbnInAnotherSpelling_isNotADuplicate() {
+        Book book = buildBook();
+        BookRequest request = buildRequest();
+        request.setIsbn("9780132350884");
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.saveAndFlush(book)).thenReturn(book);
+
+        bookService.updateBook(1L, request);
+
+        verify(bookRepository, never()).existsByIsbnKey(any());
+    }
+
+    @Test
+    void updateBook_isbnTakenByAnotherBook_throwsException() {
+        BookRequest request = buildRequest();
+        request.setIsbn("978-0201633610");
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(buildBook()));
+        when(bookRepository.existsByIsbnKey("9780201633610")).thenReturn(true);
+
+        assertThatThrownBy(() -> bookService.updateBook(1L, request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ISBN already exists");
+        verifyNoInteractions(bookChangeOutbox);
+    }
+
+    @Test
+    void autocomplete_delegatesToIndex() {
+        BookSuggestion suggestion = BookSuggestion.builder().id(1L).title("Clean Code").build();
+        when(autocompleteIndex.suggest("cle", 5)).thenReturn(List.of(suggestion));
+
+        assertThat(bookService.autocomplete("cle", 5)).containsExactly(suggestion);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void updateStock_insufficientStock_throwsException() {
+        // uslov stock + quantity >= 0 nije ispunjen - UPDATE ne menja nijedan red
+        when(bookRepository.adjustStock(1L, -20, 20L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
 
-        // pokušavamo uzeti 20 od stock-a 10 — treba da baci grešku
         assertThatThrownBy(() -> bookService.updateStock(1L, -20))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Insufficient stock");
+        verifyNoInteractions(bookChangeOutbox);
+    }
+
+    @Test
+    void updateStock_restock_doesNotCountAsSold() {
+        when(bookRepository.adjustStock(1L, 5, 0L)).thenReturn(1);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(buildBook()));
+
+        bookService.updateStock(1L, 5);
+
+        verify(bookRepository).adjustStock(1L, 5, 0L);
+        verifyNoInteractions(autocompleteIndex);
     }
 
     @Test
     void updateStock_notFound_throwsException() {
-        when(bookRepository.findById(99L)).thenReturn(Optional.empty());
+        when(bookRepository.adjustStock(99L, -1, 1L)).thenReturn(0);
+        when(bookRepository.existsById(99L)).thenReturn(false);
 
         assertThatThrownBy(() -> bookService.updateStock(99L, -1))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -166,16 +317,19 @@ class BookServiceTest {
 
     @Test
     void deleteBook_success() {
-        when(bookRepository.existsById(1L)).thenReturn(true);
+        Book book = buildBook();
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
 
         bookService.deleteBook(1L);
 
-        verify(bookRepository).deleteById(1L);
+        verify(bookRepository).delete(book);
+        verify(autocompleteIndex).remove(1L);
+        verify(bookChangeOutbox).record(book, ChangeType.DELETED);
     }
 
     @Test
     void deleteBook_notFound_throwsException() {
-        when(bookRepository.existsById(99L)).thenReturn(false);
+        when(bookRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookService.deleteBook(99L))
                 .isInstanceOf(IllegalArgumentException.class)
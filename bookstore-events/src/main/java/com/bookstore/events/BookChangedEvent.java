@@ -0,0 +1,41 @@
+package com.bookstore.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Objavljuje book-service kada je knjiga kreirana, izmenjena ili obrisana (routing key book.changed).
+ *
+ * Dogadjaj nosi poslednje stanje knjige, ne razliku - vise izmena u kratkom prozoru se spaja u jedan
+ * dogadjaj. Verzija raste sa svakom izmenom knjige; consumer odbacuje dogadjaj cija je verzija
+ * manja ili jednaka vec primljenoj (ponovljena isporuka, redosled).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookChangedEvent implements Serializable {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    @Builder.Default
+    private int schemaVersion = SCHEMA_VERSION;
+    private Long bookId;
+    private Long version;
+    private ChangeType type;
+    private String title;
+    private String author;
+    private BigDecimal price;
+    private Integer stock;
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
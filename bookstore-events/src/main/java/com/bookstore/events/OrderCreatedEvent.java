@@ -0,0 +1,35 @@
+package com.bookstore.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Objavljuje order-service kada je porudzbina kreirana (routing key order.created[.particija]).
+ *
+ * Sema se menja samo dodavanjem polja uz povecanje SCHEMA_VERSION; nepoznata polja se ignorisu,
+ * pa stariji consumer-i citaju novije poruke.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OrderCreatedEvent implements Serializable {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    @Builder.Default
+    private int schemaVersion = SCHEMA_VERSION;
+    private Long orderId;
+    private Long userId;
+    private Long bookId;
+    private Integer quantity;
+    private BigDecimal totalPrice;
+    private String bookTitle;
+}
@@ -0,0 +1,31 @@
+package com.bookstore.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Objavljuje user-service kada je korisnik kreiran ili obrisan (routing key user.created / user.deleted).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserChangedEvent implements Serializable {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    @Builder.Default
+    private int schemaVersion = SCHEMA_VERSION;
+    private Long userId;
+    private ChangeType type;
+
+    public enum ChangeType {
+        CREATED, DELETED
+    }
+}
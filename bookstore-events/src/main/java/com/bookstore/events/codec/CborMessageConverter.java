@@ -0,0 +1,61 @@
+package com.bookstore.events.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.IOException;
+
+/**
+ * Jackson konverter koji dogadjaje serijalizuje u CBOR (RFC 8949) umesto u JSON.
+ * Isti model i anotacije kao JSON, ali bez tekstualnog kodiranja brojeva i navodnika.
+ *
+ * Ciljni tip se odredjuje isto kao kod Jackson2JsonMessageConverter: prvo iz potpisa
+ * listener metode, pa iz __TypeId__ zaglavlja (samo za pakete od poverenja).
+ */
+public class CborMessageConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE = "application/cbor";
+
+    private final ObjectMapper objectMapper = CBORMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+    public CborMessageConverter(String... trustedPackages) {
+        typeMapper.setTrustedPackages(trustedPackages);
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(object);
+            messageProperties.setContentType(CONTENT_TYPE);
+            messageProperties.setContentLength(body.length);
+            typeMapper.fromJavaType(objectMapper.constructType(object.getClass()), messageProperties);
+            return new Message(body, messageProperties);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert object to CBOR", e);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties == null || !CONTENT_TYPE.equals(properties.getContentType())) {
+            return message.getBody();
+        }
+        try {
+            JavaType targetType = typeMapper.toJavaType(properties);
+            return objectMapper.readValue(message.getBody(), targetType);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert CBOR message", e);
+        }
+    }
+}
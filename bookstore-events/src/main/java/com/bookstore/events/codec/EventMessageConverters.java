@@ -0,0 +1,39 @@
+package com.bookstore.events.codec;
+
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Konverter poruka zajednicki za sve servise.
+ *
+ * Poruke se citaju prema content-type zaglavlju (JSON i CBOR), pa consumer razume oba formata
+ * i tokom prelaska sa jednog na drugi. Format za slanje bira se konfiguracijom (json | cbor).
+ */
+public final class EventMessageConverters {
+
+    public static final String JSON = "json";
+    public static final String CBOR = "cbor";
+
+    private static final String EVENTS_PACKAGE = "com.bookstore.events";
+
+    private EventMessageConverters() {
+    }
+
+    public static MessageConverter create(String wireFormat) {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter(EVENTS_PACKAGE);
+        CborMessageConverter cbor = new CborMessageConverter(EVENTS_PACKAGE);
+
+        MessageConverter outbound = switch (wireFormat) {
+            case JSON -> json;
+            case CBOR -> cbor;
+            default -> throw new IllegalArgumentException("Unsupported wire format: " + wireFormat);
+        };
+
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(outbound);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(CborMessageConverter.CONTENT_TYPE, cbor);
+        return converter;
+    }
+}
@@ -0,0 +1,110 @@
+package com.bookstore.events.codec;
+
+import com.bookstore.events.OrderCreatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+class EventMessageConvertersTest {
+
+    private static final int ITERATIONS = 200_000;
+
+    private OrderCreatedEvent event() {
+        return OrderCreatedEvent.builder()
+                .orderId(123_456L)
+                .userId(42_017L)
+                .bookId(9_876L)
+                .quantity(2)
+                .totalPrice(new BigDecimal("59.98"))
+                .bookTitle("Clean Code")
+                .build();
+    }
+
+    private Message send(MessageConverter converter, Object payload) {
+        return converter.toMessage(payload, new MessageProperties());
+    }
+
+    private Object receive(MessageConverter converter, Message message) {
+        // consumer zakljucuje tip iz potpisa listener metode
+        message.getMessageProperties().setInferredArgumentType(OrderCreatedEvent.class);
+        return converter.fromMessage(message);
+    }
+
+    @Test
+    void cbor_roundTripsAndIsSmallerThanJson() {
+        Message json = send(EventMessageConverters.create(EventMessageConverters.JSON), event());
+        Message cbor = send(EventMessageConverters.create(EventMessageConverters.CBOR), event());
+
+        assertThat(json.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat(cbor.getMessageProperties().getContentType()).isEqualTo(CborMessageConverter.CONTENT_TYPE);
+        assertThat(cbor.getBody().length).isLessThan(json.getBody().length);
+        assertThat(receive(EventMessageConverters.create(EventMessageConverters.JSON), cbor)).isEqualTo(event());
+    }
+
+    @Test
+    void consumer_stillReadsLegacyJsonMessages() {
+        // poruka u formatu starog order-service (bez schemaVersion, sa starim __TypeId__)
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader("__TypeId__", "com.bookstore.order.messaging.OrderCreatedEvent");
+        Message legacy = new Message(("{\"orderId\":123456,\"userId\":42017,\"bookId\":9876,\"quantity\":2,"
+                + "\"totalPrice\":59.98,\"bookTitle\":\"Clean Code\"}").getBytes(StandardCharsets.UTF_8), properties);
+
+        Object received = receive(EventMessageConverters.create(EventMessageConverters.CBOR), legacy);
+
+        assertThat(received).isEqualTo(event());
+    }
+
+    @Test
+    void consumer_ignoresFieldsFromNewerSchema() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        Message newer = new Message("{\"schemaVersion\":2,\"orderId\":1,\"couponCode\":\"X\"}".getBytes(StandardCharsets.UTF_8),
+                properties);
+
+        OrderCreatedEvent received = (OrderCreatedEvent) receive(EventMessageConverters.create(EventMessageConverters.JSON), newer);
+
+        assertThat(received.getSchemaVersion()).isEqualTo(2);
+        assertThat(received.getOrderId()).isEqualTo(1L);
+    }
+
+    @Test
+    void unsupportedWireFormat_rejected() {
+        assertThatThrownBy(() -> EventMessageConverters.create("xml"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Grubo merenje velicine i CPU-a serijalizacije; rezultat se loguje, ne proverava.
+     * Pokrece se samo sa -Pbenchmark.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmark_bytesAndSerializationTime() {
+        for (String format : new String[]{EventMessageConverters.JSON, EventMessageConverters.CBOR}) {
+            MessageConverter converter = EventMessageConverters.create(format);
+            int bytes = send(converter, event()).getBody().length;
+
+            // zagrevanje JIT-a pre merenja
+            for (int i = 0; i < ITERATIONS; i++) {
+                receive(converter, send(converter, event()));
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                receive(converter, send(converter, event()));
+            }
+            long nanosPerEvent = (System.nanoTime() - start) / ITERATIONS;
+
+            log.info("{}: {} bytes/event, {} ns/event (serialize + deserialize)", format, bytes, nanosPerEvent);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.bookstore.order.bestsellers;
+
+import com.bookstore.order.dto.BestsellerResponse;
+import com.bookstore.order.dto.OrderRateResponse;
+import com.bookstore.order.model.Order;
+import com.bookstore.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Najprodavanije knjige u poslednjem satu i poslednjem danu, bez GROUP BY nad orders.
+ *
+ * Prodaja se deli u minutne (60) i satne (24) korpe u prstenu; svaka korpa ima space-saving
+ * sazetak ogranicene velicine i broj porudzbina, pa je memorija fiksna bez obzira na saobracaj.
+ * Upit za prozor spaja korpe koje su jos u prozoru - rezultat je priblizan (broj je precenjen
+ * najvise za maxOverestimate), a prozor klizi po jedan minut, odnosno jedan sat.
+ */
+@Component
+@Slf4j
+public class Bestsellers {
+
+    public enum Window {
+        HOUR(60, 60), DAY(24, 3600);
+
+        private final int buckets;
+        private final long bucketSeconds;
+
+        Window(int buckets, long bucketSeconds) {
+            this.buckets = buckets;
+            this.bucketSeconds = bucketSeconds;
+        }
+
+        public static Window parse(String value) {
+            for (Window window : values()) {
+                if (window.name().equalsIgnoreCase(value)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Unknown window: " + value + " (expected hour or day)");
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final int rehydratePageSize;
+    private final Map<Window, Bucket[]> rings = new EnumMap<>(Window.class);
+    // granica izmedju rehydrate i record - bean nastaje pre nego sto server primi prvi zahtev
+    private final LocalDateTime startedAt;
+
+    public Bestsellers(OrderRepository orderRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${bookstore.bestsellers.capacity:100}") int capacity,
+                       @Value("${bookstore.bestsellers.rehydrate-page-size:1000}") int rehydratePageSize) {
+        this.orderRepository = orderRepository;
+        this.rehydratePageSize = rehydratePageSize;
+        this.startedAt = LocalDateTime.now();
+        for (Window window : Window.values()) {
+            Bucket[] ring = new Bucket[window.buckets];
+            for (int i = 0; i < ring.length; i++) {
+                ring[i] = new Bucket(capacity);
+            }
+            rings.put(window, ring);
+        }
+        Gauge.builder("order.bestsellers.tracked", this, Bestsellers::trackedBooks).register(meterRegistry);
+    }
+
+    /**
+     * Puni korpe porudzbinama iz poslednjeg dana pre nastanka bean-a; porudzbine od tada
+     * vec su zabelezene kroz record, pa se ne broje dvaput (i kada stignu pre ApplicationReadyEvent).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrate() {
+        LocalDateTime until = startedAt;
+        LocalDateTime cursorCreatedAt = until.minusDays(1);
+        long cursorId = 0;
+        int loaded = 0;
+        PageRequest page = PageRequest.of(0, rehydratePageSize);
+        try {
+            List<Order> orders;
+            do {
+                orders = orderRepository.findPageAfter(cursorCreatedAt, cursorId, page);
+                for (Order order : orders) {
+                    if (!order.getCreatedAt().isBefore(until)) {
+                        log.info("Bestsellers rehydrated from {} recent orders", loaded);
+                        return;
+                    }
+                    record(order.getBookId(), order.getQuantity(), order.getCreatedAt());
+                    loaded++;
+                }
+                if (!orders.isEmpty()) {
+                    Order last = orders.get(orders.size() - 1);
+                    cursorCreatedAt = last.getCreatedAt();
+                    cursorId = last.getId();
+                }
+            } while (orders.size() == rehydratePageSize);
+            log.info("Bestsellers rehydrated from {} recent orders", loaded);
+        } catch (Exception e) {
+            log.warn("Could not rehydrate bestsellers, starting empty: {}", e.getMessage());
+        }
+    }
+
+    public void record(Order order) {
+        record(order.getBookId(), order.getQuantity(), order.getCreatedAt());
+    }
+
+    synchronized void record(long bookId, int quantity, LocalDateTime at) {
+        long second = at.toEpochSecond(ZoneOffset.UTC);
+        for (Window window : Window.values()) {
+            long epoch = second / window.bucketSeconds;
+            Bucket bucket = bucketFor(window, epoch);
+            // starije od prozora (npr. tokom rehydrate) - korpa je vec prepisana novijom
+            if (bucket.epoch == epoch) {
+                bucket.orders++;
+                bucket.quantity += quantity;
+                bucket.summary.add(bookId, quantity);
+            }
+        }
+    }
+
+    public List<BestsellerResponse> top(Window window, int limit) {
+        return top(window, limit, LocalDateTime.now());
+    }
+
+    synchronized List<BestsellerResponse> top(Window window, int limit, LocalDateTime now) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        Map<Long, long[]> merged = new HashMap<>();
+        for (Bucket bucket : live(window, now)) {
+            bucket.summary.forEach((bookId, counter) -> {
+                long[] total = merged.computeIfAbsent(bookId, id -> new long[2]);
+                total[0] += counter[0];
+                total[1] += counter[1];
+            });
+        }
+        return merged.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Long, long[]>>comparingLong(e -> e.getValue()[0]).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(e -> BestsellerResponse.builder()
+                        .bookId(e.getKey())
+                        .quantity(e.getValue()[0])
+                        .maxOverestimate(e.getValue()[1])
+                        .build())
+                .toList();
+    }
+
+    public List<OrderRateResponse> rate(Window window) {
+        return rate(window, LocalDateTime.now());
+    }
+
+    /**
+     * Broj porudzbina i prodatih primeraka po korpi, od najstarije do tekuce; prazne korpe su ukljucene.
+     */
+    synchronized List<OrderRateResponse> rate(Window window, LocalDateTime now) {
+        long current = now.toEpochSecond(ZoneOffset.UTC) / window.bucketSeconds;
+        Bucket[] ring = rings.get(window);
+        List<OrderRateResponse> rates = new ArrayList<>(ring.length);
+        for (long epoch = current - ring.length + 1; epoch <= current; epoch++) {
+            Bucket bucket = ring[index(ring, epoch)];
+            boolean live = bucket.epoch == epoch;
+            rates.add(OrderRateResponse.builder()
+                    .bucketStart(LocalDateTime.ofEpochSecond(epoch * window.bucketSeconds, 0, ZoneOffset.UTC))
+                    .orders(live ? bucket.orders : 0)
+                    .quantity(live ? bucket.quantity : 0)
+                    .build());
+        }
+        return rates;
+    }
+
+    synchronized int trackedBooks() {
+        int tracked = 0;
+        for (Bucket[] ring : rings.values()) {
+            for (Bucket bucket : ring) {
+                tracked += bucket.summary.size();
+            }
+        }
+        return tracked;
+    }
+
+    private List<Bucket> live(Window window, LocalDateTime now) {
+        long current = now.toEpochSecond(ZoneOffset.UTC) / window.bucketSeconds;
+        Bucket[] ring = rings.get(window);
+        List<Bucket> live = new ArrayList<>(ring.length);
+        for (Bucket bucket : ring) {
+            if (bucket.epoch > current - ring.length && bucket.epoch <= current) {
+                live.add(bucket);
+            }
+        }
+        return live;
+    }
+
+    private Bucket bucketFor(Window window, long epoch) {
+        Bucket[] ring = rings.get(window);
+        Bucket bucket = ring[index(ring, epoch)];
+        if (bucket.epoch < epoch) {
+            bucket.reset(epoch);
+        }
+        return bucket;
+    }
+
+    private static int index(Bucket[] ring, long epoch) {
+        return (int) Math.floorMod(epoch, (long) ring.length);
+    }
+
+    private static final class Bucket {
+
+        private final SpaceSaving summary;
+        private long epoch = Long.MIN_VALUE;
+        private long orders;
+        private long quantity;
+
+        private Bucket(int capacity) {
+            this.summary = new SpaceSaving(capacity);
+        }
+
+        private void reset(long epoch) {
+            this.epoch = epoch;
+            this.orders = 0;
+            this.quantity = 0;
+            this.summary.clear();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bookstore.order.bestsellers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Space-saving sazetak (Metwally i dr.) - broji najvise capacity kljuceva.
+ *
+ * Kada je sazetak pun, novi kljuc zauzima mesto kljuca sa najmanjim brojem i nasledjuje
+ * njegov broj kao gornju granicu greske. Svaki kljuc cija je stvarna tezina veca od
+ * ukupno / capacity sigurno je u sazetku; broj je precenjen najvise za error.
+ */
+final class SpaceSaving {
+
+    private final int capacity;
+    private final Map<Long, long[]> counters;
+
+    SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    void add(long key, long weight) {
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{weight, 0});
+            return;
+        }
+        // linearni prolaz je dovoljan - smena se desava samo za nove kljuceve punog sazetka
+        long minKey = 0;
+        long[] min = null;
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min[0]) {
+                minKey = entry.getKey();
+                min = entry.getValue();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[]{min[0] + weight, min[0]});
+    }
+
+    /**
+     * Prolazi kroz kljuceve sa parom {count, error}; nizovi se ne smeju menjati.
+     */
+    void forEach(BiConsumer<Long, long[]> action) {
+        counters.forEach(action);
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    void clear() {
+        counters.clear();
+    }
+}
@@ -1,18 +1,26 @@
 package com.bookstore.order.config;
 
+import com.bookstore.events.codec.EventMessageConverters;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Date;
+
 @Configuration
 public class RabbitMQConfig {
 
     public static final String EXCHANGE = "bookstore.exchange";
     public static final String ORDER_CREATED_QUEUE = "notification.order.created";
     public static final String ORDER_CREATED_ROUTING_KEY = "order.created";
+    // pokriva i particionisane kljuceve order.created.<p>
+    public static final String ORDER_CREATED_BINDING_KEY = "order.created.#";
+    public static final String USER_CHANGED_QUEUE = "order.user.changed";
+    public static final String USER_CHANGED_ROUTING_KEY = "user.*";
 
     @Bean
     public TopicExchange bookstoreExchange() {
@@ -29,18 +37,39 @@ public class RabbitMQConfig {
         return BindingBuilder
                 .bind(orderCreatedQueue)
                 .to(bookstoreExchange)
-                .with(ORDER_CREATED_ROUTING_KEY);
+                .with(ORDER_CREATED_BINDING_KEY);
+    }
+
+    @Bean
+    public Queue userChangedQueue() {
+        return QueueBuilder.durable(USER_CHANGED_QUEUE).build();
+    }
+
+    @Bean
+    public Binding userChangedBinding(Queue userChangedQueue, TopicExchange bookstoreExchange) {
+        return BindingBuilder
+                .bind(userChangedQueue)
+                .to(bookstoreExchange)
+                .with(USER_CHANGED_ROUTING_KEY);
     }
 
+    /**
+     * Cita JSON i CBOR poruke prema content-type zaglavlju; salje u formatu iz konfiguracije.
+     */
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter(@Value("${bookstore.messaging.wire-format:json}") String wireFormat) {
+        return EventMessageConverters.create(wireFormat);
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(messageConverter());
+        template.setMessageConverter(messageConverter);
+        // vremenska oznaka objave - consumer-i iz nje racunaju starost dogadjaja (kasnjenje reda)
+        template.setBeforePublishPostProcessors(message -> {
+            message.getMessageProperties().setTimestamp(new Date());
+            return message;
+        });
         return template;
     }
 }
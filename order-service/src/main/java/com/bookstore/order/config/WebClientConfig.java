@@ -1,10 +1,29 @@
 package com.bookstore.order.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+
+/**
+ * WebClient-i ka User i Book servisu dele jedan pool konekcija.
+ *
+ * Pool je ogranicen (max-connections), a zahtevi koji cekaju slobodnu konekciju imaju ograniceni
+ * red i timeout, pa zagusen servis ne gomila beskonacno cekanje. Konekcije se zatvaraju posle
+ * max-idle-time mirovanja i najkasnije posle max-life-time, da bi se rasporedile po novim
+ * instancama iza load balancer-a. Metrike pool-a su reactor.netty.connection.provider.*.
+ * Sa h2c: true klijent odmah govori HTTP/2 bez TLS-a, pa svi servisi moraju imati server.http2.enabled;
+ * vise zahteva tada deli istu konekciju. Sa compression: true odgovori servisa veci od njihovog
+ * min-response-size stizu kompresovani (server.compression) - manje bajtova za vise CPU-a.
+ */
 @Configuration
 public class WebClientConfig {
 
@@ -14,17 +33,59 @@ public class WebClientConfig {
     @Value("${services.book-service.url:http://localhost:8082}")
     private String bookServiceUrl;
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serviceConnectionProvider(
+            @Value("${bookstore.http-client.pool.max-connections:50}") int maxConnections,
+            @Value("${bookstore.http-client.pool.pending-acquire-max-count:200}") int pendingAcquireMaxCount,
+            @Value("${bookstore.http-client.pool.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${bookstore.http-client.pool.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${bookstore.http-client.pool.max-life-time:5m}") Duration maxLifeTime,
+            @Value("${bookstore.http-client.pool.eviction-interval:30s}") Duration evictionInterval) {
+        return ConnectionProvider.builder("service-clients")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictionInterval)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector serviceHttpConnector(
+            ConnectionProvider serviceConnectionProvider,
+            @Value("${bookstore.http-client.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${bookstore.http-client.response-timeout:5s}") Duration responseTimeout,
+            @Value("${bookstore.http-client.h2c:false}") boolean h2c,
+            @Value("${bookstore.http-client.compression:false}") boolean compression) {
+        return new ReactorClientHttpConnector(
+                httpClient(serviceConnectionProvider, connectTimeout, responseTimeout, h2c, compression));
+    }
+
     @Bean("userServiceClient")
-    public WebClient userServiceClient() {
+    public WebClient userServiceClient(ClientHttpConnector serviceHttpConnector) {
         return WebClient.builder()
                 .baseUrl(userServiceUrl)
+                .clientConnector(serviceHttpConnector)
                 .build();
     }
 
     @Bean("bookServiceClient")
-    public WebClient bookServiceClient() {
+    public WebClient bookServiceClient(ClientHttpConnector serviceHttpConnector) {
         return WebClient.builder()
                 .baseUrl(bookServiceUrl)
+                .clientConnector(serviceHttpConnector)
                 .build();
     }
+
+    static HttpClient httpClient(ConnectionProvider provider, Duration connectTimeout,
+                                 Duration responseTimeout, boolean h2c, boolean compression) {
+        return HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout)
+                // h2c bez upgrade-a (prior knowledge): sa HTTP11 upgrade-om Reactor Netty ne vraca konekciju u pool
+                .protocol(h2c ? HttpProtocol.H2C : HttpProtocol.HTTP11)
+                .compress(compression);
+    }
 }
@@ -0,0 +1,33 @@
+package com.bookstore.order.controller;
+
+import com.bookstore.order.bestsellers.Bestsellers;
+import com.bookstore.order.dto.BestsellerResponse;
+import com.bookstore.order.dto.OrderRateResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+@Slf4j
+public class BestsellerController {
+
+    private final Bestsellers bestsellers;
+
+    @GetMapping("/bestsellers")
+    public ResponseEntity<List<BestsellerResponse>> getBestsellers(@RequestParam(defaultValue = "hour") String window,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        log.info("GET /api/orders/bestsellers?window={}&limit={}", window, limit);
+        return ResponseEntity.ok(bestsellers.top(Bestsellers.Window.parse(window), limit));
+    }
+
+    @GetMapping("/rate")
+    public ResponseEntity<List<OrderRateResponse>> getOrderRate(@RequestParam(defaultValue = "hour") String window) {
+        log.info("GET /api/orders/rate?window={}", window);
+        return ResponseEntity.ok(bestsellers.rate(Bestsellers.Window.parse(window)));
+    }
+}
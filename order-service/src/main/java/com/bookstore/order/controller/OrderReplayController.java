@@ -0,0 +1,46 @@
+package com.bookstore.order.controller;
+
+import com.bookstore.order.dto.ReplayRequest;
+import com.bookstore.order.dto.ReplayStatusResponse;
+import com.bookstore.order.replay.OrderReplayService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders/replay")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderReplayController {
+
+    private final OrderReplayService orderReplayService;
+
+    @PostMapping
+    public ResponseEntity<ReplayStatusResponse> start(@Valid @RequestBody ReplayRequest request) {
+        log.info("POST /api/orders/replay - {}", request.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(orderReplayService.start(request));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReplayStatusResponse>> getAll() {
+        log.info("GET /api/orders/replay");
+        return ResponseEntity.ok(orderReplayService.getAll());
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<ReplayStatusResponse> getStatus(@PathVariable String name) {
+        log.info("GET /api/orders/replay/{}", name);
+        return ResponseEntity.ok(orderReplayService.getStatus(name));
+    }
+
+    @PostMapping("/{name}/stop")
+    public ResponseEntity<ReplayStatusResponse> stop(@PathVariable String name) {
+        log.info("POST /api/orders/replay/{}/stop", name);
+        return ResponseEntity.ok(orderReplayService.stop(name));
+    }
+}
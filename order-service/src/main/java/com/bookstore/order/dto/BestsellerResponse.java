@@ -0,0 +1,13 @@
+package com.bookstore.order.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BestsellerResponse {
+    private Long bookId;
+    private Long quantity;
+    // gornja granica za koliko je quantity precenjen (space-saving)
+    private Long maxOverestimate;
+}
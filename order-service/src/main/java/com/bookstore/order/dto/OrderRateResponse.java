@@ -0,0 +1,14 @@
+package com.bookstore.order.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class OrderRateResponse {
+    private LocalDateTime bucketStart;
+    private long orders;
+    private long quantity;
+}
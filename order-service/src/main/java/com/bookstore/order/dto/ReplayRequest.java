@@ -0,0 +1,22 @@
+package com.bookstore.order.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class ReplayRequest {
+
+    @NotBlank(message = "Replay name is required")
+    private String name;
+
+    @NotBlank(message = "Routing key is required")
+    private String routingKey;
+
+    // prazno - bookstore.replay.default-rate
+    @Positive(message = "Rate must be positive")
+    private Integer ratePerSecond;
+
+    // zavrsen replay se ponavlja od pocetka samo na izricit zahtev
+    private boolean restart;
+}
@@ -0,0 +1,21 @@
+package com.bookstore.order.dto;
+
+import com.bookstore.order.model.ReplayCheckpoint;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ReplayStatusResponse {
+    private String name;
+    private String routingKey;
+    private Integer ratePerSecond;
+    private ReplayCheckpoint.ReplayStatus status;
+    private Long published;
+    private Long lastOrderId;
+    private LocalDateTime lastCreatedAt;
+    private String error;
+    private LocalDateTime updatedAt;
+}
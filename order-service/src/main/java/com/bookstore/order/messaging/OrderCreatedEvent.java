@@ -1,22 +0,0 @@
-package com.bookstore.order.messaging;
-
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.io.Serializable;
-import java.math.BigDecimal;
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class OrderCreatedEvent implements Serializable {
-    private Long orderId;
-    private Long userId;
-    private Long bookId;
-    private Integer quantity;
-    private BigDecimal totalPrice;
-    private String bookTitle;
-}
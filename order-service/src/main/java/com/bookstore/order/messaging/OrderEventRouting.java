@@ -0,0 +1,39 @@
+package com.bookstore.order.messaging;
+
+import com.bookstore.order.config.RabbitMQConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Odredjuje routing key za OrderCreatedEvent.
+ *
+ * Sa jednom particijom kljuc je order.created (kao i ranije). Sa N particija dogadjaj ide na
+ * order.created.&lt;p&gt;, gde je p odredjen hash-om bookId-a - svi dogadjaji jedne knjige
+ * zavrsavaju u istom redu consumer-a i obradjuju se redom. Broj particija mora biti isti
+ * kao bookstore.order-events.partitions u review-service.
+ */
+@Component
+public class OrderEventRouting {
+
+    private final int partitions;
+
+    public OrderEventRouting(@Value("${bookstore.order-events.partitions:1}") int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Number of partitions must be positive: " + partitions);
+        }
+        this.partitions = partitions;
+    }
+
+    public String routingKey(Long bookId) {
+        if (partitions == 1) {
+            return RabbitMQConfig.ORDER_CREATED_ROUTING_KEY;
+        }
+        return RabbitMQConfig.ORDER_CREATED_ROUTING_KEY + "." + partition(bookId);
+    }
+
+    int partition(Long bookId) {
+        // Fibonacci hash - uzastopni id-jevi se ravnomerno rasporedjuju po particijama
+        long mixed = bookId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (mixed >>> 32), partitions);
+    }
+}
@@ -0,0 +1,58 @@
+package com.bookstore.order.messaging;
+
+import com.bookstore.order.config.RabbitMQConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dubina i broj consumer-a redova koje deklarise order-service, citani sa brokera periodicno
+ * (ne pri svakom scrape-u). Red notification.order.created trenutno nema consumer-a u sistemu,
+ * pa je njegova dubina jedini signal da se poruke gomilaju.
+ */
+@Component
+@Slf4j
+public class QueueDepthMonitor {
+
+    private static final List<String> QUEUES = List.of(RabbitMQConfig.ORDER_CREATED_QUEUE, RabbitMQConfig.USER_CHANGED_QUEUE);
+
+    private final AmqpAdmin amqpAdmin;
+    private final Map<String, AtomicLong> depths = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> consumers = new LinkedHashMap<>();
+
+    public QueueDepthMonitor(AmqpAdmin amqpAdmin, MeterRegistry meterRegistry) {
+        this.amqpAdmin = amqpAdmin;
+        for (String queue : QUEUES) {
+            AtomicLong depth = new AtomicLong();
+            AtomicLong consumerCount = new AtomicLong();
+            depths.put(queue, depth);
+            consumers.put(queue, consumerCount);
+            Gauge.builder("rabbitmq.queue.depth", depth, AtomicLong::get).tag("queue", queue).register(meterRegistry);
+            Gauge.builder("rabbitmq.queue.consumers", consumerCount, AtomicLong::get).tag("queue", queue).register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.queue-monitor.interval-ms:5000}")
+    public void refresh() {
+        for (String queue : QUEUES) {
+            try {
+                QueueInformation info = amqpAdmin.getQueueInfo(queue);
+                if (info != null) {
+                    depths.get(queue).set(info.getMessageCount());
+                    consumers.get(queue).set(info.getConsumerCount());
+                }
+            } catch (Exception e) {
+                log.debug("Could not read queue info for {}: {}", queue, e.getMessage());
+            }
+        }
+    }
+}
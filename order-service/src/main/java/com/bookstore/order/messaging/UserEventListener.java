@@ -0,0 +1,30 @@
+package com.bookstore.order.messaging;
+
+import com.bookstore.events.UserChangedEvent;
+import com.bookstore.order.config.RabbitMQConfig;
+import com.bookstore.order.users.KnownUsers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserEventListener {
+
+    private final KnownUsers knownUsers;
+
+    /**
+     * RabbitMQ consumer - odrzava lokalni skup korisnika na osnovu dogadjaja iz user-service.
+     */
+    @RabbitListener(queues = RabbitMQConfig.USER_CHANGED_QUEUE)
+    public void handleUserChanged(UserChangedEvent event) {
+        log.debug("Received UserChangedEvent via RabbitMQ: userId={}, type={}", event.getUserId(), event.getType());
+        if (event.getType() == UserChangedEvent.ChangeType.DELETED) {
+            knownUsers.remove(event.getUserId());
+        } else {
+            knownUsers.add(event.getUserId());
+        }
+    }
+}
@@ -10,7 +10,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+// (created_at, id) - kursor za replay dogadjaja ide po ovom indeksu bez sortiranja
+@Table(name = "orders", indexes = @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,52 @@
+package com.bookstore.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stanje jednog replay-a porudzbina - kursor poslednje objavljene porudzbine,
+ * da bi prekinut replay mogao da nastavi tamo gde je stao.
+ */
+@Entity
+@Table(name = "replay_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayCheckpoint {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private String routingKey;
+
+    @Column(nullable = false)
+    private Integer ratePerSecond;
+
+    private LocalDateTime lastCreatedAt;
+
+    private Long lastOrderId;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long published = 0L;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReplayStatus status;
+
+    private String error;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum ReplayStatus {
+        RUNNING, STOPPED, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,275 @@
+package com.bookstore.order.replay;
+
+import com.bookstore.events.OrderCreatedEvent;
+import com.bookstore.order.config.RabbitMQConfig;
+import com.bookstore.order.dto.ReplayRequest;
+import com.bookstore.order.dto.ReplayStatusResponse;
+import com.bookstore.order.model.Order;
+import com.bookstore.order.model.ReplayCheckpoint;
+import com.bookstore.order.model.ReplayCheckpoint.ReplayStatus;
+import com.bookstore.order.repository.OrderRepository;
+import com.bookstore.order.repository.ReplayCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ponovno objavljuje istorijske porudzbine kao OrderCreatedEvent-e, da bi novi consumer
+ * mogao da izgradi svoju projekciju od pocetka.
+ *
+ * Porudzbine se citaju po kursoru (createdAt, id) u stranicama - svaka stranica je kratak upit
+ * po indeksu, bez dugacke transakcije i bez OFFSET-a. Objava ide na ciljni routing key
+ * (ne na order.created, osim ako je to izricito trazeno) sa zadatom brzinom, u posebnoj niti.
+ * Posle svake stranice koju broker potvrdi kursor se upisuje u replay_checkpoints, pa se
+ * prekinut replay nastavlja od poslednje potvrdjene stranice (at-least-once).
+ *
+ * orders ne cuva naslov knjige, pa replay-ovani dogadjaji nemaju bookTitle.
+ */
+@Service
+@Slf4j
+public class OrderReplayService {
+
+    public static final String REPLAY_HEADER = "x-replay";
+
+    // pocetni kursor - pre svih porudzbina
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+    private final ReplayCheckpointRepository checkpointRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final int pageSize;
+    private final int defaultRate;
+    private final int maxRate;
+    private final long confirmTimeoutMs;
+    private final Counter published;
+
+    private final AtomicReference<ActiveReplay> active = new AtomicReference<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "order-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderReplayService(OrderRepository orderRepository,
+                              ReplayCheckpointRepository checkpointRepository,
+                              RabbitTemplate rabbitTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${bookstore.replay.page-size:1000}") int pageSize,
+                              @Value("${bookstore.replay.default-rate:5000}") int defaultRate,
+                              @Value("${bookstore.replay.max-rate:20000}") int maxRate,
+                              @Value("${bookstore.replay.confirm-timeout-ms:10000}") long confirmTimeoutMs) {
+        this.orderRepository = orderRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.pageSize = pageSize;
+        this.defaultRate = defaultRate;
+        this.maxRate = maxRate;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.published = Counter.builder("order.replay.published").register(meterRegistry);
+    }
+
+    /**
+     * Pokrece novi replay ili nastavlja prekinut replay istog imena od njegovog checkpoint-a.
+     */
+    public ReplayStatusResponse start(ReplayRequest request) {
+        int rate = request.getRatePerSecond() != null ? request.getRatePerSecond() : defaultRate;
+        if (rate > maxRate) {
+            throw new IllegalArgumentException("Replay rate exceeds maximum of " + maxRate + " events per second");
+        }
+
+        ActiveReplay replay = new ActiveReplay(request.getName(), new AtomicBoolean());
+        if (!active.compareAndSet(null, replay)) {
+            throw new IllegalArgumentException("Replay already running: " + active.get().name());
+        }
+        try {
+            ReplayCheckpoint checkpoint = checkpointRepository.findById(request.getName())
+                    .map(existing -> resume(existing, request))
+                    .orElseGet(() -> ReplayCheckpoint.builder()
+                            .name(request.getName())
+                            .routingKey(request.getRoutingKey())
+                            .build());
+            checkpoint.setRatePerSecond(rate);
+            checkpoint.setStatus(ReplayStatus.RUNNING);
+            checkpoint.setError(null);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpoint = checkpointRepository.save(checkpoint);
+
+            log.info("Starting order replay '{}' to routing key {} at {} events/s from order {}",
+                    checkpoint.getName(), checkpoint.getRoutingKey(), rate, checkpoint.getLastOrderId());
+            executor.execute(() -> run(replay.name(), replay.stopRequested()));
+            return toResponse(checkpoint);
+        } catch (RuntimeException e) {
+            active.set(null);
+            throw e;
+        }
+    }
+
+    /**
+     * Zaustavlja replay posle tekuce stranice; checkpoint ostaje za kasniji nastavak.
+     */
+    public ReplayStatusResponse stop(String name) {
+        ActiveReplay replay = active.get();
+        if (replay == null || !replay.name().equals(name)) {
+            throw new IllegalArgumentException("Replay is not running: " + name);
+        }
+        replay.stopRequested().set(true);
+        return getStatus(name);
+    }
+
+    public ReplayStatusResponse getStatus(String name) {
+        return checkpointRepository.findById(name)
+                .map(this::toResponse)
+                .orElseThrow(() -> new IllegalArgumentException("Replay not found: " + name));
+    }
+
+    public List<ReplayStatusResponse> getAll() {
+        return checkpointRepository.findAll().stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ActiveReplay replay = active.get();
+        if (replay != null) {
+            replay.stopRequested().set(true);
+        }
+        executor.shutdown();
+    }
+
+    void run(String name, AtomicBoolean stopRequested) {
+        ReplayCheckpoint checkpoint = checkpointRepository.findById(name)
+                .orElseThrow(() -> new IllegalArgumentException("Replay not found: " + name));
+        int rate = checkpoint.getRatePerSecond();
+        // stranica ne veca od jedne sekunde objave - ravnomerniji tok, manji talasi ka broker-u
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(pageSize, rate)));
+        LocalDateTime cursorCreatedAt = checkpoint.getLastCreatedAt() != null ? checkpoint.getLastCreatedAt() : START;
+        long cursorId = checkpoint.getLastOrderId() != null ? checkpoint.getLastOrderId() : 0L;
+
+        long startedAt = System.nanoTime();
+        long sent = 0;
+        try {
+            while (!stopRequested.get()) {
+                List<Order> orders = orderRepository.findPageAfter(cursorCreatedAt, cursorId, page);
+                if (orders.isEmpty()) {
+                    finish(checkpoint, ReplayStatus.COMPLETED, null);
+                    return;
+                }
+                publish(name, checkpoint.getRoutingKey(), orders);
+
+                Order last = orders.get(orders.size() - 1);
+                cursorCreatedAt = last.getCreatedAt();
+                cursorId = last.getId();
+                checkpoint.setLastCreatedAt(cursorCreatedAt);
+                checkpoint.setLastOrderId(cursorId);
+                checkpoint.setPublished(checkpoint.getPublished() + orders.size());
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                checkpoint = checkpointRepository.save(checkpoint);
+                published.increment(orders.size());
+
+                sent += orders.size();
+                pace(startedAt, sent, rate);
+            }
+            finish(checkpoint, ReplayStatus.STOPPED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(checkpoint, ReplayStatus.STOPPED, null);
+        } catch (RuntimeException e) {
+            log.error("Order replay '{}' failed after order {}: {}", name, cursorId, e.getMessage());
+            finish(checkpoint, ReplayStatus.FAILED, e.getMessage());
+        } finally {
+            active.set(null);
+        }
+    }
+
+    private ReplayCheckpoint resume(ReplayCheckpoint existing, ReplayRequest request) {
+        if (request.isRestart()) {
+            existing.setRoutingKey(request.getRoutingKey());
+            existing.setLastCreatedAt(null);
+            existing.setLastOrderId(null);
+            existing.setPublished(0L);
+            return existing;
+        }
+        if (!existing.getRoutingKey().equals(request.getRoutingKey())) {
+            throw new IllegalArgumentException("Replay " + existing.getName() + " targets routing key "
+                    + existing.getRoutingKey() + "; set restart to replay to a different key");
+        }
+        if (existing.getStatus() == ReplayStatus.COMPLETED) {
+            throw new IllegalArgumentException("Replay " + existing.getName()
+                    + " already completed; set restart to replay again");
+        }
+        return existing;
+    }
+
+    private void publish(String name, String routingKey, List<Order> orders) {
+        rabbitTemplate.invoke(operations -> {
+            for (Order order : orders) {
+                operations.convertAndSend(RabbitMQConfig.EXCHANGE, routingKey, toEvent(order), message -> {
+                    message.getMessageProperties().setHeader(REPLAY_HEADER, name);
+                    return message;
+                });
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+
+    /**
+     * Cekanje dok objavljeni broj ne odgovara zadatoj brzini od pocetka replay-a.
+     */
+    private static void pace(long startedAt, long sent, int rate) throws InterruptedException {
+        long due = startedAt + sent * TimeUnit.SECONDS.toNanos(1) / rate;
+        long ahead = due - System.nanoTime();
+        if (ahead > 0) {
+            TimeUnit.NANOSECONDS.sleep(ahead);
+        }
+    }
+
+    private void finish(ReplayCheckpoint checkpoint, ReplayStatus status, String error) {
+        checkpoint.setStatus(status);
+        checkpoint.setError(error);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        log.info("Order replay '{}' {} after {} events", checkpoint.getName(), status, checkpoint.getPublished());
+    }
+
+    private OrderCreatedEvent toEvent(Order order) {
+        return OrderCreatedEvent.builder()
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .bookId(order.getBookId())
+                .quantity(order.getQuantity())
+                .totalPrice(order.getTotalPrice())
+                .build();
+    }
+
+    private ReplayStatusResponse toResponse(ReplayCheckpoint checkpoint) {
+        return ReplayStatusResponse.builder()
+                .name(checkpoint.getName())
+                .routingKey(checkpoint.getRoutingKey())
+                .ratePerSecond(checkpoint.getRatePerSecond())
+                .status(checkpoint.getStatus())
+                .published(checkpoint.getPublished())
+                .lastOrderId(checkpoint.getLastOrderId())
+                .lastCreatedAt(checkpoint.getLastCreatedAt())
+                .error(checkpoint.getError())
+                .updatedAt(checkpoint.getUpdatedAt())
+                .build();
+    }
+
+    private record ActiveReplay(String name, AtomicBoolean stopRequested) {
+    }
+}
@@ -1,13 +1,24 @@
 package com.bookstore.order.repository;
 
 import com.bookstore.order.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     List<Order> findByBookId(Long bookId);
+
+    /**
+     * Sledeca stranica porudzbina posle kursora (createdAt, id), u redosledu nastanka.
+     */
+    @Query("SELECT o FROM Order o WHERE o.createdAt > :createdAt OR (o.createdAt = :createdAt AND o.id > :id) "
+            + "ORDER BY o.createdAt, o.id")
+    List<Order> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
 }
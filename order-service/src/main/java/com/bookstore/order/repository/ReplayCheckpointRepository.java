@@ -0,0 +1,9 @@
+package com.bookstore.order.repository;
+
+import com.bookstore.order.model.ReplayCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReplayCheckpointRepository extends JpaRepository<ReplayCheckpoint, String> {
+}
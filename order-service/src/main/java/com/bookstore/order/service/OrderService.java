@@ -3,9 +3,12 @@ package com.bookstore.order.service;
 import com.bookstore.order.config.RabbitMQConfig;
 import com.bookstore.order.dto.OrderRequest;
 import com.bookstore.order.dto.OrderResponse;
-import com.bookstore.order.messaging.OrderCreatedEvent;
+import com.bookstore.events.OrderCreatedEvent;
+import com.bookstore.order.bestsellers.Bestsellers;
+import com.bookstore.order.messaging.OrderEventRouting;
 import com.bookstore.order.model.Order;
 import com.bookstore.order.repository.OrderRepository;
+import com.bookstore.order.users.KnownUsers;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -25,15 +28,24 @@ public class OrderService {
     private final RabbitTemplate rabbitTemplate;
     private final WebClient userServiceClient;
     private final WebClient bookServiceClient;
+    private final KnownUsers knownUsers;
+    private final OrderEventRouting orderEventRouting;
+    private final Bestsellers bestsellers;
 
     public OrderService(OrderRepository orderRepository,
                         RabbitTemplate rabbitTemplate,
                         @Qualifier("userServiceClient") WebClient userServiceClient,
-                        @Qualifier("bookServiceClient") WebClient bookServiceClient) {
+                        @Qualifier("bookServiceClient") WebClient bookServiceClient,
+                        KnownUsers knownUsers,
+                        OrderEventRouting orderEventRouting,
+                        Bestsellers bestsellers) {
         this.orderRepository = orderRepository;
         this.rabbitTemplate = rabbitTemplate;
         this.userServiceClient = userServiceClient;
         this.bookServiceClient = bookServiceClient;
+        this.knownUsers = knownUsers;
+        this.orderEventRouting = orderEventRouting;
+        this.bestsellers = bestsellers;
     }
 
     public OrderResponse createOrder(OrderRequest request) {
@@ -65,7 +77,7 @@ public class OrderService {
 
         Order saved = orderRepository.save(order);
         log.info("Order created with id: {}", saved.getId());
-
+        bestsellers.record(saved);
 
         updateStock(request.getBookId(), -request.getQuantity());
 
@@ -81,7 +93,7 @@ public class OrderService {
 
         rabbitTemplate.convertAndSend(
                 RabbitMQConfig.EXCHANGE,
-                RabbitMQConfig.ORDER_CREATED_ROUTING_KEY,
+                orderEventRouting.routingKey(saved.getBookId()),
                 event
         );
         log.info("OrderCreatedEvent published to RabbitMQ for orderId: {}", saved.getId());
@@ -111,16 +123,23 @@ public class OrderService {
     }
 
     private void validateUser(Long userId) {
+        // Lokalni skup korisnika - REST poziv samo kada id nije poznat
+        if (knownUsers.contains(userId)) {
+            log.debug("User {} validated from local user set", userId);
+            return;
+        }
         log.info("Validating user with id: {} via REST", userId);
         try {
-            userServiceClient.get()
+            // HEAD - user-service proverava samo postojanje, bez slanja i parsiranja UserResponse tela
+            userServiceClient.head()
                     .uri("/api/users/{id}", userId)
                     .retrieve()
-                    .bodyToMono(Map.class)
+                    .toBodilessEntity()
                     .block();
         } catch (Exception e) {
             throw new IllegalArgumentException("User not found with id: " + userId);
         }
+        knownUsers.add(userId);
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,104 @@
+package com.bookstore.order.users;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+
+/**
+ * Lokalna kopija skupa postojecih korisnika, da createOrder ne bi za svaku porudzbinu
+ * pozivao user-service.
+ *
+ * Skup se puni snimkom svih id-jeva iz user-service (GET /api/users/ids) i odrzava
+ * dogadjajima user.created / user.deleted. Prisutan id je validan bez REST poziva;
+ * odsutan id je neodredjen (dogadjaj mozda jos nije stigao) i proverava se preko REST-a.
+ */
+@Component
+@Slf4j
+public class KnownUsers {
+
+    private static final ParameterizedTypeReference<List<Long>> ID_LIST = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient userServiceClient;
+    private final int snapshotPageSize;
+
+    private volatile UserIdSet users = new UserIdSet();
+    private volatile UserIdSet reloading;
+    private volatile boolean loaded;
+
+    public KnownUsers(@Qualifier("userServiceClient") WebClient userServiceClient,
+                      MeterRegistry meterRegistry,
+                      @Value("${bookstore.known-users.snapshot-page-size:10000}") int snapshotPageSize) {
+        this.userServiceClient = userServiceClient;
+        this.snapshotPageSize = snapshotPageSize;
+        Gauge.builder("order.known.users", this, k -> k.users.size()).register(meterRegistry);
+        Gauge.builder("order.known.users.memory", this, k -> k.users.memoryBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ponovno ucitavanje snimka ispravlja propustene dogadjaje (npr. dok servis nije radio).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${bookstore.known-users.resync-interval-ms:900000}",
+            fixedDelayString = "${bookstore.known-users.resync-interval-ms:900000}")
+    public void reload() {
+        UserIdSet fresh = new UserIdSet();
+        reloading = fresh;
+        try {
+            long afterId = 0;
+            List<Long> page;
+            do {
+                page = userServiceClient.get()
+                        .uri("/api/users/ids?afterId={afterId}&limit={limit}", afterId, snapshotPageSize)
+                        .retrieve()
+                        .bodyToMono(ID_LIST)
+                        .block();
+                if (page == null || page.isEmpty()) {
+                    break;
+                }
+                page.forEach(fresh::add);
+                afterId = page.get(page.size() - 1);
+            } while (page.size() == snapshotPageSize);
+
+            users = fresh;
+            loaded = true;
+            log.info("Known users snapshot loaded: {} ids, {} KB", fresh.size(), fresh.memoryBytes() / 1024);
+        } catch (Exception e) {
+            log.warn("Could not load known users snapshot, falling back to REST validation: {}", e.getMessage());
+        } finally {
+            reloading = null;
+        }
+    }
+
+    public boolean contains(Long userId) {
+        return loaded && users.contains(userId);
+    }
+
+    public void add(Long userId) {
+        users.add(userId);
+        UserIdSet next = reloading;
+        if (next != null) {
+            next.add(userId);
+        }
+    }
+
+    public void remove(Long userId) {
+        users.remove(userId);
+        UserIdSet next = reloading;
+        if (next != null) {
+            next.remove(userId);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bookstore.order.users;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Kompaktan skup id-jeva (bitmapa po stranicama od 65536 id-jeva, kao kontejneri u Roaring bitmapi).
+ * Sekvencijalni id-jevi zauzimaju ~1 bit po korisniku; stranice se alociraju tek kada zatrebaju.
+ * Sve operacije su bez zakljucavanja.
+ */
+public class UserIdSet {
+
+    private static final int PAGE_BITS = 16;
+    private static final int WORDS_PER_PAGE = (1 << PAGE_BITS) / 64;
+
+    private final Map<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+    private final AtomicLong cardinality = new AtomicLong();
+
+    public boolean add(long id) {
+        AtomicLongArray page = pages.computeIfAbsent(id >>> PAGE_BITS, key -> new AtomicLongArray(WORDS_PER_PAGE));
+        int word = (int) (id & 0xFFFF) >>> 6;
+        long mask = 1L << id;
+        long current;
+        do {
+            current = page.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!page.compareAndSet(word, current, current | mask));
+        cardinality.incrementAndGet();
+        return true;
+    }
+
+    public boolean remove(long id) {
+        AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        if (page == null) {
+            return false;
+        }
+        int word = (int) (id & 0xFFFF) >>> 6;
+        long mask = 1L << id;
+        long current;
+        do {
+            current = page.get(word);
+            if ((current & mask) == 0) {
+                return false;
+            }
+        } while (!page.compareAndSet(word, current, current & ~mask));
+        cardinality.decrementAndGet();
+        return true;
+    }
+
+    public boolean contains(long id) {
+        AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        return page != null && (page.get((int) (id & 0xFFFF) >>> 6) & (1L << id)) != 0;
+    }
+
+    public long size() {
+        return cardinality.get();
+    }
+
+    public long memoryBytes() {
+        return (long) pages.size() * WORDS_PER_PAGE * Long.BYTES;
+    }
+}
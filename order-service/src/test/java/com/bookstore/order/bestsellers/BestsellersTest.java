@@ -0,0 +1,143 @@
+package com.bookstore.order.bestsellers;
+
+import com.bookstore.order.bestsellers.Bestsellers.Window;
+import com.bookstore.order.dto.BestsellerResponse;
+import com.bookstore.order.dto.OrderRateResponse;
+import com.bookstore.order.model.Order;
+import com.bookstore.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BestsellersTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 30, 15);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private Bestsellers bestsellers;
+
+    @BeforeEach
+    void setUp() {
+        bestsellers = new Bestsellers(orderRepository, new SimpleMeterRegistry(), 10, 1000);
+    }
+
+    @Test
+    void top_ranksByQuantityWithinWindow() {
+        bestsellers.record(1L, 2, NOW.minusMinutes(5));
+        bestsellers.record(2L, 5, NOW.minusMinutes(1));
+        bestsellers.record(1L, 1, NOW);
+        // van poslednjeg sata, ali u poslednjem danu
+        bestsellers.record(3L, 50, NOW.minusHours(3));
+
+        assertThat(bestsellers.top(Window.HOUR, 10, NOW))
+                .extracting(BestsellerResponse::getBookId, BestsellerResponse::getQuantity)
+                .containsExactly(tuple(2L, 5L), tuple(1L, 3L));
+        assertThat(bestsellers.top(Window.DAY, 2, NOW))
+                .extracting(BestsellerResponse::getBookId)
+                .containsExactly(3L, 2L);
+    }
+
+    @Test
+    void top_windowSlidesPastExpiredBuckets() {
+        bestsellers.record(1L, 4, NOW);
+
+        assertThat(bestsellers.top(Window.HOUR, 10, NOW.plusMinutes(59))).hasSize(1);
+        assertThat(bestsellers.top(Window.HOUR, 10, NOW.plusMinutes(60))).isEmpty();
+        assertThat(bestsellers.top(Window.DAY, 10, NOW.plusHours(24))).isEmpty();
+    }
+
+    @Test
+    void top_boundedSummaryKeepsHeavyHittersUnderSkew() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            // 30% prodaje na knjige 1-3, ostalo rasuto po 5000 knjiga
+            long bookId = random.nextInt(10) < 3 ? 1 + random.nextInt(3) : 100 + random.nextInt(5000);
+            bestsellers.record(bookId, 1, NOW);
+        }
+
+        List<BestsellerResponse> top = bestsellers.top(Window.HOUR, 3, NOW);
+
+        assertThat(top).extracting(BestsellerResponse::getBookId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(bestsellers.trackedBooks()).isLessThanOrEqualTo(20);
+    }
+
+    @Test
+    void rate_reportsEveryBucketOldestFirst() {
+        bestsellers.record(1L, 2, NOW);
+        bestsellers.record(2L, 1, NOW);
+        bestsellers.record(1L, 3, NOW.minusMinutes(2));
+
+        List<OrderRateResponse> rate = bestsellers.rate(Window.HOUR, NOW);
+
+        assertThat(rate).hasSize(60);
+        assertThat(rate.get(59).getBucketStart()).isEqualTo(NOW.withSecond(0));
+        assertThat(rate.get(59).getOrders()).isEqualTo(2);
+        assertThat(rate.get(59).getQuantity()).isEqualTo(3);
+        assertThat(rate.get(57).getOrders()).isEqualTo(1);
+        assertThat(rate.get(58).getOrders()).isZero();
+    }
+
+    @Test
+    void rehydrate_loadsRecentOrders() {
+        LocalDateTime recent = LocalDateTime.now().minusMinutes(10);
+        when(orderRepository.findPageAfter(any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(order(1L, 7L, 3, recent), order(2L, 8L, 1, recent.plusMinutes(1))));
+
+        bestsellers.rehydrate();
+
+        assertThat(bestsellers.top(Window.DAY, 10))
+                .extracting(BestsellerResponse::getBookId, BestsellerResponse::getQuantity)
+                .containsExactly(tuple(7L, 3L), tuple(8L, 1L));
+    }
+
+    @Test
+    void rehydrate_skipsOrdersRecordedSinceStartup() {
+        LocalDateTime beforeStart = LocalDateTime.now().minusMinutes(10);
+        Order sinceStart = order(2L, 8L, 4, LocalDateTime.now());
+        // porudzbina primljena pre ApplicationReadyEvent je vec zabelezena kroz record
+        bestsellers.record(sinceStart);
+        when(orderRepository.findPageAfter(any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(order(1L, 7L, 3, beforeStart), sinceStart));
+
+        bestsellers.rehydrate();
+
+        assertThat(bestsellers.top(Window.DAY, 10))
+                .extracting(BestsellerResponse::getBookId, BestsellerResponse::getQuantity)
+                .containsExactly(tuple(8L, 4L), tuple(7L, 3L));
+    }
+
+    @Test
+    void parse_unknownWindow_throwsException() {
+        assertThat(Window.parse("Day")).isEqualTo(Window.DAY);
+        assertThatThrownBy(() -> Window.parse("week"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown window");
+    }
+
+    private Order order(long id, long bookId, int quantity, LocalDateTime createdAt) {
+        return Order.builder()
+                .id(id)
+                .userId(10L)
+                .bookId(bookId)
+                .quantity(quantity)
+                .totalPrice(new BigDecimal("9.99"))
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.bookstore.order.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Slf4j
+class WebClientConfigTest {
+
+    private static final int REQUESTS = 2_000;
+    private static final int CONCURRENCY = 32;
+    private static final String BOOK = "{\"id\":1,\"title\":\"Clean Code\",\"price\":39.99,\"stock\":10}";
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private DisposableServer server;
+
+    @BeforeEach
+    void startServer() {
+        server = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                // po TCP konekciji; doOnConnection se poziva po zahtevu
+                .doOnChannelInit((observer, channel, address) -> connections.incrementAndGet())
+                .route(routes -> routes
+                        .get("/api/books/{id}", (request, response) -> response.sendString(Mono.just(BOOK)))
+                        .get("/slow", (request, response) -> response.sendString(
+                                Mono.just("ok").delayElement(Duration.ofMillis(200)))))
+                .bindNow();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.disposeNow();
+    }
+
+    private WebClient client(ConnectionProvider provider, boolean h2c) {
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + server.port())
+                .clientConnector(new ReactorClientHttpConnector(
+                        WebClientConfig.httpClient(provider, Duration.ofSeconds(1), Duration.ofSeconds(5), h2c, false)))
+                .build();
+    }
+
+    private static ConnectionProvider pool(int maxConnections, int pendingAcquireMaxCount) {
+        return ConnectionProvider.builder("test")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    /**
+     * @return [zahteva u sekundi, p50 us, p99 us, otvorenih konekcija]
+     */
+    private long[] load(WebClient client) {
+        connections.set(0);
+        long start = System.nanoTime();
+        long[] latencies = Flux.range(0, REQUESTS)
+                .flatMap(i -> Mono.fromSupplier(System::nanoTime)
+                        .flatMap(sent -> client.get().uri("/api/books/{id}", i % 100)
+                                .retrieve()
+                                .bodyToMono(String.class)
+                                .map(body -> System.nanoTime() - sent)), CONCURRENCY)
+                .collectList()
+                .block(Duration.ofSeconds(60))
+                .stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new long[]{
+                REQUESTS * 1_000_000_000L / elapsed,
+                latencies[latencies.length / 2] / 1_000,
+                latencies[latencies.length * 99 / 100] / 1_000,
+                connections.get()
+        };
+    }
+
+    /**
+     * Benchmark: isti teret kroz pool, bez pool-a (nova konekcija po zahtevu) i kroz h2c.
+     * Pokrece se samo sa -Pbenchmark; rezultat se loguje, proverava se samo broj otvorenih konekcija.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmark_pooledVsNewConnectionPerRequest() {
+        ConnectionProvider pooled = pool(CONCURRENCY, 200);
+        ConnectionProvider h2c = pool(CONCURRENCY, 200);
+        try {
+            // zagrevanje JIT-a pre merenja
+            load(client(pooled, false));
+
+            long[] withPool = load(client(pooled, false));
+            long[] withoutPool = load(client(ConnectionProvider.newConnection(), false));
+            long[] withH2c = load(client(h2c, true));
+
+            log.info("HTTP/1.1 pool: {} req/s, p50 {} us, p99 {} us, {} connections",
+                    withPool[0], withPool[1], withPool[2], withPool[3]);
+            log.info("No pool:       {} req/s, p50 {} us, p99 {} us, {} connections",
+                    withoutPool[0], withoutPool[1], withoutPool[2], withoutPool[3]);
+            log.info("h2c pool:      {} req/s, p50 {} us, p99 {} us, {} connections",
+                    withH2c[0], withH2c[1], withH2c[2], withH2c[3]);
+
+            // konekcije iz zagrevanja ostaju u pool-u
+            assertThat(withPool[3]).isLessThanOrEqualTo(CONCURRENCY);
+            assertThat(withoutPool[3]).isEqualTo(REQUESTS);
+            assertThat(withH2c[3]).isLessThanOrEqualTo(CONCURRENCY);
+        } finally {
+            pooled.dispose();
+            h2c.dispose();
+        }
+    }
+
+    @Test
+    void fullPool_rejectsRequestsBeyondPendingLimit() {
+        ConnectionProvider provider = pool(1, 2);
+        try {
+            WebClient client = client(provider, false);
+            AtomicInteger rejected = new AtomicInteger();
+
+            long succeeded = Flux.range(0, 10)
+                    .flatMap(i -> client.get().uri("/slow")
+                            .retrieve()
+                            .bodyToMono(String.class)
+                            .onErrorResume(e -> {
+                                rejected.incrementAndGet();
+                                return Mono.empty();
+                            }), 10)
+                    .count()
+                    .block(Duration.ofSeconds(10));
+
+            // jedan zahtev na konekciji, dva u redu, ostali odmah odbijeni
+            assertThat(succeeded).isEqualTo(3);
+            assertThat(rejected).hasValue(7);
+        } finally {
+            provider.dispose();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bookstore.order.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderEventRoutingTest {
+
+    @Test
+    void singlePartition_keepsPlainRoutingKey() {
+        assertThat(new OrderEventRouting(1).routingKey(42L)).isEqualTo("order.created");
+    }
+
+    @Test
+    void sameBook_alwaysRoutesToSamePartition() {
+        OrderEventRouting routing = new OrderEventRouting(4);
+
+        assertThat(routing.routingKey(42L)).isEqualTo(routing.routingKey(42L)).matches("order\\.created\\.[0-3]");
+    }
+
+    @Test
+    void sequentialBookIds_spreadOverAllPartitions() {
+        OrderEventRouting routing = new OrderEventRouting(4);
+        long[] counts = new long[4];
+        LongStream.rangeClosed(1, 10_000).forEach(bookId -> counts[routing.partition(bookId)]++);
+
+        for (long count : counts) {
+            assertThat(count).isBetween(2_000L, 3_000L);
+        }
+    }
+
+    @Test
+    void nonPositivePartitions_rejected() {
+        assertThatThrownBy(() -> new OrderEventRouting(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
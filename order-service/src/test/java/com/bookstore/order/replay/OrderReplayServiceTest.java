@@ -0,0 +1,213 @@
+package com.bookstore.order.replay;
+
+import com.bookstore.events.OrderCreatedEvent;
+import com.bookstore.order.config.RabbitMQConfig;
+import com.bookstore.order.dto.ReplayRequest;
+import com.bookstore.order.model.Order;
+import com.bookstore.order.model.ReplayCheckpoint;
+import com.bookstore.order.model.ReplayCheckpoint.ReplayStatus;
+import com.bookstore.order.repository.OrderRepository;
+import com.bookstore.order.repository.ReplayCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderReplayServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ReplayCheckpointRepository checkpointRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RabbitOperations operations;
+
+    private OrderReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        // stranice od po 2 porudzbine, brzina dovoljno velika da test ne ceka
+        replayService = new OrderReplayService(orderRepository, checkpointRepository, rabbitTemplate,
+                new SimpleMeterRegistry(), 2, 1_000_000, 1_000_000, 1000);
+    }
+
+    private Order order(long id, LocalDateTime createdAt) {
+        return Order.builder()
+                .id(id)
+                .userId(10L)
+                .bookId(id * 3)
+                .quantity(1)
+                .totalPrice(new BigDecimal("9.99"))
+                .status(Order.OrderStatus.CONFIRMED)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private ReplayCheckpoint checkpoint(ReplayStatus status) {
+        return ReplayCheckpoint.builder()
+                .name("reviews-backfill")
+                .routingKey("replay.order.created")
+                .ratePerSecond(1_000_000)
+                .status(status)
+                .updatedAt(T0)
+                .build();
+    }
+
+    private ReplayRequest request(String routingKey, boolean restart) {
+        ReplayRequest request = new ReplayRequest();
+        request.setName("reviews-backfill");
+        request.setRoutingKey(routingKey);
+        request.setRestart(restart);
+        return request;
+    }
+
+    private static RabbitOperations.OperationsCallback<Object> anyCallback() {
+        return any();
+    }
+
+    private void publishingSucceeds() {
+        when(rabbitTemplate.invoke(anyCallback()))
+                .thenAnswer(inv -> inv.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(operations));
+    }
+
+    @Test
+    void run_publishesAllPagesInCursorOrderAndCompletes() {
+        ReplayCheckpoint checkpoint = checkpoint(ReplayStatus.RUNNING);
+        when(checkpointRepository.findById("reviews-backfill")).thenReturn(Optional.of(checkpoint));
+        when(checkpointRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        // dve porudzbine sa istim createdAt - kursor ih razlikuje po id-u
+        when(orderRepository.findPageAfter(any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(order(1, T0), order(2, T0)))
+                .thenReturn(List.of(order(3, T0.plusSeconds(1))))
+                .thenReturn(List.of());
+        publishingSucceeds();
+
+        replayService.run("reviews-backfill", new AtomicBoolean());
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(operations, times(3)).convertAndSend(eq(RabbitMQConfig.EXCHANGE), eq("replay.order.created"),
+                events.capture(), any(MessagePostProcessor.class));
+        assertThat(events.getAllValues()).extracting(e -> ((OrderCreatedEvent) e).getOrderId())
+                .containsExactly(1L, 2L, 3L);
+        verify(operations, times(2)).waitForConfirmsOrDie(1000);
+
+        verify(orderRepository).findPageAfter(eq(T0), eq(2L), any(Pageable.class));
+        verify(orderRepository).findPageAfter(eq(T0.plusSeconds(1)), eq(3L), any(Pageable.class));
+        assertThat(checkpoint.getStatus()).isEqualTo(ReplayStatus.COMPLETED);
+        assertThat(checkpoint.getPublished()).isEqualTo(3L);
+        assertThat(checkpoint.getLastOrderId()).isEqualTo(3L);
+    }
+
+    @Test
+    void run_resumesFromCheckpoint() {
+        ReplayCheckpoint checkpoint = checkpoint(ReplayStatus.RUNNING);
+        checkpoint.setLastCreatedAt(T0);
+        checkpoint.setLastOrderId(42L);
+        checkpoint.setPublished(42L);
+        when(checkpointRepository.findById("reviews-backfill")).thenReturn(Optional.of(checkpoint));
+        when(checkpointRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(orderRepository.findPageAfter(any(), anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        replayService.run("reviews-backfill", new AtomicBoolean());
+
+        verify(orderRepository).findPageAfter(eq(T0), eq(42L), any(Pageable.class));
+        verifyNoInteractions(rabbitTemplate);
+        assertThat(checkpoint.getStatus()).isEqualTo(ReplayStatus.COMPLETED);
+        assertThat(checkpoint.getPublished()).isEqualTo(42L);
+    }
+
+    @Test
+    void run_failedPublish_keepsLastConfirmedCursor() {
+        ReplayCheckpoint checkpoint = checkpoint(ReplayStatus.RUNNING);
+        when(checkpointRepository.findById("reviews-backfill")).thenReturn(Optional.of(checkpoint));
+        when(checkpointRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(orderRepository.findPageAfter(any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(order(1, T0), order(2, T0)))
+                .thenReturn(List.of(order(3, T0.plusSeconds(1))));
+        when(rabbitTemplate.invoke(anyCallback()))
+                .thenReturn(null)
+                .thenThrow(new AmqpException("confirm timeout"));
+
+        replayService.run("reviews-backfill", new AtomicBoolean());
+
+        assertThat(checkpoint.getStatus()).isEqualTo(ReplayStatus.FAILED);
+        assertThat(checkpoint.getError()).isEqualTo("confirm timeout");
+        assertThat(checkpoint.getLastOrderId()).isEqualTo(2L);
+        assertThat(checkpoint.getPublished()).isEqualTo(2L);
+    }
+
+    @Test
+    void run_stopRequested_stopsBeforeNextPage() {
+        ReplayCheckpoint checkpoint = checkpoint(ReplayStatus.RUNNING);
+        when(checkpointRepository.findById("reviews-backfill")).thenReturn(Optional.of(checkpoint));
+        when(checkpointRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        replayService.run("reviews-backfill", new AtomicBoolean(true));
+
+        verifyNoInteractions(orderRepository, rabbitTemplate);
+        assertThat(checkpoint.getStatus()).isEqualTo(ReplayStatus.STOPPED);
+    }
+
+    @Test
+    void start_completedReplayWithoutRestart_throwsException() {
+        when(checkpointRepository.findById("reviews-backfill")).thenReturn(Optional.of(checkpoint(ReplayStatus.COMPLETED)));
+
+        assertThatThrownBy(() -> replayService.start(request("replay.order.created", false)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("already completed");
+        verify(checkpointRepository, never()).save(any());
+    }
+
+    @Test
+    void start_differentRoutingKeyWithoutRestart_throwsException() {
+        when(checkpointRepository.findById("reviews-backfill")).thenReturn(Optional.of(checkpoint(ReplayStatus.STOPPED)));
+
+        assertThatThrownBy(() -> replayService.start(request("other.key", false)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("targets routing key replay.order.created");
+    }
+
+    @Test
+    void start_rateAboveMaximum_throwsException() {
+        ReplayRequest request = request("replay.order.created", false);
+        request.setRatePerSecond(2_000_000);
+
+        assertThatThrownBy(() -> replayService.start(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exceeds maximum");
+        verifyNoInteractions(checkpointRepository);
+    }
+
+    @Test
+    void stop_notRunning_throwsException() {
+        assertThatThrownBy(() -> replayService.stop("reviews-backfill"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not running");
+    }
+}
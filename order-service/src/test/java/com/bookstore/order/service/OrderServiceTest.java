@@ -1,8 +1,11 @@
 package com.bookstore.order.service;
 
+import com.bookstore.order.bestsellers.Bestsellers;
 import com.bookstore.order.dto.OrderResponse;
 import com.bookstore.order.model.Order;
 import com.bookstore.order.repository.OrderRepository;
+import com.bookstore.order.messaging.OrderEventRouting;
+import com.bookstore.order.users.KnownUsers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,13 +41,20 @@ class OrderServiceTest {
     @Mock
     private WebClient bookServiceClient;
 
+    @Mock
+    private KnownUsers knownUsers;
+
+    @Mock
+    private Bestsellers bestsellers;
+
     private OrderService orderService;
 
     // Ručna konstrukcija jer konstruktor prima @Qualifier WebClient parametre
     // koje @InjectMocks ne može jednoznačno da razreši (isti tip, dva bina)
     @BeforeEach
     void setUp() {
-        orderService = new OrderService(orderRepository, rabbitTemplate, userServiceClient, bookServiceClient);
+        orderService = new OrderService(orderRepository, rabbitTemplate, userServiceClient, bookServiceClient, knownUsers,
+                new OrderEventRouting(1), bestsellers);
     }
 
     private Order buildOrder() {
@@ -0,0 +1,57 @@
+package com.bookstore.order.users;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UserIdSetTest {
+
+    @Test
+    void addContainsRemove() {
+        UserIdSet set = new UserIdSet();
+
+        assertThat(set.add(42L)).isTrue();
+        assertThat(set.add(42L)).isFalse();
+        assertThat(set.contains(42L)).isTrue();
+        assertThat(set.contains(43L)).isFalse();
+
+        assertThat(set.remove(42L)).isTrue();
+        assertThat(set.remove(42L)).isFalse();
+        assertThat(set.contains(42L)).isFalse();
+        assertThat(set.size()).isZero();
+    }
+
+    @Test
+    void sparseIdsAllocateOnlyTouchedPages() {
+        UserIdSet set = new UserIdSet();
+
+        set.add(1L);
+        set.add(5_000_000_000L);
+
+        assertThat(set.contains(5_000_000_000L)).isTrue();
+        assertThat(set.contains(5_000_000_001L)).isFalse();
+        assertThat(set.memoryBytes()).isEqualTo(2 * 8 * 1024);
+    }
+
+    @Test
+    void millionSequentialIdsFitInAboutOneBitEach() {
+        UserIdSet set = new UserIdSet();
+
+        LongStream.rangeClosed(1, 1_000_000).forEach(set::add);
+
+        assertThat(set.size()).isEqualTo(1_000_000);
+        assertThat(set.memoryBytes()).isLessThan(200 * 1024);
+    }
+
+    @Test
+    void concurrentAddsAreNotLost() {
+        UserIdSet set = new UserIdSet();
+
+        IntStream.range(0, 100_000).parallel().forEach(set::add);
+
+        assertThat(set.size()).isEqualTo(100_000);
+    }
+}
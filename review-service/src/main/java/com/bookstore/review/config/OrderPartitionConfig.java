@@ -0,0 +1,79 @@
+package com.bookstore.review.config;
+
+import com.bookstore.review.messaging.OrderEventListener;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.MethodRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Particionisana potrosnja OrderCreatedEvent-a.
+ *
+ * order-service rutira dogadjaje na order.created.&lt;p&gt; po hash-u bookId-a; ovde svaka particija
+ * ima svoj red sa single-active-consumer i svoj container sa tacno jednim consumer-om. Dogadjaji
+ * jedne knjige se tako obradjuju redom, a propusnost raste sa brojem particija.
+ * Broj particija treba da bude isti kao u order-service; neparticionisani red ostaje vezan za
+ * sve order.created kljuceve, pa se pri neslaganju dogadjaji obradjuju preko njega umesto da se izgube.
+ */
+@Configuration
+@ConditionalOnExpression("${bookstore.order-events.partitions:1} > 1")
+public class OrderPartitionConfig implements RabbitListenerConfigurer {
+
+    private final int partitions;
+    private final OrderEventListener orderEventListener;
+    private final SimpleRabbitListenerContainerFactory batchContainerFactory;
+
+    public OrderPartitionConfig(@Value("${bookstore.order-events.partitions}") int partitions,
+                                OrderEventListener orderEventListener,
+                                @Qualifier(RabbitMQConfig.BATCH_CONTAINER_FACTORY) SimpleRabbitListenerContainerFactory batchContainerFactory) {
+        this.partitions = partitions;
+        this.orderEventListener = orderEventListener;
+        this.batchContainerFactory = batchContainerFactory;
+    }
+
+    @Bean
+    public Declarables orderPartitionQueues(TopicExchange bookstoreExchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            // i kada se servis skalira na vise instanci, red cita samo jedan consumer
+            Queue queue = QueueBuilder.durable(RabbitMQConfig.partitionQueue(p)).singleActiveConsumer().build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(bookstoreExchange).with(RabbitMQConfig.partitionRoutingKey(p)));
+        }
+        return new Declarables(declarables);
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int p = 0; p < partitions; p++) {
+            registrar.registerEndpoint(partitionEndpoint(p), batchContainerFactory);
+        }
+    }
+
+    MethodRabbitListenerEndpoint partitionEndpoint(int partition) {
+        DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+        handlerMethodFactory.afterPropertiesSet();
+
+        MethodRabbitListenerEndpoint endpoint = new MethodRabbitListenerEndpoint();
+        endpoint.setId(OrderEventListener.LISTENER_ID + "-" + partition);
+        endpoint.setQueueNames(RabbitMQConfig.partitionQueue(partition));
+        endpoint.setBean(orderEventListener);
+        endpoint.setMethod(ReflectionUtils.findMethod(OrderEventListener.class, "handleOrderCreated", List.class));
+        endpoint.setMessageHandlerMethodFactory(handlerMethodFactory);
+        endpoint.setBatchListener(true);
+        // jedan consumer po particiji - redosled unutar particije; OrderQueueMonitor ove container-e ne skalira
+        endpoint.setConcurrency("1");
+        return endpoint;
+    }
+}
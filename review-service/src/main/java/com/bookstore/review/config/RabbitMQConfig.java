@@ -1,9 +1,13 @@
 package com.bookstore.review.config;
 
+import com.bookstore.events.codec.EventMessageConverters;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,6 +17,9 @@ public class RabbitMQConfig {
     public static final String EXCHANGE = "bookstore.exchange";
     public static final String ORDER_CREATED_QUEUE = "review.order.created";
     public static final String ORDER_CREATED_ROUTING_KEY = "order.created";
+    // pokriva i particionisane kljuceve order.created.<p>
+    public static final String ORDER_CREATED_BINDING_KEY = "order.created.#";
+    public static final String BATCH_CONTAINER_FACTORY = "batchContainerFactory";
 
     @Bean
     public TopicExchange bookstoreExchange() {
@@ -24,23 +31,62 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(ORDER_CREATED_QUEUE).build();
     }
 
+    public static String partitionQueue(int partition) {
+        return ORDER_CREATED_QUEUE + "." + partition;
+    }
+
+    public static String partitionRoutingKey(int partition) {
+        return ORDER_CREATED_ROUTING_KEY + "." + partition;
+    }
+
+    // Vezivanje ostaje i u particionisanom rezimu - ako order-service ima drugaciji broj particija
+    // (ili se broj menja tokom postepenog deploy-a), dogadjaj bez lokalnog particionog reda nije izgubljen.
+    // Dogadjaje koje je vec dobio particioni red OrderEventListener ovde preskace.
     @Bean
     public Binding reviewOrderCreatedBinding(Queue reviewOrderCreatedQueue, TopicExchange bookstoreExchange) {
         return BindingBuilder
                 .bind(reviewOrderCreatedQueue)
                 .to(bookstoreExchange)
-                .with(ORDER_CREATED_ROUTING_KEY);
+                .with(ORDER_CREATED_BINDING_KEY);
     }
 
+    /**
+     * Cita JSON i CBOR poruke prema content-type zaglavlju; salje u formatu iz konfiguracije.
+     */
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter(@Value("${bookstore.messaging.wire-format:json}") String wireFormat) {
+        return EventMessageConverters.create(wireFormat);
+    }
+
+    /**
+     * Paketni consumer: poruke se skupljaju do batch-size (ili dok receive-timeout ne istekne bez nove poruke),
+     * listener dobija ceo paket, a container ih potvrdjuje jednim ack-om nakon uspesne obrade.
+     */
+    @Bean(BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${bookstore.order-events.batch-size:100}") int batchSize,
+            @Value("${bookstore.order-events.receive-timeout-ms:200}") long receiveTimeoutMs,
+            @Value("${bookstore.order-events.prefetch:250}") int prefetch,
+            @Value("${bookstore.order-events.concurrency:1}") int concurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        // prefetch manji od paketa bi svaki paket zatvarao tek na receive-timeout
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        // pocetni broj consumer-a; dalje ga podesava OrderQueueMonitor prema zaostatku reda
+        factory.setConcurrentConsumers(concurrency);
+        return factory;
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(messageConverter());
+        template.setMessageConverter(messageConverter);
         return template;
     }
 }
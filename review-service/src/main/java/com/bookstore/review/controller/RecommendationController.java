@@ -0,0 +1,26 @@
+package com.bookstore.review.controller;
+
+import com.bookstore.review.dto.AlsoBoughtResponse;
+import com.bookstore.review.recommendation.CoPurchaseIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reviews")
+@RequiredArgsConstructor
+@Slf4j
+public class RecommendationController {
+
+    private final CoPurchaseIndex coPurchaseIndex;
+
+    @GetMapping("/book/{bookId}/also-bought")
+    public ResponseEntity<List<AlsoBoughtResponse>> getAlsoBought(@PathVariable Long bookId,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        log.info("GET /api/reviews/book/{}/also-bought", bookId);
+        return ResponseEntity.ok(coPurchaseIndex.alsoBought(bookId, limit));
+    }
+}
@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -34,9 +35,13 @@ public class ReviewController {
     }
 
     @GetMapping("/book/{bookId}")
-    public ResponseEntity<List<ReviewResponse>> getReviewsByBook(@PathVariable Long bookId) {
+    public ResponseEntity<List<ReviewResponse>> getReviewsByBook(@PathVariable Long bookId, WebRequest webRequest) {
         log.info("GET /api/reviews/book/{}", bookId);
-        return ResponseEntity.ok(reviewService.getReviewsByBook(bookId));
+        String etag = reviewService.getBookReviewsEtag(bookId);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(reviewService.getReviewsByBook(bookId));
     }
 
     @GetMapping("/user/{userId}")
@@ -46,8 +51,12 @@ public class ReviewController {
     }
 
     @GetMapping("/book/{bookId}/average-rating")
-    public ResponseEntity<Map<String, Double>> getAverageRating(@PathVariable Long bookId) {
+    public ResponseEntity<Map<String, Double>> getAverageRating(@PathVariable Long bookId, WebRequest webRequest) {
         log.info("GET /api/reviews/book/{}/average-rating", bookId);
-        return ResponseEntity.ok(Map.of("averageRating", reviewService.getAverageRating(bookId)));
+        String etag = "avg-" + reviewService.getBookReviewsEtag(bookId);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(Map.of("averageRating", reviewService.getAverageRating(bookId)));
     }
 }
@@ -0,0 +1,12 @@
+package com.bookstore.review.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AlsoBoughtResponse {
+    private Long bookId;
+    // broj kupaca koji su kupili obe knjige
+    private Integer customers;
+}
@@ -1,26 +1,140 @@
 package com.bookstore.review.messaging;
 
+import com.bookstore.events.OrderCreatedEvent;
 import com.bookstore.review.config.RabbitMQConfig;
+import com.bookstore.review.model.Purchase;
+import com.bookstore.review.purchase.PurchaseStore;
+import com.bookstore.review.recommendation.CoPurchaseIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Component
 @Slf4j
 public class OrderEventListener {
 
+    public static final String LISTENER_ID = "orderCreatedListener";
+
+    private final PurchaseStore purchaseStore;
+    private final CoPurchaseIndex coPurchaseIndex;
+    private final OrderQueueMonitor queueMonitor;
+    private final Counter consumedEvents;
+    private final Counter newPurchases;
+    private final DistributionSummary batchSize;
+    private final Timer batchPersistence;
+    private final Timer eventAge;
+    private final Counter unpartitionedEvents;
+    private final int partitions;
+
+    public OrderEventListener(PurchaseStore purchaseStore,
+                              CoPurchaseIndex coPurchaseIndex,
+                              OrderQueueMonitor queueMonitor,
+                              MeterRegistry meterRegistry,
+                              @Value("${bookstore.order-events.partitions:1}") int partitions) {
+        this.partitions = partitions;
+        this.purchaseStore = purchaseStore;
+        this.coPurchaseIndex = coPurchaseIndex;
+        this.queueMonitor = queueMonitor;
+        // rate(review.order.events.consumed) u Prometheus-u daje propusnost u dogadjajima po sekundi
+        this.consumedEvents = Counter.builder("review.order.events.consumed").register(meterRegistry);
+        this.newPurchases = Counter.builder("review.purchases.recorded").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("review.order.events.batch.size").register(meterRegistry);
+        this.batchPersistence = Timer.builder("review.order.events.batch.persistence").register(meterRegistry);
+        // od objave u order-service do prijema ovde (vremenska oznaka poruke)
+        this.eventAge = Timer.builder("review.order.events.age").register(meterRegistry);
+        // dogadjaji koje je u particionisanom rezimu obradio neparticionisani red - znak neslaganja sa order-service
+        this.unpartitionedEvents = Counter.builder("review.order.events.unpartitioned").register(meterRegistry);
+    }
+
     /**
-     * RabbitMQ consumer - prima OrderCreatedEvent iz order-service.
+     * RabbitMQ consumer - prima OrderCreatedEvent iz order-service u paketima.
      * Kada korisnik kupi knjigu, Review servis je obavešten
      * i može da omogući pisanje recenzije za tu kupljenu knjigu.
+     * Ceo paket se upisuje jednim INSERT-om i potvrdjuje jednim ack-om.
      */
-    @RabbitListener(queues = RabbitMQConfig.ORDER_CREATED_QUEUE)
-    public void handleOrderCreated(OrderCreatedEvent event) {
-        log.info("Received OrderCreatedEvent via RabbitMQ: orderId={}, userId={}, bookId={}, bookTitle={}",
-                event.getOrderId(), event.getUserId(), event.getBookId(), event.getBookTitle());
+    @RabbitListener(id = LISTENER_ID, queues = RabbitMQConfig.ORDER_CREATED_QUEUE,
+            containerFactory = RabbitMQConfig.BATCH_CONTAINER_FACTORY)
+    public void handleOrderCreated(List<Message<OrderCreatedEvent>> messages) {
+        long start = System.nanoTime();
+        messages = withoutPartitionedDuplicates(messages);
+        if (messages.isEmpty()) {
+            return;
+        }
+        log.info("Received {} OrderCreatedEvents via RabbitMQ", messages.size());
+        recordAge(messages);
+        List<OrderCreatedEvent> events = messages.stream().map(Message::getPayload).toList();
 
         // Korisnik je kupio knjigu - sada može da ostavi recenziju
-        log.info("User {} is now eligible to review book '{}' (bookId={})",
-                event.getUserId(), event.getBookTitle(), event.getBookId());
+        // dogadjaj bez korisnika ili knjige bi oborio ceo paket na NOT NULL ogranicenju
+        List<Purchase> purchases = events.stream()
+                .filter(event -> event.getUserId() != null && event.getBookId() != null)
+                .map(event -> Purchase.builder()
+                        .userId(event.getUserId())
+                        .bookId(event.getBookId())
+                        .build())
+                .toList();
+        int inserted = batchPersistence.record(() -> purchaseStore.recordAll(purchases));
+        coPurchaseIndex.recordAll(purchases);
+
+        consumedEvents.increment(events.size());
+        newPurchases.increment(inserted);
+        batchSize.record(events.size());
+        queueMonitor.recordProcessing(System.nanoTime() - start);
+        log.debug("Recorded {} new purchases from {} events", inserted, events.size());
+    }
+
+    /**
+     * Neparticionisani red je vezan za sve order.created kljuceve; dogadjaj cija particija ima
+     * lokalni red je tamo vec obradjen, pa se ovde samo potvrdjuje.
+     */
+    private List<Message<OrderCreatedEvent>> withoutPartitionedDuplicates(List<Message<OrderCreatedEvent>> messages) {
+        if (partitions <= 1) {
+            return messages;
+        }
+        List<Message<OrderCreatedEvent>> remaining = messages.stream()
+                .filter(message -> !RabbitMQConfig.ORDER_CREATED_QUEUE.equals(
+                        message.getHeaders().get(AmqpHeaders.CONSUMER_QUEUE, String.class))
+                        || !hasLocalPartition(message.getHeaders().get(AmqpHeaders.RECEIVED_ROUTING_KEY, String.class)))
+                .toList();
+        long unpartitioned = remaining.stream()
+                .filter(message -> RabbitMQConfig.ORDER_CREATED_QUEUE.equals(
+                        message.getHeaders().get(AmqpHeaders.CONSUMER_QUEUE, String.class)))
+                .count();
+        if (unpartitioned > 0) {
+            unpartitionedEvents.increment(unpartitioned);
+            log.warn("{} order events arrived without a local partition queue - check that order-service uses {} partitions",
+                    unpartitioned, partitions);
+        }
+        return remaining;
+    }
+
+    private boolean hasLocalPartition(String routingKey) {
+        for (int p = 0; p < partitions; p++) {
+            if (RabbitMQConfig.partitionRoutingKey(p).equals(routingKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordAge(List<Message<OrderCreatedEvent>> messages) {
+        long now = System.currentTimeMillis();
+        for (Message<OrderCreatedEvent> message : messages) {
+            Date published = message.getHeaders().get(AmqpHeaders.TIMESTAMP, Date.class);
+            if (published != null) {
+                eventAge.record(Math.max(0, now - published.getTime()), TimeUnit.MILLISECONDS);
+            }
+        }
     }
 }
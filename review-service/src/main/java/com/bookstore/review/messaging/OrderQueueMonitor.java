@@ -0,0 +1,135 @@
+package com.bookstore.review.messaging;
+
+import com.bookstore.review.config.RabbitMQConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prati zaostatak review.order.created reda i prema njemu podesava broj consumer-a.
+ *
+ * Dubina reda i broj consumer-a se citaju sa brokera periodicno (ne pri svakom scrape-u),
+ * iskoriscenost je udeo vremena koje su consumer-i proveli u obradi. Kada red raste,
+ * broj consumer-a se odmah povecava do potrebnog; smanjuje se za jedan po ciklusu,
+ * da kratka pauza izmedju talasa ne bi gasila niti koje ce odmah opet trebati.
+ * Particioni redovi (OrderPartitionConfig) se samo mere - svaki ima tacno jednog consumer-a.
+ */
+@Component
+@Slf4j
+public class OrderQueueMonitor {
+
+    private final AmqpAdmin amqpAdmin;
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+    private final int minConsumers;
+    private final int maxConsumers;
+    private final int messagesPerConsumer;
+    private final int partitionWorkers;
+
+    private final Map<String, AtomicLong> depths = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> brokerConsumers = new LinkedHashMap<>();
+    private final LongAdder busyNanos = new LongAdder();
+    private volatile double utilisation;
+    private volatile int consumers;
+    private long lastBusyNanos;
+    private long lastSampleNanos = System.nanoTime();
+
+    public OrderQueueMonitor(AmqpAdmin amqpAdmin,
+                             RabbitListenerEndpointRegistry listenerRegistry,
+                             MeterRegistry meterRegistry,
+                             @Value("${bookstore.order-events.concurrency:1}") int minConsumers,
+                             @Value("${bookstore.order-events.max-concurrency:8}") int maxConsumers,
+                             @Value("${bookstore.order-events.scaling.messages-per-consumer:1000}") int messagesPerConsumer,
+                             @Value("${bookstore.order-events.partitions:1}") int partitions) {
+        this.amqpAdmin = amqpAdmin;
+        this.listenerRegistry = listenerRegistry;
+        this.minConsumers = minConsumers;
+        this.maxConsumers = Math.max(minConsumers, maxConsumers);
+        this.messagesPerConsumer = messagesPerConsumer;
+        this.consumers = minConsumers;
+        this.partitionWorkers = partitions > 1 ? partitions : 0;
+
+        List<String> queues = new ArrayList<>(List.of(RabbitMQConfig.ORDER_CREATED_QUEUE));
+        for (int p = 0; p < partitionWorkers; p++) {
+            queues.add(RabbitMQConfig.partitionQueue(p));
+        }
+        for (String queue : queues) {
+            AtomicLong depth = new AtomicLong();
+            AtomicLong consumerCount = new AtomicLong();
+            depths.put(queue, depth);
+            brokerConsumers.put(queue, consumerCount);
+            Gauge.builder("rabbitmq.queue.depth", depth, AtomicLong::get).tag("queue", queue).register(meterRegistry);
+            Gauge.builder("rabbitmq.queue.consumers", consumerCount, AtomicLong::get).tag("queue", queue).register(meterRegistry);
+        }
+        Gauge.builder("rabbitmq.queue.consumer.utilisation", this, m -> m.utilisation)
+                .tag("queue", RabbitMQConfig.ORDER_CREATED_QUEUE)
+                .register(meterRegistry);
+        Gauge.builder("review.order.events.consumers", this, m -> m.consumers).register(meterRegistry);
+    }
+
+    /**
+     * Poziva listener nakon svakog paketa - vreme koje je consumer proveo u obradi.
+     */
+    public void recordProcessing(long nanos) {
+        busyNanos.add(nanos);
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.order-events.scaling.interval-ms:5000}")
+    public synchronized void refresh() {
+        long now = System.nanoTime();
+        long busy = busyNanos.sum();
+        long elapsed = now - lastSampleNanos;
+        if (elapsed > 0) {
+            utilisation = Math.min(1.0, (double) (busy - lastBusyNanos) / ((double) elapsed * (consumers + partitionWorkers)));
+        }
+        lastBusyNanos = busy;
+        lastSampleNanos = now;
+
+        for (Map.Entry<String, AtomicLong> entry : depths.entrySet()) {
+            try {
+                QueueInformation info = amqpAdmin.getQueueInfo(entry.getKey());
+                if (info != null) {
+                    entry.getValue().set(info.getMessageCount());
+                    brokerConsumers.get(entry.getKey()).set(info.getConsumerCount());
+                }
+            } catch (Exception e) {
+                // ostali redovi i skaliranje se i dalje osvezavaju; red zadrzava poslednju poznatu dubinu
+                log.debug("Could not read queue info for {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+
+        long depth = depths.get(RabbitMQConfig.ORDER_CREATED_QUEUE).get();
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(OrderEventListener.LISTENER_ID);
+        if (container instanceof SimpleMessageListenerContainer simple) {
+            int target = desiredConsumers(depth, consumers, minConsumers, maxConsumers, messagesPerConsumer);
+            if (target != consumers) {
+                log.info("Scaling {} consumers {} -> {} (depth={}, utilisation={})",
+                        RabbitMQConfig.ORDER_CREATED_QUEUE, consumers, target, depth, String.format("%.2f", utilisation));
+                simple.setConcurrentConsumers(target);
+                consumers = target;
+            }
+        }
+    }
+
+    static int desiredConsumers(long depth, int current, int min, int max, int messagesPerConsumer) {
+        int needed = (int) Math.min(max, Math.max(min, (depth + messagesPerConsumer - 1) / messagesPerConsumer));
+        if (needed > current) {
+            return needed;
+        }
+        return needed < current ? current - 1 : current;
+    }
+}
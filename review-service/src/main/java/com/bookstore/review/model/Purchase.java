@@ -0,0 +1,36 @@
+package com.bookstore.review.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Potvrdjena kupovina - pravo korisnika da recenzira knjigu.
+ */
+@Entity
+@Table(name = "purchases", uniqueConstraints =
+        @UniqueConstraint(name = "uk_purchases_user_book", columnNames = {"user_id", "book_id"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Purchase {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,110 @@
+package com.bookstore.review.purchase;
+
+import java.util.Arrays;
+
+/**
+ * Skup parova (userId, bookId) spakovanih u jedan long, sa otvorenim adresiranjem.
+ *
+ * Nema objekata po elementu - samo jedan long[] (8 bajtova po slotu, popunjenost do 50%),
+ * pa milion kupovina zauzima 16-32 MB umesto ~60 MB za HashSet<Long>.
+ * Klasa nije thread-safe; sinhronizaciju obezbedjuje PurchaseStore.
+ */
+class PurchaseKeySet {
+
+    private static final long EMPTY = 0L;
+    // bookId 0 se ne pakuje, pa ni jedan ispravan kljuc nije jednak ovoj vrednosti
+    static final long NOT_PACKABLE = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 1024;
+
+    private long[] slots;
+    private int size;
+
+    PurchaseKeySet() {
+        this(MIN_CAPACITY);
+    }
+
+    PurchaseKeySet(int expected) {
+        slots = new long[tableSizeFor(Math.max(MIN_CAPACITY, expected * 2))];
+    }
+
+    /**
+     * Par se pakuje samo ako oba id-ja staju u 32 bita; u suprotnom vraca NOT_PACKABLE.
+     */
+    static long pack(long userId, long bookId) {
+        if (userId <= 0 || bookId <= 0 || userId > 0xFFFFFFFFL || bookId > 0xFFFFFFFFL) {
+            return NOT_PACKABLE;
+        }
+        return userId << 32 | bookId;
+    }
+
+    static boolean packable(long userId, long bookId) {
+        return pack(userId, bookId) != NOT_PACKABLE;
+    }
+
+    boolean add(long key) {
+        if (key == EMPTY || key == NOT_PACKABLE) {
+            return false;
+        }
+        if ((size + 1) * 2 > slots.length) {
+            resize();
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long current = slots[i];
+            if (current == EMPTY) {
+                slots[i] = key;
+                size++;
+                return true;
+            }
+            if (current == key) {
+                return false;
+            }
+        }
+    }
+
+    boolean contains(long key) {
+        if (key == EMPTY || key == NOT_PACKABLE) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long current = slots[i];
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == key) {
+                return true;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        return 16L + (long) slots.length * Long.BYTES;
+    }
+
+    private void resize() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        size = 0;
+        Arrays.stream(old).filter(key -> key != EMPTY).forEach(this::add);
+    }
+
+    private static int mix(long key) {
+        // murmur3 fmix64 - susedni id-jevi se rasporedjuju ravnomerno po tabeli
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(capacity - 1) << 1;
+        return Math.max(n, MIN_CAPACITY);
+    }
+}
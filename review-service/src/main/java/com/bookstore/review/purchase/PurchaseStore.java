@@ -0,0 +1,141 @@
+package com.bookstore.review.purchase;
+
+import com.bookstore.review.model.Purchase;
+import com.bookstore.review.repository.PurchaseKey;
+import com.bookstore.review.repository.PurchaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Evidencija potvrdjenih kupovina - ko sme da recenzira koju knjigu.
+ *
+ * Izvor istine je tabela purchases koju puni OrderEventListener; u memoriji se drzi
+ * kompaktan skup parova (userId, bookId) da bi createReview proveravao kupovinu lokalno.
+ * Skup sadrzi samo kupovine koje je ova instanca ucitala ili sama primila - sa vise instanci
+ * (ili particijama koje drzi druga instanca) kupovinu je mozda upisala druga, pa se promasaj
+ * proverava u bazi, a nadjena kupovina dodaje u skup. Promasaj je redak kod ispravnih recenzija.
+ *
+ * Tabela se puni iz order.created dogadjaja, pa porudzbine nastale pre uvodjenja tabele ne
+ * daju pravo na recenziju dok se ne posalju ponovo (POST /api/orders/replay u order-service,
+ * routing key order.created). Upis u tabelu je idempotentan, pa je replay bezbedan.
+ * Parovi sa id-jem vecim od 32 bita proveravaju se samo u bazi.
+ */
+@Component
+@Slf4j
+public class PurchaseStore {
+
+    private final PurchaseRepository purchaseRepository;
+    private final int loadPageSize;
+
+    private volatile PurchaseKeySet purchases = new PurchaseKeySet();
+    private volatile PurchaseKeySet reloading;
+    private volatile boolean loaded;
+
+    public PurchaseStore(PurchaseRepository purchaseRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${bookstore.purchases.load-page-size:10000}") int loadPageSize) {
+        this.purchaseRepository = purchaseRepository;
+        this.loadPageSize = loadPageSize;
+        Gauge.builder("review.purchases", this, PurchaseStore::size).register(meterRegistry);
+        Gauge.builder("review.purchases.memory", this, PurchaseStore::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("review.purchases.memory.per.million", this, PurchaseStore::memoryBytesPerMillion)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            PurchaseKeySet fresh = new PurchaseKeySet((int) Math.min(1 << 29, purchaseRepository.count()));
+            reloading = fresh;
+            long afterId = 0;
+            List<PurchaseKey> page;
+            do {
+                page = purchaseRepository.findKeysAfter(afterId, PageRequest.of(0, loadPageSize));
+                synchronized (this) {
+                    for (PurchaseKey key : page) {
+                        fresh.add(PurchaseKeySet.pack(key.getUserId(), key.getBookId()));
+                    }
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == loadPageSize);
+
+            synchronized (this) {
+                purchases = fresh;
+                loaded = true;
+            }
+            log.info("Purchase store loaded: {} purchases, {} KB", fresh.size(), fresh.memoryBytes() / 1024);
+        } catch (Exception e) {
+            log.warn("Could not load purchases, falling back to database checks: {}", e.getMessage());
+        } finally {
+            reloading = null;
+        }
+    }
+
+    /**
+     * Belezi ceo paket kupovina jednim upisom u bazu; vraca broj novih kupovina.
+     */
+    public int recordAll(List<Purchase> batch) {
+        int inserted = purchaseRepository.insertIgnoringDuplicates(batch);
+        synchronized (this) {
+            PurchaseKeySet next = reloading;
+            for (Purchase purchase : batch) {
+                long key = PurchaseKeySet.pack(purchase.getUserId(), purchase.getBookId());
+                purchases.add(key);
+                if (next != null) {
+                    next.add(key);
+                }
+            }
+        }
+        return inserted;
+    }
+
+    public boolean hasPurchased(Long userId, Long bookId) {
+        if (!loaded || !PurchaseKeySet.packable(userId, bookId)) {
+            return purchaseRepository.existsByUserIdAndBookId(userId, bookId);
+        }
+        long key = PurchaseKeySet.pack(userId, bookId);
+        synchronized (this) {
+            if (purchases.contains(key)) {
+                return true;
+            }
+        }
+        // kupovinu je mozda primila druga instanca
+        if (!purchaseRepository.existsByUserIdAndBookId(userId, bookId)) {
+            return false;
+        }
+        synchronized (this) {
+            purchases.add(key);
+            PurchaseKeySet next = reloading;
+            if (next != null) {
+                next.add(key);
+            }
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return purchases.size();
+    }
+
+    public synchronized long memoryBytes() {
+        return purchases.memoryBytes();
+    }
+
+    private synchronized double memoryBytesPerMillion() {
+        int size = purchases.size();
+        return size == 0 ? 0.0 : purchases.memoryBytes() * 1_000_000.0 / size;
+    }
+}
@@ -0,0 +1,265 @@
+package com.bookstore.review.recommendation;
+
+import com.bookstore.review.dto.AlsoBoughtResponse;
+import com.bookstore.review.model.Purchase;
+import com.bookstore.review.repository.PurchaseKey;
+import com.bookstore.review.repository.PurchaseRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * "Kupci koji su kupili ovu knjigu kupili su i..." - retka matrica zajednickih kupovina.
+ *
+ * Za svaku novu kupovinu (korisnik U, knjiga B) uvecavaju se parovi (B, X) i (X, B) za sve
+ * knjige X koje je U ranije kupio. Svaki red drzi gotov top-N, pa je upit cita bez
+ * racunanja. Memorija je ogranicena: red knjige ima najvise max-candidates kandidata
+ * (vidi CoPurchaseRow), a pamti se najvise max-users nedavno aktivnih korisnika (UserBooks)
+ * sa po najvise max-books-per-user poslednjih knjiga. Kupovina korisnika koji je ispao
+ * uvecava parove samo sa knjigama kupljenim posle toga.
+ *
+ * Na pokretanju se matrica gradi iz tabele purchases: redovi se dele po knjigama na
+ * rebuild-parallelism delova koji se racunaju paralelno bez deljenog stanja. Kupovine upisane
+ * tokom obnove se posle zamene docitavaju iz tabele, pa se ne cuvaju u memoriji.
+ */
+@Component
+@Slf4j
+public class CoPurchaseIndex {
+
+    private final PurchaseRepository purchaseRepository;
+    private final int topN;
+    private final int maxCandidates;
+    private final int maxBooksPerUser;
+    private final int maxUsers;
+    private final int loadPageSize;
+    private final int rebuildParallelism;
+
+    private UserBooks userBooks;
+    private LongObjectMap<CoPurchaseRow> rows = new LongObjectMap<>();
+    private long evictedBeforeRebuild;
+
+    public CoPurchaseIndex(PurchaseRepository purchaseRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${bookstore.co-purchase.top-n:20}") int topN,
+                           @Value("${bookstore.co-purchase.max-candidates:200}") int maxCandidates,
+                           @Value("${bookstore.co-purchase.max-books-per-user:100}") int maxBooksPerUser,
+                           @Value("${bookstore.co-purchase.max-users:200000}") int maxUsers,
+                           @Value("${bookstore.purchases.load-page-size:10000}") int loadPageSize,
+                           @Value("${bookstore.co-purchase.rebuild-parallelism:4}") int rebuildParallelism) {
+        this.purchaseRepository = purchaseRepository;
+        this.topN = topN;
+        this.maxCandidates = maxCandidates;
+        this.maxBooksPerUser = maxBooksPerUser;
+        this.maxUsers = maxUsers;
+        this.userBooks = new UserBooks(maxUsers);
+        this.loadPageSize = loadPageSize;
+        this.rebuildParallelism = rebuildParallelism;
+        // provera parametara pre prve kupovine
+        new CoPurchaseRow(topN, maxCandidates);
+        Gauge.builder("review.copurchase.books", this, CoPurchaseIndex::books).register(meterRegistry);
+        Gauge.builder("review.copurchase.memory", this, CoPurchaseIndex::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("review.copurchase.users.evicted", this, CoPurchaseIndex::evictedUsers).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            long start = System.nanoTime();
+            UserBooks users = new UserBooks(maxUsers);
+            long lastId = load(0, (userId, bookId) -> addBook(users, userId, bookId));
+            LongObjectMap<CoPurchaseRow> built = buildRows(users);
+
+            synchronized (this) {
+                evictedBeforeRebuild += userBooks.evicted();
+                userBooks = users;
+                rows = built;
+                // kupovine upisane posle citanja; one koje je listener vec zabelezio su ponovljene i ne menjaju brojeve
+                load(lastId, this::record);
+            }
+            log.info("Co-purchase index built: {} users, {} books, {} KB in {} ms", users.size(), built.size(),
+                    memoryBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Could not build co-purchase index, continuing with live purchases only: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Belezi nove kupovine; ponovljena kupovina iste knjige ne menja brojeve.
+     */
+    public synchronized void recordAll(List<Purchase> purchases) {
+        for (Purchase purchase : purchases) {
+            if (purchase.getUserId() <= 0 || purchase.getBookId() <= 0) {
+                continue;
+            }
+            record(purchase.getUserId(), purchase.getBookId());
+        }
+    }
+
+    public synchronized List<AlsoBoughtResponse> alsoBought(long bookId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        CoPurchaseRow row = rows.get(bookId);
+        if (row == null) {
+            return List.of();
+        }
+        int n = Math.min(limit, row.topSize());
+        List<AlsoBoughtResponse> result = new ArrayList<>(n);
+        for (int rank = 0; rank < n; rank++) {
+            result.add(AlsoBoughtResponse.builder()
+                    .bookId(row.topId(rank))
+                    .customers(row.topCount(rank))
+                    .build());
+        }
+        return result;
+    }
+
+    public synchronized int books() {
+        return rows.size();
+    }
+
+    public synchronized long memoryBytes() {
+        long[] total = {rows.memoryBytes() + userBooks.memoryBytes()};
+        rows.forEach((bookId, row) -> total[0] += row.memoryBytes());
+        return total[0];
+    }
+
+    synchronized int users() {
+        return userBooks.size();
+    }
+
+    synchronized long evictedUsers() {
+        return evictedBeforeRebuild + userBooks.evicted();
+    }
+
+    private void record(long userId, long bookId) {
+        long[] books = userBooks.get(userId);
+        if (books != null && contains(books, bookId)) {
+            return;
+        }
+        if (books != null) {
+            CoPurchaseRow row = row(rows, bookId);
+            for (long other : books) {
+                row.increment(other);
+                row(rows, other).increment(bookId);
+            }
+        }
+        userBooks.put(userId, append(books, bookId));
+    }
+
+    private void addBook(UserBooks users, long userId, long bookId) {
+        long[] books = users.get(userId);
+        if (books == null || !contains(books, bookId)) {
+            users.put(userId, append(books, bookId));
+        }
+    }
+
+    /**
+     * Cita kupovine posle afterId; vraca id poslednje procitane.
+     */
+    private long load(long afterId, PurchaseConsumer consumer) {
+        List<PurchaseKey> page;
+        do {
+            // po id-ju - redosled kupovina, pa ogranicenja zadrzavaju najnovije knjige i korisnike
+            page = purchaseRepository.findKeysAfter(afterId, PageRequest.of(0, loadPageSize));
+            for (PurchaseKey key : page) {
+                if (key.getUserId() > 0 && key.getBookId() > 0) {
+                    consumer.accept(key.getUserId(), key.getBookId());
+                }
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == loadPageSize);
+        return afterId;
+    }
+
+    /**
+     * Svaki deo gradi redove samo za svoje knjige (bookId mod broj delova), citajuci zajednicku
+     * mapu korisnika koja se vise ne menja; delovi se na kraju spajaju bez preklapanja.
+     */
+    private LongObjectMap<CoPurchaseRow> buildRows(UserBooks users) throws Exception {
+        int shards = Math.max(1, rebuildParallelism);
+        ForkJoinPool pool = new ForkJoinPool(shards);
+        try {
+            List<LongObjectMap<CoPurchaseRow>> parts = pool.submit(() -> IntStream.range(0, shards)
+                    .parallel()
+                    .mapToObj(shard -> buildShard(users, shard, shards))
+                    .toList()).get();
+
+            LongObjectMap<CoPurchaseRow> merged = new LongObjectMap<>(parts.stream().mapToInt(LongObjectMap::size).sum());
+            parts.forEach(part -> part.forEach(merged::put));
+            return merged;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private LongObjectMap<CoPurchaseRow> buildShard(UserBooks users, int shard, int shards) {
+        LongObjectMap<CoPurchaseRow> part = new LongObjectMap<>();
+        users.forEach((userId, books) -> {
+            for (long book : books) {
+                if (Math.floorMod(book, shards) != shard) {
+                    continue;
+                }
+                CoPurchaseRow row = null;
+                for (long other : books) {
+                    if (other != book) {
+                        if (row == null) {
+                            row = row(part, book);
+                        }
+                        row.increment(other);
+                    }
+                }
+            }
+        });
+        return part;
+    }
+
+    private CoPurchaseRow row(LongObjectMap<CoPurchaseRow> target, long bookId) {
+        return target.computeIfAbsent(bookId, id -> new CoPurchaseRow(topN, maxCandidates));
+    }
+
+    private long[] append(long[] books, long bookId) {
+        if (books == null) {
+            return new long[]{bookId};
+        }
+        if (books.length < maxBooksPerUser) {
+            long[] grown = Arrays.copyOf(books, books.length + 1);
+            grown[books.length] = bookId;
+            return grown;
+        }
+        // najstarija knjiga ispada - ogranicava i memoriju i broj uvecanja po kupovini
+        long[] shifted = new long[books.length];
+        System.arraycopy(books, 1, shifted, 0, books.length - 1);
+        shifted[books.length - 1] = bookId;
+        return shifted;
+    }
+
+    private interface PurchaseConsumer {
+        void accept(long userId, long bookId);
+    }
+
+    private static boolean contains(long[] books, long bookId) {
+        for (long book : books) {
+            if (book == bookId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,189 @@
+package com.bookstore.review.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Jedan red retke matrice zajednickih kupovina: za knjigu X, koliko je kupaca X kupilo i Y.
+ *
+ * Brojaci su u primitivnoj tabeli sa otvorenim adresiranjem (long kljuc, int broj).
+ * Najboljih topN se odrzava inkrementalno - brojevi samo rastu, pa je dovoljno pomeriti
+ * uvecani element navise - i citanje ne zahteva sortiranje. Kada red predje maxCandidates
+ * kandidata, zadrzava se polovina sa najvecim brojem (uvek ukljucujuci top), pa je memorija
+ * po knjizi ogranicena; izbaceni retki parovi gube svoj broj i krecu od nule ako se vrate.
+ * Klasa nije thread-safe; sinhronizaciju obezbedjuje CoPurchaseIndex.
+ */
+final class CoPurchaseRow {
+
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 8;
+
+    private final int topN;
+    private final int maxCandidates;
+
+    private long[] keys = new long[MIN_CAPACITY];
+    private int[] counts = new int[MIN_CAPACITY];
+    private int size;
+
+    // sortirano opadajuce po broju
+    private final long[] topIds;
+    private final int[] topCounts;
+    private int topSize;
+
+    CoPurchaseRow(int topN, int maxCandidates) {
+        if (topN <= 0 || maxCandidates < 2 * topN) {
+            throw new IllegalArgumentException("maxCandidates must be at least twice topN");
+        }
+        this.topN = topN;
+        this.maxCandidates = maxCandidates;
+        this.topIds = new long[topN];
+        this.topCounts = new int[topN];
+    }
+
+    void increment(long other) {
+        int count = add(other, 1);
+        updateTop(other, count);
+        if (size > maxCandidates) {
+            prune(maxCandidates / 2);
+        }
+    }
+
+    int count(long other) {
+        int mask = keys.length - 1;
+        for (int i = mix(other) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) {
+                return 0;
+            }
+            if (keys[i] == other) {
+                return counts[i];
+            }
+        }
+    }
+
+    int topSize() {
+        return topSize;
+    }
+
+    long topId(int rank) {
+        return topIds[rank];
+    }
+
+    int topCount(int rank) {
+        return topCounts[rank];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        return 64L + (long) keys.length * (Long.BYTES + Integer.BYTES) + (long) topN * (Long.BYTES + Integer.BYTES);
+    }
+
+    private int add(long key, int delta) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                counts[i] = delta;
+                size++;
+                return delta;
+            }
+            if (keys[i] == key) {
+                counts[i] += delta;
+                return counts[i];
+            }
+        }
+    }
+
+    private void updateTop(long key, int count) {
+        int position = -1;
+        for (int i = 0; i < topSize; i++) {
+            if (topIds[i] == key) {
+                position = i;
+                break;
+            }
+        }
+        if (position < 0) {
+            if (topSize < topN) {
+                position = topSize++;
+            } else if (count > topCounts[topSize - 1]) {
+                // poslednji ispada iz topa
+                position = topSize - 1;
+            } else {
+                return;
+            }
+        }
+        while (position > 0 && count > topCounts[position - 1]) {
+            topIds[position] = topIds[position - 1];
+            topCounts[position] = topCounts[position - 1];
+            position--;
+        }
+        topIds[position] = key;
+        topCounts[position] = count;
+    }
+
+    private void prune(int keep) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+
+        // (broj << 32 | slot) - sortiranjem niza long-ova dobijamo slotove po broju bez boxing-a
+        long[] ranked = new long[size];
+        int n = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && !inTop(oldKeys[i])) {
+                ranked[n++] = (long) oldCounts[i] << 32 | i;
+            }
+        }
+        Arrays.sort(ranked, 0, n);
+
+        int capacity = MIN_CAPACITY;
+        while (capacity < keep * 2) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        counts = new int[capacity];
+        size = 0;
+        for (int i = 0; i < topSize; i++) {
+            add(topIds[i], topCounts[i]);
+        }
+        for (int i = n - 1; i >= 0 && size < keep; i--) {
+            int slot = (int) ranked[i];
+            add(oldKeys[slot], oldCounts[slot]);
+        }
+    }
+
+    private boolean inTop(long key) {
+        for (int i = 0; i < topSize; i++) {
+            if (topIds[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    static int mix(long key) {
+        // murmur3 fmix64 - susedni id-jevi se rasporedjuju ravnomerno po tabeli
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,120 @@
+package com.bookstore.review.recommendation;
+
+import java.util.function.LongFunction;
+
+/**
+ * Mapa long -> objekat sa otvorenim adresiranjem, bez Long kljuceva i Entry objekata.
+ *
+ * Kljucevi su pozitivni id-jevi; 0 oznacava prazan slot. Klasa nije thread-safe.
+ */
+final class LongObjectMap<V> {
+
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongObjectMap(int expected) {
+        int capacity = tableSizeFor(Math.max(MIN_CAPACITY, expected * 2));
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key <= EMPTY) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        for (int i = CoPurchaseRow.mix(key) & mask; ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == EMPTY) {
+                return null;
+            }
+            if (current == key) {
+                return (V) values[i];
+            }
+        }
+    }
+
+    void put(long key, V value) {
+        if (key <= EMPTY) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        for (int i = CoPurchaseRow.mix(key) & mask; ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == EMPTY) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+            if (current == key) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    V computeIfAbsent(long key, LongFunction<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(EntryConsumer<V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        // kljuc + referenca po slotu; vrednosti se racunaju posebno
+        return 32L + (long) keys.length * (Long.BYTES + 4);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                @SuppressWarnings("unchecked")
+                V value = (V) oldValues[i];
+                put(oldKeys[i], value);
+            }
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(capacity - 1) << 1;
+        return Math.max(n, MIN_CAPACITY);
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
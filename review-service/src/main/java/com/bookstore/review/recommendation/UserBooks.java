@@ -0,0 +1,77 @@
+package com.bookstore.review.recommendation;
+
+/**
+ * Poslednje knjige po korisniku, za najvise maxUsers nedavno aktivnih korisnika.
+ *
+ * Dve generacije: upis ide u tekucu, a kada ona dostigne polovinu granice postaje prethodna,
+ * dok se stara prethodna odbacuje - ispadaju korisnici bez kupovine tokom dve generacije
+ * (priblizan LRU bez liste i brisanja iz LongObjectMap). Klasa nije thread-safe.
+ */
+final class UserBooks {
+
+    private final int generationSize;
+    private LongObjectMap<long[]> current = new LongObjectMap<>();
+    private LongObjectMap<long[]> previous = new LongObjectMap<>();
+    private long evicted;
+
+    UserBooks(int maxUsers) {
+        if (maxUsers < 2) {
+            throw new IllegalArgumentException("maxUsers must be at least 2");
+        }
+        this.generationSize = maxUsers / 2;
+    }
+
+    long[] get(long userId) {
+        long[] books = current.get(userId);
+        return books != null ? books : previous.get(userId);
+    }
+
+    void put(long userId, long[] books) {
+        current.put(userId, books);
+        if (current.size() >= generationSize) {
+            long[] dropped = {0};
+            previous.forEach((id, ignored) -> {
+                if (current.get(id) == null) {
+                    dropped[0]++;
+                }
+            });
+            evicted += dropped[0];
+            previous = current;
+            current = new LongObjectMap<>();
+        }
+    }
+
+    /**
+     * Svaki korisnik jednom, sa najnovijim knjigama.
+     */
+    void forEach(LongObjectMap.EntryConsumer<long[]> action) {
+        current.forEach(action);
+        previous.forEach((userId, books) -> {
+            if (current.get(userId) == null) {
+                action.accept(userId, books);
+            }
+        });
+    }
+
+    int size() {
+        int[] size = {current.size()};
+        previous.forEach((userId, books) -> {
+            if (current.get(userId) == null) {
+                size[0]++;
+            }
+        });
+        return size[0];
+    }
+
+    long evicted() {
+        return evicted;
+    }
+
+    long memoryBytes() {
+        long[] total = {current.memoryBytes() + previous.memoryBytes()};
+        LongObjectMap.EntryConsumer<long[]> arrays = (userId, books) -> total[0] += 16L + (long) books.length * Long.BYTES;
+        current.forEach(arrays);
+        previous.forEach(arrays);
+        return total[0];
+    }
+}
@@ -0,0 +1,9 @@
+package com.bookstore.review.repository;
+
+public interface PurchaseKey {
+    Long getId();
+
+    Long getUserId();
+
+    Long getBookId();
+}
@@ -0,0 +1,18 @@
+package com.bookstore.review.repository;
+
+import com.bookstore.review.model.Purchase;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PurchaseRepository extends JpaRepository<Purchase, Long>, PurchaseRepositoryCustom {
+
+    boolean existsByUserIdAndBookId(Long userId, Long bookId);
+
+    @Query("SELECT p.id AS id, p.userId AS userId, p.bookId AS bookId FROM Purchase p WHERE p.id > :afterId ORDER BY p.id")
+    List<PurchaseKey> findKeysAfter(Long afterId, Pageable pageable);
+}
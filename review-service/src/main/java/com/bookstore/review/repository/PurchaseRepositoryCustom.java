@@ -0,0 +1,14 @@
+package com.bookstore.review.repository;
+
+import com.bookstore.review.model.Purchase;
+
+import java.util.List;
+
+public interface PurchaseRepositoryCustom {
+
+    /**
+     * Upisuje sve kupovine jednim viserednim INSERT-om; vec postojeci parovi (userId, bookId)
+     * se preskacu. Vraca broj zaista upisanih redova.
+     */
+    int insertIgnoringDuplicates(List<Purchase> purchases);
+}
@@ -0,0 +1,41 @@
+package com.bookstore.review.repository;
+
+import com.bookstore.review.model.Purchase;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC implementacija masovnog upisa - ceo paket dogadjaja ide u bazu kao jedan
+ * INSERT ... ON CONFLICT DO NOTHING (PostgreSQL dozvoljava do 65535 parametara, tj. ~21000 redova).
+ */
+public class PurchaseRepositoryCustomImpl implements PurchaseRepositoryCustom {
+
+    private static final String INSERT_PREFIX = "INSERT INTO purchases (user_id, book_id, created_at) VALUES ";
+    private static final String INSERT_SUFFIX = " ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PurchaseRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int insertIgnoringDuplicates(List<Purchase> purchases) {
+        if (purchases.isEmpty()) {
+            return 0;
+        }
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(purchases.size(), "(?, ?, ?)")) + INSERT_SUFFIX;
+
+        Object[] args = new Object[purchases.size() * 3];
+        int i = 0;
+        for (Purchase purchase : purchases) {
+            args[i++] = purchase.getUserId();
+            args[i++] = purchase.getBookId();
+            args[i++] = Timestamp.valueOf(purchase.getCreatedAt());
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+}
@@ -14,4 +14,7 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.bookId = :bookId")
     Double findAverageRatingByBookId(Long bookId);
+
+    @Query("SELECT COUNT(r) AS total, COALESCE(MAX(r.id), 0) AS maxId FROM Review r WHERE r.bookId = :bookId")
+    ReviewStats findStatsByBookId(Long bookId);
 }
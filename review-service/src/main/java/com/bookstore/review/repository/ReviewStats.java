@@ -0,0 +1,10 @@
+package com.bookstore.review.repository;
+
+/**
+ * Projekcija agregata recenzija jedne knjige - recenzije se ne menjaju,
+ * pa broj i najveci id jednoznacno odredjuju sadrzaj liste.
+ */
+public interface ReviewStats {
+    Long getTotal();
+    Long getMaxId();
+}
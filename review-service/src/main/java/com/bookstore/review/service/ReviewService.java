@@ -3,34 +3,28 @@ package com.bookstore.review.service;
 import com.bookstore.review.dto.ReviewRequest;
 import com.bookstore.review.dto.ReviewResponse;
 import com.bookstore.review.model.Review;
+import com.bookstore.review.purchase.PurchaseStore;
 import com.bookstore.review.repository.ReviewRepository;
+import com.bookstore.review.repository.ReviewStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.List;
-import java.util.Map;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class ReviewService {
 
     private final ReviewRepository reviewRepository;
-    private final WebClient bookServiceClient;
-
-    public ReviewService(ReviewRepository reviewRepository,
-                         @Value("${services.book-service.url:http://localhost:8082}") String bookServiceUrl) {
-        this.reviewRepository = reviewRepository;
-        this.bookServiceClient = WebClient.builder().baseUrl(bookServiceUrl).build();
-    }
+    private final PurchaseStore purchaseStore;
 
     public ReviewResponse createReview(ReviewRequest request) {
         log.info("Creating review for bookId={}, userId={}", request.getBookId(), request.getUserId());
 
-        // REST komunikacija: validacija da knjiga postoji
-        validateBook(request.getBookId());
+        // Lokalna provera: recenziju pise samo korisnik koji je kupio knjigu (postoji li knjiga, zna se iz kupovine)
+        validatePurchase(request.getUserId(), request.getBookId());
 
         Review review = Review.builder()
                 .bookId(request.getBookId())
@@ -64,22 +58,23 @@ public class ReviewService {
         return avg != null ? avg : 0.0;
     }
 
+    /**
+     * ETag recenzija knjige - racuna se iz agregata, bez ucitavanja samih recenzija.
+     */
+    public String getBookReviewsEtag(Long bookId) {
+        ReviewStats stats = reviewRepository.findStatsByBookId(bookId);
+        return "reviews-" + bookId + "-" + stats.getTotal() + "-" + stats.getMaxId();
+    }
+
     public List<ReviewResponse> getAllReviews() {
         return reviewRepository.findAll().stream()
                 .map(this::toResponse)
                 .toList();
     }
 
-    private void validateBook(Long bookId) {
-        log.info("Validating book with id: {} via REST", bookId);
-        try {
-            bookServiceClient.get()
-                    .uri("/api/books/{id}", bookId)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Book not found with id: " + bookId);
+    private void validatePurchase(Long userId, Long bookId) {
+        if (!purchaseStore.hasPurchased(userId, bookId)) {
+            throw new IllegalArgumentException("User " + userId + " has not purchased book with id: " + bookId);
         }
     }
 
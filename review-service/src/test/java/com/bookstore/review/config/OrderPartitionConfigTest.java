@@ -0,0 +1,81 @@
+package com.bookstore.review.config;
+
+import com.bookstore.events.OrderCreatedEvent;
+import com.bookstore.review.messaging.OrderEventListener;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPartitionConfigTest {
+
+    @Mock
+    private OrderEventListener orderEventListener;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    private OrderPartitionConfig config(SimpleRabbitListenerContainerFactory factory) {
+        return new OrderPartitionConfig(3, orderEventListener, factory);
+    }
+
+    private SimpleRabbitListenerContainerFactory batchFactory() {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(new Jackson2JsonMessageConverter());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setConcurrentConsumers(4);
+        return factory;
+    }
+
+    @Test
+    void orderPartitionQueues_declaresSingleActiveConsumerQueuePerPartition() {
+        Declarables declarables = config(batchFactory()).orderPartitionQueues(new TopicExchange(RabbitMQConfig.EXCHANGE));
+
+        List<Queue> queues = declarables.getDeclarablesByType(Queue.class);
+        assertThat(queues).extracting(Queue::getName)
+                .containsExactly("review.order.created.0", "review.order.created.1", "review.order.created.2");
+        assertThat(queues).allSatisfy(queue ->
+                assertThat(queue.getArguments()).containsEntry("x-single-active-consumer", true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void partitionEndpoint_runsOneConsumerAndDeliversTypedBatch() throws Exception {
+        SimpleRabbitListenerContainerFactory factory = batchFactory();
+        SimpleMessageListenerContainer container = factory.createListenerContainer(config(factory).partitionEndpoint(1));
+
+        assertThat(container.getQueueNames()).containsExactly("review.order.created.1");
+        assertThat(container.getListenerId()).isEqualTo("orderCreatedListener-1");
+
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        Message message = new Message("{\"orderId\":7,\"userId\":10,\"bookId\":5}".getBytes(StandardCharsets.UTF_8), properties);
+        ((ChannelAwareBatchMessageListener) container.getMessageListener()).onMessageBatch(List.of(message), mock(Channel.class));
+
+        ArgumentCaptor<List<org.springframework.messaging.Message<OrderCreatedEvent>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderEventListener).handleOrderCreated(captor.capture());
+        assertThat(captor.getValue()).singleElement()
+                .satisfies(m -> assertThat(m.getPayload().getBookId()).isEqualTo(5L));
+    }
+}
@@ -19,7 +19,7 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-// @WebMvcTest ne učitava AMQP bean-ove ni WebClient koji ReviewService gradi u konstruktoru.
+// @WebMvcTest ne učitava AMQP bean-ove ni PurchaseStore koji ReviewService koristi.
 // ReviewService je @MockBean — createReview se može testirati bez stvarnih spoljnih poziva.
 @WebMvcTest(ReviewController.class)
 class ReviewControllerTest {
@@ -86,14 +86,26 @@ class ReviewControllerTest {
 
     @Test
     void getReviewsByBook_returns200() throws Exception {
+        when(reviewService.getBookReviewsEtag(5L)).thenReturn("reviews-5-1-1");
         when(reviewService.getReviewsByBook(5L)).thenReturn(List.of(buildResponse()));
 
         mockMvc.perform(get("/api/reviews/book/5"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"reviews-5-1-1\""))
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].bookId").value(5));
     }
 
+    @Test
+    void getReviewsByBook_matchingEtag_returns304() throws Exception {
+        when(reviewService.getBookReviewsEtag(5L)).thenReturn("reviews-5-1-1");
+
+        mockMvc.perform(get("/api/reviews/book/5").header("If-None-Match", "\"reviews-5-1-1\""))
+                .andExpect(status().isNotModified());
+
+        verify(reviewService, never()).getReviewsByBook(any());
+    }
+
     @Test
     void getReviewsByUser_returns200() throws Exception {
         when(reviewService.getReviewsByUser(10L)).thenReturn(List.of(buildResponse()));
@@ -106,10 +118,23 @@ class ReviewControllerTest {
 
     @Test
     void getAverageRating_returns200() throws Exception {
+        when(reviewService.getBookReviewsEtag(5L)).thenReturn("reviews-5-1-1");
         when(reviewService.getAverageRating(5L)).thenReturn(4.5);
 
         mockMvc.perform(get("/api/reviews/book/5/average-rating"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"avg-reviews-5-1-1\""))
                 .andExpect(jsonPath("$.averageRating").value(4.5));
     }
+
+    @Test
+    void getAverageRating_matchingEtag_returns304() throws Exception {
+        when(reviewService.getBookReviewsEtag(5L)).thenReturn("reviews-5-1-1");
+
+        mockMvc.perform(get("/api/reviews/book/5/average-rating")
+                        .header("If-None-Match", "\"avg-reviews-5-1-1\""))
+                .andExpect(status().isNotModified());
+
+        verify(reviewService, never()).getAverageRating(any());
+    }
 }
@@ -0,0 +1,238 @@
+package com.bookstore.review.messaging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.bookstore.events.OrderCreatedEvent;
+import com.bookstore.review.config.RabbitMQConfig;
+import com.bookstore.review.model.Purchase;
+import com.bookstore.review.purchase.PurchaseStore;
+import com.bookstore.review.recommendation.CoPurchaseIndex;
+import com.bookstore.review.repository.PurchaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@Slf4j
+class OrderEventListenerTest {
+
+    private static final long RECEIVE_TIMEOUT_MS = 200;
+
+    @Mock
+    private PurchaseStore purchaseStore;
+
+    @Mock
+    private CoPurchaseIndex coPurchaseIndex;
+
+    @Mock
+    private OrderQueueMonitor queueMonitor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new OrderEventListener(purchaseStore, coPurchaseIndex, queueMonitor, meterRegistry, 1);
+    }
+
+    private Message<OrderCreatedEvent> event(Long userId, Long bookId) {
+        return MessageBuilder.withPayload(OrderCreatedEvent.builder()
+                        .orderId(1L)
+                        .userId(userId)
+                        .bookId(bookId)
+                        .quantity(1)
+                        .totalPrice(BigDecimal.TEN)
+                        .bookTitle("Clean Code")
+                        .build())
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleOrderCreated_persistsWholeBatchAtOnce() {
+        when(purchaseStore.recordAll(anyList())).thenReturn(2);
+
+        listener.handleOrderCreated(List.of(event(10L, 5L), event(11L, 5L), event(10L, 5L)));
+
+        ArgumentCaptor<List<Purchase>> captor = ArgumentCaptor.forClass(List.class);
+        verify(purchaseStore, times(1)).recordAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Purchase::getUserId).containsExactly(10L, 11L, 10L);
+        assertThat(meterRegistry.counter("review.order.events.consumed").count()).isEqualTo(3.0);
+        assertThat(meterRegistry.counter("review.purchases.recorded").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleOrderCreated_skipsEventsWithoutIds() {
+        listener.handleOrderCreated(List.of(event(null, 5L), event(10L, 5L)));
+
+        ArgumentCaptor<List<Purchase>> captor = ArgumentCaptor.forClass(List.class);
+        verify(purchaseStore).recordAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sharedQueue_inPartitionedMode_processesOnlyEventsWithoutLocalPartition() {
+        OrderEventListener partitioned = new OrderEventListener(purchaseStore, coPurchaseIndex, queueMonitor, meterRegistry, 3);
+
+        partitioned.handleOrderCreated(List.of(
+                received(event(10L, 5L), RabbitMQConfig.ORDER_CREATED_QUEUE, "order.created.1"),
+                received(event(11L, 6L), RabbitMQConfig.ORDER_CREATED_QUEUE, "order.created"),
+                received(event(12L, 7L), RabbitMQConfig.ORDER_CREATED_QUEUE, "order.created.4"),
+                received(event(13L, 8L), RabbitMQConfig.partitionQueue(1), "order.created.1")));
+
+        ArgumentCaptor<List<Purchase>> captor = ArgumentCaptor.forClass(List.class);
+        verify(purchaseStore).recordAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Purchase::getUserId).containsExactly(11L, 12L, 13L);
+        assertThat(meterRegistry.counter("review.order.events.unpartitioned").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void sharedQueue_batchOfPartitionedDuplicates_isOnlyAcknowledged() {
+        OrderEventListener partitioned = new OrderEventListener(purchaseStore, coPurchaseIndex, queueMonitor, meterRegistry, 3);
+
+        partitioned.handleOrderCreated(List.of(received(event(10L, 5L), RabbitMQConfig.ORDER_CREATED_QUEUE, "order.created.2")));
+
+        verifyNoInteractions(purchaseStore, coPurchaseIndex);
+    }
+
+    private static Message<OrderCreatedEvent> received(Message<OrderCreatedEvent> message, String queue, String routingKey) {
+        return MessageBuilder.fromMessage(message)
+                .setHeader(AmqpHeaders.CONSUMER_QUEUE, queue)
+                .setHeader(AmqpHeaders.RECEIVED_ROUTING_KEY, routingKey)
+                .build();
+    }
+
+    @Test
+    void handleOrderCreated_recordsEventAgeAndProcessingTime() {
+        Message<OrderCreatedEvent> published = MessageBuilder.fromMessage(event(10L, 5L))
+                .setHeader(AmqpHeaders.TIMESTAMP, new Date(System.currentTimeMillis() - 2_000))
+                .build();
+
+        listener.handleOrderCreated(List.of(published, event(11L, 5L)));
+
+        // poruka bez vremenske oznake se ne racuna u starost
+        assertThat(meterRegistry.timer("review.order.events.age").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("review.order.events.age").max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(2_000);
+        verify(queueMonitor).recordProcessing(anyLong());
+    }
+
+    /**
+     * Propusnost listenera u dogadjajima u sekundi za nekoliko velicina paketa i prefetch-a, bez brokera.
+     * Isporuka postuje prefetch (najvise toliko nepotvrdjenih poruka), paket se zatvara na batch-size
+     * ili kada receive-timeout istekne bez nove poruke, a potvrda vraca ceo paket u prozor - kao batch
+     * container. Baza je PurchaseStore nad repozitorijumom u memoriji, sa zadatim trajanjem jednog
+     * INSERT-a. Rezultat se loguje, ne proverava. Pokrece se samo sa -Pbenchmark.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmark_eventsPerSecond() throws InterruptedException {
+        Logger listenerLog = (Logger) LoggerFactory.getLogger(OrderEventListener.class);
+        Level level = listenerLog.getLevel();
+        // log.info po paketu bi merio logovanje, a ne listener
+        listenerLog.setLevel(Level.WARN);
+        try {
+            // zagrevanje JIT-a pre merenja
+            eventsPerSecond(200_000, 100, 250, 0);
+            for (long insertMicros : new long[]{0, 1000}) {
+                for (int batchSize : new int[]{1, 10, 100, 250}) {
+                    for (int prefetch : new int[]{100, 250, 1000}) {
+                        if (prefetch < batchSize) {
+                            // container bi prefetch ionako podigao na batch-size
+                            continue;
+                        }
+                        int events = insertMicros == 0 ? 200_000 : Math.min(200_000, batchSize * 1000);
+                        log.info("Order events: batch {}, prefetch {}, INSERT {} us: {} events/s", batchSize, prefetch,
+                                insertMicros, eventsPerSecond(events, batchSize, prefetch, insertMicros));
+                    }
+                }
+            }
+        } finally {
+            listenerLog.setLevel(level);
+        }
+    }
+
+    private long eventsPerSecond(int events, int batchSize, int prefetch, long insertMicros) throws InterruptedException {
+        Set<Long> table = ConcurrentHashMap.newKeySet();
+        // stubOnly - mock ne pamti pozive, pa memorija ne raste sa brojem paketa
+        PurchaseRepository repository = mock(PurchaseRepository.class, withSettings().stubOnly());
+        when(repository.findKeysAfter(anyLong(), any())).thenReturn(List.of());
+        when(repository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation -> {
+            List<Purchase> batch = invocation.getArgument(0);
+            if (insertMicros > 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(insertMicros));
+            }
+            int inserted = 0;
+            for (Purchase purchase : batch) {
+                if (table.add(purchase.getUserId() << 32 | purchase.getBookId())) {
+                    inserted++;
+                }
+            }
+            return inserted;
+        });
+        PurchaseStore store = new PurchaseStore(repository, new SimpleMeterRegistry(), 10_000);
+        store.rebuild();
+        OrderEventListener consumer = new OrderEventListener(store, mock(CoPurchaseIndex.class, withSettings().stubOnly()),
+                mock(OrderQueueMonitor.class, withSettings().stubOnly()), new SimpleMeterRegistry(), 1);
+
+        // container postavlja prefetch na najmanje batch-size
+        Semaphore unacked = new Semaphore(Math.max(prefetch, batchSize));
+        BlockingQueue<Message<OrderCreatedEvent>> delivered = new LinkedBlockingQueue<>();
+        Thread broker = new Thread(() -> {
+            for (int i = 0; i < events; i++) {
+                unacked.acquireUninterruptibly();
+                delivered.add(event((long) (i % 50_000), (long) (i % 997)));
+            }
+        });
+
+        long start = System.nanoTime();
+        broker.start();
+        int consumed = 0;
+        List<Message<OrderCreatedEvent>> batch = new ArrayList<>(batchSize);
+        while (consumed < events) {
+            Message<OrderCreatedEvent> message = delivered.poll(RECEIVE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (message != null) {
+                batch.add(message);
+            }
+            if (batch.size() == batchSize || (message == null && !batch.isEmpty())) {
+                consumer.handleOrderCreated(batch);
+                // jedan ack za ceo paket
+                unacked.release(batch.size());
+                consumed += batch.size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        broker.join();
+        return events * 1_000_000_000L / elapsed;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bookstore.review.messaging;
+
+import com.bookstore.review.config.RabbitMQConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class OrderQueueMonitorTest {
+
+    @Test
+    void desiredConsumers_growsImmediatelyWithLag() {
+        assertThat(OrderQueueMonitor.desiredConsumers(4_500, 1, 1, 8, 1000)).isEqualTo(5);
+    }
+
+    @Test
+    void desiredConsumers_staysWithinBounds() {
+        assertThat(OrderQueueMonitor.desiredConsumers(1_000_000, 1, 1, 8, 1000)).isEqualTo(8);
+        assertThat(OrderQueueMonitor.desiredConsumers(0, 1, 1, 8, 1000)).isEqualTo(1);
+    }
+
+    @Test
+    void desiredConsumers_shrinksOneStepAtATime() {
+        assertThat(OrderQueueMonitor.desiredConsumers(0, 6, 1, 8, 1000)).isEqualTo(5);
+        assertThat(OrderQueueMonitor.desiredConsumers(2_000, 2, 1, 8, 1000)).isEqualTo(2);
+    }
+
+    @Test
+    void refresh_unreadableQueue_stillUpdatesOtherQueuesAndScales() {
+        AmqpAdmin amqpAdmin = mock(AmqpAdmin.class);
+        RabbitListenerEndpointRegistry listenerRegistry = mock(RabbitListenerEndpointRegistry.class);
+        SimpleMessageListenerContainer container = mock(SimpleMessageListenerContainer.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        when(listenerRegistry.getListenerContainer(OrderEventListener.LISTENER_ID)).thenReturn(container);
+        when(amqpAdmin.getQueueInfo(RabbitMQConfig.ORDER_CREATED_QUEUE))
+                .thenReturn(new QueueInformation(RabbitMQConfig.ORDER_CREATED_QUEUE, 3_000, 1));
+        when(amqpAdmin.getQueueInfo(RabbitMQConfig.partitionQueue(0)))
+                .thenThrow(new AmqpIOException(new IOException("channel closed")));
+        when(amqpAdmin.getQueueInfo(RabbitMQConfig.partitionQueue(1)))
+                .thenReturn(new QueueInformation(RabbitMQConfig.partitionQueue(1), 42, 1));
+
+        new OrderQueueMonitor(amqpAdmin, listenerRegistry, meterRegistry, 1, 8, 1000, 2).refresh();
+
+        assertThat(meterRegistry.get("rabbitmq.queue.depth").tag("queue", RabbitMQConfig.partitionQueue(1)).gauge().value())
+                .isEqualTo(42.0);
+        verify(container).setConcurrentConsumers(3);
+    }
+}
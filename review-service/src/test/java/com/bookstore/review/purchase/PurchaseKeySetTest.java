@@ -0,0 +1,50 @@
+package com.bookstore.review.purchase;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PurchaseKeySetTest {
+
+    @Test
+    void addAndContains_distinguishesUserAndBook() {
+        PurchaseKeySet set = new PurchaseKeySet();
+        set.add(PurchaseKeySet.pack(10L, 5L));
+
+        assertThat(set.contains(PurchaseKeySet.pack(10L, 5L))).isTrue();
+        assertThat(set.contains(PurchaseKeySet.pack(5L, 10L))).isFalse();
+        assertThat(set.contains(PurchaseKeySet.pack(10L, 6L))).isFalse();
+    }
+
+    @Test
+    void add_duplicateIsIgnored() {
+        PurchaseKeySet set = new PurchaseKeySet();
+
+        assertThat(set.add(PurchaseKeySet.pack(1L, 1L))).isTrue();
+        assertThat(set.add(PurchaseKeySet.pack(1L, 1L))).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void add_growsPastInitialCapacity() {
+        PurchaseKeySet set = new PurchaseKeySet();
+        for (long user = 1; user <= 200; user++) {
+            for (long book = 1; book <= 50; book++) {
+                set.add(PurchaseKeySet.pack(user, book));
+            }
+        }
+
+        assertThat(set.size()).isEqualTo(10_000);
+        assertThat(set.contains(PurchaseKeySet.pack(200L, 50L))).isTrue();
+        assertThat(set.contains(PurchaseKeySet.pack(201L, 1L))).isFalse();
+        // najvise 32 bajta po kupovini (popunjenost tabele izmedju 25% i 50%)
+        assertThat(set.memoryBytes()).isLessThanOrEqualTo(16L + 32L * 10_000);
+    }
+
+    @Test
+    void pack_rejectsIdsWiderThan32Bits() {
+        assertThat(PurchaseKeySet.packable(1L << 32, 1L)).isFalse();
+        assertThat(PurchaseKeySet.packable(1L, 1L << 32)).isFalse();
+        assertThat(PurchaseKeySet.packable(0xFFFFFFFFL, 0xFFFFFFFFL)).isTrue();
+    }
+}
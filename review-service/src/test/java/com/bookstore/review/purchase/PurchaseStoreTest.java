@@ -0,0 +1,60 @@
+package com.bookstore.review.purchase;
+
+import com.bookstore.review.model.Purchase;
+import com.bookstore.review.repository.PurchaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PurchaseStoreTest {
+
+    @Mock
+    private PurchaseRepository purchaseRepository;
+
+    private PurchaseStore purchaseStore;
+
+    @BeforeEach
+    void setUp() {
+        purchaseStore = new PurchaseStore(purchaseRepository, new SimpleMeterRegistry(), 100);
+        when(purchaseRepository.findKeysAfter(anyLong(), any())).thenReturn(List.of());
+        purchaseStore.rebuild();
+    }
+
+    @Test
+    void hasPurchased_recordedHere_isAnsweredFromMemory() {
+        purchaseStore.recordAll(List.of(Purchase.builder().userId(10L).bookId(5L).build()));
+
+        assertThat(purchaseStore.hasPurchased(10L, 5L)).isTrue();
+        verify(purchaseRepository, never()).existsByUserIdAndBookId(anyLong(), anyLong());
+    }
+
+    @Test
+    void hasPurchased_recordedByAnotherInstance_isFoundInDatabaseAndCached() {
+        when(purchaseRepository.existsByUserIdAndBookId(10L, 5L)).thenReturn(true);
+
+        assertThat(purchaseStore.hasPurchased(10L, 5L)).isTrue();
+        assertThat(purchaseStore.hasPurchased(10L, 5L)).isTrue();
+
+        verify(purchaseRepository, times(1)).existsByUserIdAndBookId(10L, 5L);
+        assertThat(purchaseStore.size()).isEqualTo(1);
+    }
+
+    @Test
+    void hasPurchased_unknownPurchase_isRejected() {
+        when(purchaseRepository.existsByUserIdAndBookId(10L, 6L)).thenReturn(false);
+
+        assertThat(purchaseStore.hasPurchased(10L, 6L)).isFalse();
+        assertThat(purchaseStore.size()).isZero();
+    }
+}
@@ -0,0 +1,169 @@
+package com.bookstore.review.recommendation;
+
+import com.bookstore.review.dto.AlsoBoughtResponse;
+import com.bookstore.review.model.Purchase;
+import com.bookstore.review.repository.PurchaseKey;
+import com.bookstore.review.repository.PurchaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoPurchaseIndexTest {
+
+    @Mock
+    private PurchaseRepository purchaseRepository;
+
+    private CoPurchaseIndex index(int topN, int maxCandidates, int parallelism) {
+        return index(topN, maxCandidates, 10_000, parallelism);
+    }
+
+    private CoPurchaseIndex index(int topN, int maxCandidates, int maxUsers, int parallelism) {
+        return new CoPurchaseIndex(purchaseRepository, new SimpleMeterRegistry(), topN, maxCandidates, 100, maxUsers, 1000,
+                parallelism);
+    }
+
+    private static Purchase purchase(long userId, long bookId) {
+        return Purchase.builder().userId(userId).bookId(bookId).build();
+    }
+
+    private static PurchaseKey key(long id, long userId, long bookId) {
+        return new PurchaseKey() {
+            public Long getId() {
+                return id;
+            }
+
+            public Long getUserId() {
+                return userId;
+            }
+
+            public Long getBookId() {
+                return bookId;
+            }
+        };
+    }
+
+    @Test
+    void recordAll_countsBooksBoughtBySameCustomers() {
+        CoPurchaseIndex index = index(5, 10, 1);
+
+        index.recordAll(List.of(purchase(1, 10), purchase(1, 20), purchase(1, 30)));
+        index.recordAll(List.of(purchase(2, 20), purchase(2, 10)));
+        // ponovljena kupovina ne menja brojeve
+        index.recordAll(List.of(purchase(2, 10)));
+
+        assertThat(index.alsoBought(10, 10))
+                .extracting(AlsoBoughtResponse::getBookId, AlsoBoughtResponse::getCustomers)
+                .containsExactly(tuple(20L, 2), tuple(30L, 1));
+        assertThat(index.alsoBought(30, 1))
+                .extracting(AlsoBoughtResponse::getBookId)
+                .containsExactly(10L);
+        assertThat(index.alsoBought(99, 10)).isEmpty();
+    }
+
+    @Test
+    void row_pruningBoundsCandidatesAndKeepsTop() {
+        CoPurchaseRow row = new CoPurchaseRow(3, 8);
+        for (int i = 0; i < 50; i++) {
+            row.increment(1);
+        }
+        for (int i = 0; i < 30; i++) {
+            row.increment(2);
+        }
+        for (int i = 0; i < 20; i++) {
+            row.increment(3);
+        }
+        for (long other = 100; other < 1100; other++) {
+            row.increment(other);
+        }
+
+        assertThat(row.size()).isLessThanOrEqualTo(8);
+        assertThat(new long[]{row.topId(0), row.topId(1), row.topId(2)}).containsExactly(1, 2, 3);
+        assertThat(row.count(1)).isEqualTo(50);
+    }
+
+    @Test
+    void rebuild_inParallelMatchesIncrementalIndex() {
+        Random random = new Random(11);
+        List<PurchaseKey> keys = new ArrayList<>();
+        List<Purchase> purchases = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            long userId = 1 + random.nextInt(300);
+            // nekoliko popularnih knjiga i dugacak rep
+            long bookId = random.nextInt(4) == 0 ? 1 + random.nextInt(5) : 10 + random.nextInt(200);
+            keys.add(key(id, userId, bookId));
+            purchases.add(purchase(userId, bookId));
+        }
+        when(purchaseRepository.findKeysAfter(anyLong(), any(Pageable.class)))
+                .thenReturn(keys.subList(0, 1000))
+                .thenReturn(keys.subList(1000, 2000))
+                .thenReturn(keys.subList(2000, 3000))
+                .thenReturn(List.of());
+
+        CoPurchaseIndex incremental = index(10, 1000, 1);
+        incremental.recordAll(purchases);
+        CoPurchaseIndex rebuilt = index(10, 1000, 4);
+        rebuilt.rebuild();
+
+        assertThat(rebuilt.books()).isEqualTo(incremental.books());
+        for (long bookId = 1; bookId <= 5; bookId++) {
+            assertThat(rebuilt.alsoBought(bookId, 10))
+                    .extracting(AlsoBoughtResponse::getCustomers)
+                    .isEqualTo(incremental.alsoBought(bookId, 10).stream().map(AlsoBoughtResponse::getCustomers).toList());
+        }
+    }
+
+    @Test
+    void users_areBoundedAndInactiveOnesEvicted() {
+        CoPurchaseIndex index = index(5, 10, 100, 1);
+        index.recordAll(List.of(purchase(1, 10)));
+        for (long userId = 2; userId <= 1000; userId++) {
+            index.recordAll(List.of(purchase(userId, 10)));
+            // korisnik 1 je stalno aktivan i ne ispada
+            if (userId % 20 == 0) {
+                index.recordAll(List.of(purchase(1, 1000 + userId)));
+            }
+        }
+
+        assertThat(index.users()).isLessThanOrEqualTo(100);
+        assertThat(index.evictedUsers()).isGreaterThanOrEqualTo(900);
+        // stari korisnik je ispao - nova kupovina ne pravi par sa knjigom 10
+        index.recordAll(List.of(purchase(2, 20)));
+        assertThat(index.alsoBought(20, 10)).isEmpty();
+        index.recordAll(List.of(purchase(1, 30)));
+        assertThat(index.alsoBought(30, 10)).extracting(AlsoBoughtResponse::getBookId).contains(10L);
+    }
+
+    @Test
+    void rebuild_catchesUpPurchasesWrittenWhileLoading() {
+        when(purchaseRepository.findKeysAfter(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(key(1, 1, 10)))
+                .thenReturn(List.of(key(2, 1, 20), key(3, 1, 30)))
+                .thenReturn(List.of());
+        CoPurchaseIndex index = new CoPurchaseIndex(purchaseRepository, new SimpleMeterRegistry(), 5, 10, 100, 100, 2, 1);
+
+        index.rebuild();
+
+        // ucitavanje se zavrsava posle kupovine 1; kupovine 2 i 3 se docitavaju posle zamene matrice
+        verify(purchaseRepository).findKeysAfter(eq(0L), any(Pageable.class));
+        verify(purchaseRepository).findKeysAfter(eq(1L), any(Pageable.class));
+        assertThat(index.alsoBought(30, 10)).extracting(AlsoBoughtResponse::getBookId).containsExactlyInAnyOrder(10L, 20L);
+    }
+
+    @Test
+    void alsoBought_nonPositiveLimit_throwsException() {
+        assertThatThrownBy(() -> index(5, 10, 1).alsoBought(1, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,11 +1,14 @@
 package com.bookstore.review.service;
 
+import com.bookstore.review.dto.ReviewRequest;
 import com.bookstore.review.dto.ReviewResponse;
 import com.bookstore.review.model.Review;
+import com.bookstore.review.purchase.PurchaseStore;
 import com.bookstore.review.repository.ReviewRepository;
-import org.junit.jupiter.api.BeforeEach;
+import com.bookstore.review.repository.ReviewStats;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -15,23 +18,18 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-// ReviewService gradi WebClient sam u konstruktoru iz URL stringa (@Value).
-// createReview() poziva validateBook() koji koristi WebClient — ne testiramo na unit nivou.
-// Testiramo samo metode koje čitaju isključivo iz ReviewRepository (bez spoljnih poziva).
-// createReview je pokriven na controller nivou pomoću @MockBean.
+// createReview() proverava kupovinu preko PurchaseStore — lokalno, bez REST poziva ka book-service.
 @ExtendWith(MockitoExtension.class)
 class ReviewServiceTest {
 
     @Mock
     private ReviewRepository reviewRepository;
 
-    private ReviewService reviewService;
+    @Mock
+    private PurchaseStore purchaseStore;
 
-    // Direktna konstrukcija — prosleđujemo URL string umesto @Value injekcije
-    @BeforeEach
-    void setUp() {
-        reviewService = new ReviewService(reviewRepository, "http://localhost:8082");
-    }
+    @InjectMocks
+    private ReviewService reviewService;
 
     private Review buildReview() {
         return Review.builder()
@@ -44,6 +42,36 @@ class ReviewServiceTest {
                 .build();
     }
 
+    private ReviewRequest buildRequest() {
+        ReviewRequest request = new ReviewRequest();
+        request.setBookId(5L);
+        request.setUserId(10L);
+        request.setRating(4);
+        request.setComment("Odlična knjiga!");
+        return request;
+    }
+
+    @Test
+    void createReview_purchased_success() {
+        when(purchaseStore.hasPurchased(10L, 5L)).thenReturn(true);
+        when(reviewRepository.save(any(Review.class))).thenReturn(buildReview());
+
+        ReviewResponse result = reviewService.createReview(buildRequest());
+
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getRating()).isEqualTo(4);
+    }
+
+    @Test
+    void createReview_notPurchased_throwsException() {
+        when(purchaseStore.hasPurchased(10L, 5L)).thenReturn(false);
+
+        assertThatThrownBy(() -> reviewService.createReview(buildRequest()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("has not purchased");
+        verify(reviewRepository, never()).save(any());
+    }
+
     @Test
     void getReviewsByBook_success() {
         when(reviewRepository.findByBookId(5L)).thenReturn(List.of(buildReview(), buildReview()));
@@ -83,6 +111,17 @@ class ReviewServiceTest {
         assertThat(avg).isEqualTo(0.0);
     }
 
+    @Test
+    void getBookReviewsEtag_usesAggregateOnly() {
+        ReviewStats stats = mock(ReviewStats.class);
+        when(stats.getTotal()).thenReturn(3L);
+        when(stats.getMaxId()).thenReturn(42L);
+        when(reviewRepository.findStatsByBookId(5L)).thenReturn(stats);
+
+        assertThat(reviewService.getBookReviewsEtag(5L)).isEqualTo("reviews-5-3-42");
+        verify(reviewRepository, never()).findByBookId(any());
+    }
+
     @Test
     void getAllReviews_success() {
         when(reviewRepository.findAll()).thenReturn(List.of(buildReview(), buildReview(), buildReview()));
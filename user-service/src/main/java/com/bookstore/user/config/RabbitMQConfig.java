@@ -0,0 +1,38 @@
+package com.bookstore.user.config;
+
+import com.bookstore.events.codec.EventMessageConverters;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+
+    public static final String EXCHANGE = "bookstore.exchange";
+    public static final String USER_CREATED_ROUTING_KEY = "user.created";
+    public static final String USER_DELETED_ROUTING_KEY = "user.deleted";
+
+    @Bean
+    public TopicExchange bookstoreExchange() {
+        return new TopicExchange(EXCHANGE);
+    }
+
+    /**
+     * Cita JSON i CBOR poruke prema content-type zaglavlju; salje u formatu iz konfiguracije.
+     */
+    @Bean
+    public MessageConverter messageConverter(@Value("${bookstore.messaging.wire-format:json}") String wireFormat) {
+        return EventMessageConverters.create(wireFormat);
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(messageConverter);
+        return template;
+    }
+}
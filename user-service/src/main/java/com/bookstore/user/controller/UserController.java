@@ -1,5 +1,7 @@
 package com.bookstore.user.controller;
 
+import com.bookstore.user.dto.UserExistenceResponse;
+import com.bookstore.user.dto.UserImportResponse;
 import com.bookstore.user.dto.UserRequest;
 import com.bookstore.user.dto.UserResponse;
 import com.bookstore.user.service.UserService;
@@ -26,12 +28,39 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(userService.createUser(request));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<UserImportResponse> importUsers(@RequestBody List<@Valid UserRequest> requests) {
+        log.info("POST /api/users/bulk - importing {} users", requests.size());
+        return ResponseEntity.ok(userService.importUsers(requests));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
         log.info("GET /api/users/{}", id);
         return ResponseEntity.ok(userService.getUserById(id));
     }
 
+    // Interna provera postojanja - bez tela odgovora i bez ucitavanja entiteta
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> userExists(@PathVariable Long id) {
+        log.debug("HEAD /api/users/{}", id);
+        return userService.userExists(id) ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/exists")
+    public ResponseEntity<UserExistenceResponse> checkUsersExist(@RequestBody List<Long> ids) {
+        log.info("POST /api/users/exists - {} ids", ids.size());
+        return ResponseEntity.ok(userService.checkUsersExist(ids));
+    }
+
+    @GetMapping("/ids")
+    public ResponseEntity<List<Long>> getUserIds(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "10000") int limit) {
+        log.info("GET /api/users/ids - afterId={}, limit={}", afterId, limit);
+        return ResponseEntity.ok(userService.getUserIds(afterId, limit));
+    }
+
     @GetMapping
     public ResponseEntity<List<UserResponse>> getAllUsers() {
         log.info("GET /api/users - fetching all users");
@@ -0,0 +1,13 @@
+package com.bookstore.user.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserExistenceResponse {
+    private List<Long> existing;
+    private List<Long> missing;
+}
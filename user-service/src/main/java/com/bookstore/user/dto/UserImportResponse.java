@@ -0,0 +1,15 @@
+package com.bookstore.user.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserImportResponse {
+    private int requested;
+    private int created;
+    private int skipped;
+    private List<String> skippedUsernames;
+}
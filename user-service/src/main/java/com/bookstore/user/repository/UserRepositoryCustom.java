@@ -0,0 +1,14 @@
+package com.bookstore.user.repository;
+
+import com.bookstore.user.model.User;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Upisuje korisnike viserednim INSERT-om po paketima; redovi koji krse unique
+     * ogranicenja se preskacu. Vraca samo zaista upisane korisnike (sa dodeljenim id-jem).
+     */
+    List<User> insertIgnoringDuplicates(List<User> users);
+}
@@ -0,0 +1,58 @@
+package com.bookstore.user.repository;
+
+import com.bookstore.user.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC implementacija masovnog upisa - IDENTITY kljucevi onemogucavaju Hibernate batch insert,
+ * pa se svaki paket salje kao jedan INSERT ... ON CONFLICT DO NOTHING RETURNING.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String INSERT_PREFIX = "INSERT INTO users (username, email, full_name, created_at) VALUES ";
+    private static final String INSERT_SUFFIX = " ON CONFLICT DO NOTHING RETURNING id, username, email, full_name, created_at";
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (rs, rowNum) -> User.builder()
+            .id(rs.getLong("id"))
+            .username(rs.getString("username"))
+            .email(rs.getString("email"))
+            .fullName(rs.getString("full_name"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public UserRepositoryCustomImpl(JdbcTemplate jdbcTemplate,
+                              @Value("${bookstore.users.import-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<User> insertIgnoringDuplicates(List<User> users) {
+        List<User> inserted = new ArrayList<>(users.size());
+        for (int from = 0; from < users.size(); from += batchSize) {
+            List<User> batch = users.subList(from, Math.min(from + batchSize, users.size()));
+            String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(batch.size(), "(?, ?, ?, ?)")) + INSERT_SUFFIX;
+
+            Object[] args = new Object[batch.size() * 4];
+            int i = 0;
+            for (User user : batch) {
+                args[i++] = user.getUsername();
+                args[i++] = user.getEmail();
+                args[i++] = user.getFullName();
+                args[i++] = Timestamp.valueOf(user.getCreatedAt());
+            }
+            inserted.addAll(jdbcTemplate.query(sql, USER_ROW_MAPPER, args));
+        }
+        return inserted;
+    }
+}
@@ -1,43 +1,81 @@
 package com.bookstore.user.service;
 
+import com.bookstore.user.config.RabbitMQConfig;
+import com.bookstore.user.dto.UserExistenceResponse;
+import com.bookstore.user.dto.UserImportResponse;
 import com.bookstore.user.dto.UserRequest;
 import com.bookstore.user.dto.UserResponse;
+import com.bookstore.events.UserChangedEvent;
 import com.bookstore.user.model.User;
 import com.bookstore.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
 
+    // PostgreSQL ogranicava broj parametara upita, pa se velike liste id-jeva salju u delovima
+    private static final int EXISTENCE_CHUNK_SIZE = 1000;
+
     private final UserRepository userRepository;
+    private final RabbitTemplate rabbitTemplate;
 
     public UserResponse createUser(UserRequest request) {
         log.info("Creating user with username: {}", request.getUsername());
 
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new IllegalArgumentException("Username already exists: " + request.getUsername());
-        }
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Email already exists: " + request.getEmail());
+        // Jedan INSERT - jedinstvenost garantuju unique ogranicenja, bez prethodnih exists upita
+        User saved;
+        try {
+            saved = userRepository.save(toUser(request));
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUser(request, e);
         }
-
-        User user = User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .fullName(request.getFullName())
-                .build();
-
-        User saved = userRepository.save(user);
         log.info("User created successfully with id: {}", saved.getId());
+        publish(saved.getId(), UserChangedEvent.ChangeType.CREATED);
         return toResponse(saved);
     }
 
+    public UserImportResponse importUsers(List<UserRequest> requests) {
+        log.info("Importing {} users", requests.size());
+
+        List<User> inserted = userRepository.insertIgnoringDuplicates(requests.stream()
+                .map(this::toUser)
+                .toList());
+
+        inserted.forEach(user -> publish(user.getId(), UserChangedEvent.ChangeType.CREATED));
+        // svaki upisani korisnik pokriva tacno jedan red zahteva - ponovljeno korisnicko ime
+        // u istom zahtevu je preskocen red, pa je created + skipped == requested
+        Set<String> unclaimed = inserted.stream()
+                .map(User::getUsername)
+                .collect(Collectors.toCollection(HashSet::new));
+        List<String> skipped = requests.stream()
+                .map(UserRequest::getUsername)
+                .filter(username -> !unclaimed.remove(username))
+                .toList();
+
+        log.info("Imported {} users, skipped {} duplicates", inserted.size(), skipped.size());
+        return UserImportResponse.builder()
+                .requested(requests.size())
+                .created(inserted.size())
+                .skipped(skipped.size())
+                .skippedUsernames(skipped)
+                .build();
+    }
+
     public UserResponse getUserById(Long id) {
         log.info("Fetching user with id: {}", id);
         User user = userRepository.findById(id)
@@ -45,6 +83,32 @@ public class UserService {
         return toResponse(user);
     }
 
+    public boolean userExists(Long id) {
+        return userRepository.existsById(id);
+    }
+
+    public UserExistenceResponse checkUsersExist(List<Long> ids) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        log.info("Checking existence of {} users", distinct.size());
+
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < distinct.size(); from += EXISTENCE_CHUNK_SIZE) {
+            existing.addAll(userRepository.findExistingIds(
+                    distinct.subList(from, Math.min(from + EXISTENCE_CHUNK_SIZE, distinct.size()))));
+        }
+        return UserExistenceResponse.builder()
+                .existing(distinct.stream().filter(existing::contains).toList())
+                .missing(distinct.stream().filter(id -> !existing.contains(id)).toList())
+                .build();
+    }
+
+    /**
+     * Stranicenje po id-ju (keyset) - potrosaci ucitavaju kompletan skup id-jeva bez OFFSET skeniranja.
+     */
+    public List<Long> getUserIds(Long afterId, int limit) {
+        return userRepository.findIdsAfter(afterId, PageRequest.ofSize(limit));
+    }
+
     public List<UserResponse> getAllUsers() {
         log.info("Fetching all users");
         return userRepository.findAll().stream()
@@ -59,6 +123,44 @@ public class UserService {
         }
         userRepository.deleteById(id);
         log.info("User deleted with id: {}", id);
+        publish(id, UserChangedEvent.ChangeType.DELETED);
+    }
+
+    // Message Queue: obavestavanje ostalih servisa o promeni skupa korisnika.
+    // Neuspeh slanja ne obara zahtev - potrosaci imaju REST proveru i periodicnu sinhronizaciju.
+    private void publish(Long userId, UserChangedEvent.ChangeType type) {
+        String routingKey = type == UserChangedEvent.ChangeType.CREATED
+                ? RabbitMQConfig.USER_CREATED_ROUTING_KEY
+                : RabbitMQConfig.USER_DELETED_ROUTING_KEY;
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE, routingKey,
+                    UserChangedEvent.builder().userId(userId).type(type).build());
+        } catch (AmqpException e) {
+            log.warn("Failed to publish {} event for userId {}: {}", type, userId, e.getMessage());
+        }
+    }
+
+    private User toUser(UserRequest request) {
+        return User.builder()
+                .username(request.getUsername())
+                .email(request.getEmail())
+                .fullName(request.getFullName())
+                .build();
+    }
+
+    private IllegalArgumentException duplicateUser(UserRequest request, DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+                ? cve.getConstraintName() : "";
+        // PostgreSQL poruka sadrzi "Key (username)=(...)" - oslanjamo se na nju ako ime ogranicenja nije poznato
+        String detail = (constraint + " " + e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+
+        if (detail.contains(User.USERNAME_CONSTRAINT) || detail.contains("(username)")) {
+            return new IllegalArgumentException("Username already exists: " + request.getUsername());
+        }
+        if (detail.contains(User.EMAIL_CONSTRAINT) || detail.contains("(email)")) {
+            return new IllegalArgumentException("Email already exists: " + request.getEmail());
+        }
+        return new IllegalArgumentException("User already exists: " + request.getUsername());
     }
 
     private UserResponse toResponse(User user) {
@@ -1,5 +1,7 @@
 package com.bookstore.user.controller;
 
+import com.bookstore.user.dto.UserExistenceResponse;
+import com.bookstore.user.dto.UserImportResponse;
 import com.bookstore.user.dto.UserRequest;
 import com.bookstore.user.dto.UserResponse;
 import com.bookstore.user.service.UserService;
@@ -71,6 +73,28 @@ class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void importUsers_returns200() throws Exception {
+        when(userService.importUsers(any())).thenReturn(UserImportResponse.builder()
+                .requested(1).created(1).skipped(0).skippedUsernames(List.of()).build());
+
+        mockMvc.perform(post("/api/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(buildRequest()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+    }
+
+    @Test
+    void importUsers_invalidElement_returns400() throws Exception {
+        mockMvc.perform(post("/api/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(buildRequest(), new UserRequest()))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
     @Test
     void getUserById_returns200() throws Exception {
         when(userService.getUserById(1L)).thenReturn(buildResponse());
@@ -91,6 +115,49 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.error").value("User not found with id: 99"));
     }
 
+    @Test
+    void headUser_exists_returns200() throws Exception {
+        when(userService.userExists(1L)).thenReturn(true);
+
+        mockMvc.perform(head("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    void headUser_missing_returns404() throws Exception {
+        when(userService.userExists(99L)).thenReturn(false);
+
+        mockMvc.perform(head("/api/users/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void checkUsersExist_returns200() throws Exception {
+        when(userService.checkUsersExist(List.of(1L, 2L))).thenReturn(UserExistenceResponse.builder()
+                .existing(List.of(1L))
+                .missing(List.of(2L))
+                .build());
+
+        mockMvc.perform(post("/api/users/exists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.existing[0]").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(2));
+    }
+
+    @Test
+    void getUserIds_returns200() throws Exception {
+        when(userService.getUserIds(0L, 10000)).thenReturn(List.of(1L, 2L));
+
+        mockMvc.perform(get("/api/users/ids"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
     @Test
     void getAllUsers_returns200() throws Exception {
         when(userService.getAllUsers()).thenReturn(List.of(buildResponse()));
@@ -1,7 +1,10 @@
 package com.bookstore.user.service;
 
+import com.bookstore.user.dto.UserExistenceResponse;
+import com.bookstore.user.dto.UserImportResponse;
 import com.bookstore.user.dto.UserRequest;
 import com.bookstore.user.dto.UserResponse;
+import com.bookstore.events.UserChangedEvent;
 import com.bookstore.user.model.User;
 import com.bookstore.user.repository.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -9,13 +12,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 
+import java.net.ConnectException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +35,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
     @InjectMocks
     private UserService userService;
 
@@ -47,8 +61,6 @@ class UserServiceTest {
 
     @Test
     void createUser_success() {
-        when(userRepository.existsByUsername("john")).thenReturn(false);
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(false);
         when(userRepository.save(any(User.class))).thenReturn(buildUser());
 
         UserResponse response = userService.createUser(buildRequest());
@@ -56,11 +68,26 @@ class UserServiceTest {
         assertThat(response.getId()).isEqualTo(1L);
         assertThat(response.getUsername()).isEqualTo("john");
         assertThat(response.getEmail()).isEqualTo("john@example.com");
+        // samo jedan poziv ka bazi - bez existsBy provera
+        verify(userRepository).save(any(User.class));
+        verifyNoMoreInteractions(userRepository);
+        verify(rabbitTemplate).convertAndSend(eq("bookstore.exchange"), eq("user.created"),
+                eq(UserChangedEvent.builder().userId(1L).type(UserChangedEvent.ChangeType.CREATED).build()));
+    }
+
+    @Test
+    void createUser_brokerUnavailable_stillCreatesUser() {
+        when(userRepository.save(any(User.class))).thenReturn(buildUser());
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        assertThat(userService.createUser(buildRequest()).getId()).isEqualTo(1L);
     }
 
     @Test
     void createUser_duplicateUsername_throwsException() {
-        when(userRepository.existsByUsername("john")).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key value violates unique constraint \"uk_users_username\" Detail: Key (username)=(john) already exists."));
 
         assertThatThrownBy(() -> userService.createUser(buildRequest()))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -69,14 +96,41 @@ class UserServiceTest {
 
     @Test
     void createUser_duplicateEmail_throwsException() {
-        when(userRepository.existsByUsername("john")).thenReturn(false);
-        when(userRepository.existsByEmail("john@example.com")).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key value violates unique constraint \"users_email_key\" Detail: Key (email)=(john@example.com) already exists."));
 
         assertThatThrownBy(() -> userService.createUser(buildRequest()))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Email already exists");
     }
 
+    @Test
+    void importUsers_reportsSkippedDuplicates() {
+        UserRequest jane = buildRequest();
+        jane.setUsername("jane");
+        jane.setEmail("jane@example.com");
+        when(userRepository.insertIgnoringDuplicates(anyList())).thenReturn(List.of(buildUser()));
+
+        UserImportResponse response = userService.importUsers(List.of(buildRequest(), jane));
+
+        assertThat(response.getRequested()).isEqualTo(2);
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getSkipped()).isEqualTo(1);
+        assertThat(response.getSkippedUsernames()).containsExactly("jane");
+    }
+
+    @Test
+    void importUsers_duplicateRowInRequest_isCountedAsSkipped() {
+        when(userRepository.insertIgnoringDuplicates(anyList())).thenReturn(List.of(buildUser()));
+
+        UserImportResponse response = userService.importUsers(List.of(buildRequest(), buildRequest()));
+
+        assertThat(response.getRequested()).isEqualTo(2);
+        assertThat(response.getCreated()).isEqualTo(1);
+        assertThat(response.getSkipped()).isEqualTo(1);
+        assertThat(response.getSkippedUsernames()).containsExactly("john");
+    }
+
     @Test
     void getUserById_success() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(buildUser()));
@@ -96,6 +150,31 @@ class UserServiceTest {
                 .hasMessageContaining("User not found");
     }
 
+    @Test
+    void userExists_usesExistsQuery() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertThat(userService.userExists(1L)).isTrue();
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void checkUsersExist_splitsExistingAndMissing() {
+        when(userRepository.findExistingIds(List.of(1L, 2L, 3L))).thenReturn(List.of(3L, 1L));
+
+        UserExistenceResponse response = userService.checkUsersExist(List.of(1L, 2L, 3L, 1L));
+
+        assertThat(response.getExisting()).containsExactly(1L, 3L);
+        assertThat(response.getMissing()).containsExactly(2L);
+    }
+
+    @Test
+    void getUserIds_usesKeysetPage() {
+        when(userRepository.findIdsAfter(eq(10L), any(Pageable.class))).thenReturn(List.of(11L, 12L));
+
+        assertThat(userService.getUserIds(10L, 2)).containsExactly(11L, 12L);
+    }
+
     @Test
     void getAllUsers_returnsAllUsers() {
         when(userRepository.findAll()).thenReturn(List.of(buildUser(), buildUser()));
@@ -112,6 +191,7 @@ class UserServiceTest {
         userService.deleteUser(1L);
 
         verify(userRepository).deleteById(1L);
+        verify(rabbitTemplate).convertAndSend(eq("bookstore.exchange"), eq("user.deleted"), any(Object.class));
     }
 
     @Test